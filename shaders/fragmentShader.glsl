@@ -1,10 +1,10 @@
 #version 400 core
 
-out vec4 out_color;
+in vec3 pass_color;
 
-uniform vec4 color;
+out vec4 out_color;
 
 void main(){
 	// Setting output color
-	out_color = color;
+	out_color = vec4(pass_color, 1.0);
 }
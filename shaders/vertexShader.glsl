@@ -1,11 +1,29 @@
 #version 400 core
 
 in vec3 position;
+in vec3 color;
+in vec3 cell;
+
+out vec3 pass_color;
 
 uniform mat4 projectionMatrix;
 uniform mat4 transformMatrix;
+uniform mat4 layerMatrix;
+uniform vec3 layerAxis;
+uniform vec2 layerRange;
 
 void main(){
+	// Rotating the vertex if its cell is in the layer being turned, no cell
+	// is selected while the range is empty
+	vec4 local = vec4(position, 1.0);
+	float depth = dot(cell, layerAxis);
+	if (depth > layerRange.x && depth < layerRange.y) {
+		local = layerMatrix * local;
+	}
+
 	// Setting position of the vertex in normalized device space
-	gl_Position = projectionMatrix * transformMatrix * vec4(position, 1.0);
+	gl_Position = projectionMatrix * transformMatrix * local;
+
+	// Passing the vertex's color on to the fragment shader
+	pass_color = color;
 }
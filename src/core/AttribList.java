@@ -26,9 +26,13 @@ public class AttribList {
      */
     private int indexVbo;
     /**
-     * Pointer for the object's texture coordinates vbo
+     * Pointer for the object's vertex color vbo
      */
-    private int texVbo;
+    private int colorVbo;
+    /**
+     * Pointer for the object's vertex cell vbo
+     */
+    private int cellVbo;
 
 
     /**
@@ -39,7 +43,8 @@ public class AttribList {
 
         vertVbo = GL15.glGenBuffers();
         indexVbo = GL15.glGenBuffers();
-        texVbo = GL15.glGenBuffers();
+        colorVbo = GL15.glGenBuffers();
+        cellVbo = GL15.glGenBuffers();
     }
 
 
@@ -74,12 +79,22 @@ public class AttribList {
 
 
     /**
-     * Gets the object's texture coordinates vbo
+     * Gets the object's vertex color vbo
+     * 
+     * @return Object's vertex color vbo pointer
+     */
+    public int getColorVbo() {
+        return colorVbo;
+    }
+
+
+    /**
+     * Gets the object's vertex cell vbo
      * 
-     * @return Object's texture coordinates vbo pointer
+     * @return Object's vertex cell vbo pointer
      */
-    public int getTexVbo() {
-        return texVbo;
+    public int getCellVbo() {
+        return cellVbo;
     }
 
 
@@ -90,7 +105,8 @@ public class AttribList {
         GL30.glDeleteVertexArrays(vao);
         GL15.glDeleteBuffers(vertVbo);
         GL15.glDeleteBuffers(indexVbo);
-        GL15.glDeleteBuffers(texVbo);
+        GL15.glDeleteBuffers(colorVbo);
+        GL15.glDeleteBuffers(cellVbo);
     }
 
 }
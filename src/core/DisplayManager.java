@@ -22,7 +22,7 @@ public class DisplayManager {
      */
     public static final int HEIGHT = 720;
     /**
-     * The maximum frame rate of the display
+     * The default maximum frame rate of the display
      */
     public static final int FPS_CAP = 120;
     /**
@@ -30,6 +30,11 @@ public class DisplayManager {
      */
     public static final String TITLE = "Rubik's Cube Simulator";
 
+    /**
+     * The maximum frame rate of the display, or 0 for no limit
+     */
+    private static int fpsCap = FPS_CAP;
+
 
     /**
      * Creates a new display
@@ -54,11 +59,34 @@ public class DisplayManager {
      * Updates and synchronizes the display with the specified frame rate
      */
     public static void update() {
-        Display.sync(FPS_CAP);
+        if (fpsCap > 0) {
+            Display.sync(fpsCap);
+        }
         Display.update();
     }
 
 
+    /**
+     * Sets the maximum frame rate used by update()
+     * 
+     * @param cap
+     *            The maximum number of frames per second, or 0 for no limit
+     */
+    public static void setFpsCap(int cap) {
+        fpsCap = Math.max(0, cap);
+    }
+
+
+    /**
+     * Gets the maximum frame rate used by update()
+     * 
+     * @return The maximum number of frames per second, or 0 for no limit
+     */
+    public static int getFpsCap() {
+        return fpsCap;
+    }
+
+
     /**
      * Closes the display when the program is terminated
      */
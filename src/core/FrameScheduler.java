@@ -0,0 +1,67 @@
+package core;
+
+/**
+ * Decides when the render loop needs to draw a new frame. Anything that
+ * changes what is on screen, such as a sticker color or a frame of an
+ * animation, calls requestRedraw(), and while the picture is unchanged the
+ * render loop waits in awaitRedraw() instead of redrawing the same frame.
+ * Requests may come from any thread.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class FrameScheduler {
+
+    /**
+     * Guards the redraw flag and is notified when a redraw is requested
+     */
+    private static final Object lock = new Object();
+    /**
+     * Whether a frame has been requested since the last one was started; the
+     * first frame is always drawn
+     */
+    private static boolean redrawRequested = true;
+
+
+    /**
+     * Requests that the render loop draws another frame, waking it if it is
+     * waiting
+     */
+    public static void requestRedraw() {
+        synchronized (lock) {
+            redrawRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+
+    /**
+     * Waits until a redraw is requested or the timeout passes, then clears the
+     * request so that later requests ask for another frame
+     * 
+     * @param timeoutMillis
+     *            The longest time to wait in milliseconds
+     * @return True if a redraw was requested
+     */
+    public static boolean awaitRedraw(long timeoutMillis) {
+        synchronized (lock) {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (!redrawRequested && remaining > 0) {
+                try {
+                    lock.wait(remaining);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+
+            boolean requested = redrawRequested;
+            redrawRequested = false;
+            return requested;
+        }
+    }
+
+}
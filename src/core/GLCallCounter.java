@@ -0,0 +1,57 @@
+package core;
+
+/**
+ * Counts the OpenGL calls issued by the render loop, so the cost of a frame
+ * can be compared between renderer changes without profiling the GPU. Call
+ * sites add the number of GL calls they issue, and the main loop ends each
+ * frame with endFrame(). Only the render thread issues GL calls, so the count
+ * is not synchronized.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class GLCallCounter {
+
+    /**
+     * GL calls issued so far in the current frame
+     */
+    private static int frameCalls = 0;
+    /**
+     * GL calls issued during the last completed frame
+     */
+    private static int lastFrameCalls = 0;
+
+
+    /**
+     * Records GL calls issued by the caller
+     * 
+     * @param calls
+     *            The number of GL calls issued
+     */
+    public static void add(int calls) {
+        frameCalls += calls;
+    }
+
+
+    /**
+     * Ends the current frame, saving its count and starting a new one
+     * 
+     * @return The number of GL calls issued during the frame that ended
+     */
+    public static int endFrame() {
+        lastFrameCalls = frameCalls;
+        frameCalls = 0;
+        return lastFrameCalls;
+    }
+
+
+    /**
+     * Gets the number of GL calls issued during the last completed frame
+     * 
+     * @return The number of GL calls in the last frame
+     */
+    public static int getLastFrameCalls() {
+        return lastFrameCalls;
+    }
+
+}
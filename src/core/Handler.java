@@ -1,6 +1,6 @@
 package core;
 
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
 import input.Camera;
 import math.Matrix4f;
 
@@ -20,11 +20,11 @@ public class Handler {
     public static final Matrix4f PROJ_MAT = new Matrix4f(true).genProjection();
 
     /**
-     * List that contains all objects needed to be updated and rendered to the
-     * screen, is copy on write to avoid concurrent modification errors
+     * Array that contains all objects needed to be updated and rendered to the
+     * screen; it is replaced rather than modified to avoid concurrent
+     * modification errors, and looping over it never allocates an iterator
      */
-    private static CopyOnWriteArrayList<RenderObject> objects =
-        new CopyOnWriteArrayList<RenderObject>();
+    private static volatile RenderObject[] objects = new RenderObject[0];
 
 
     /**
@@ -36,9 +36,10 @@ public class Handler {
      *            Camera used to updated rotation of cube
      */
     public static void cycle(ShaderProgram shader, Camera camera) {
-        for (RenderObject object : objects) {
-            object.update(shader, camera);
-            object.render();
+        RenderObject[] current = objects;
+        for (int i = 0; i < current.length; i++) {
+            current[i].update(shader, camera);
+            current[i].render();
         }
     }
 
@@ -49,8 +50,10 @@ public class Handler {
      * @param object
      *            Object being added to the update list
      */
-    public static void add(RenderObject object) {
-        objects.add(object);
+    public static synchronized void add(RenderObject object) {
+        RenderObject[] updated = Arrays.copyOf(objects, objects.length + 1);
+        updated[objects.length] = object;
+        objects = updated;
     }
 
 
@@ -61,8 +64,17 @@ public class Handler {
      * @param object
      *            Object being removed from the update list
      */
-    public static void remove(RenderObject object) {
-        objects.remove(object);
+    public static synchronized void remove(RenderObject object) {
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i] == object) {
+                RenderObject[] updated = new RenderObject[objects.length - 1];
+                System.arraycopy(objects, 0, updated, 0, i);
+                System.arraycopy(objects, i + 1, updated, i, updated.length
+                    - i);
+                objects = updated;
+                return;
+            }
+        }
     }
 
 
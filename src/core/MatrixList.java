@@ -4,7 +4,8 @@ import math.Matrix4f;
 
 /**
  * This class contains all of the data for every matrix needed to construct an
- * object's transformation matrix
+ * object's transformation matrix. The transformation matrix is only
+ * recomputed after one of its component matrices has changed.
  * 
  * @author Chris Hurt
  * @version 1.1
@@ -21,6 +22,16 @@ public class MatrixList {
      * sub-matrices
      */
     private Matrix4f transformMatrix;
+    /**
+     * Holds partial products while the transformation matrix is updated
+     */
+    private Matrix4f scratchMatrix;
+    /**
+     * The sum of the component matrices' versions when the transformation
+     * matrix was last computed; versions only increase, so the sum changes
+     * whenever any component changes
+     */
+    private long composedVersion;
 
 
     /**
@@ -69,6 +80,8 @@ public class MatrixList {
             transZ);
 
         transformMatrix = new Matrix4f(true);
+        scratchMatrix = new Matrix4f(true);
+        composedVersion = -1;
         updateTransform(); // Multiplies all component matrices together to
                            // generate initial transformMatrix
     }
@@ -85,6 +98,10 @@ public class MatrixList {
      *            Scale in z-direction
      */
     public void scale(float scaleX, float scaleY, float scaleZ) {
+        if (scaleX == 1 && scaleY == 1 && scaleZ == 1) {
+            return;
+        }
+
         scaleMatrix.setScale(scaleMatrix.getScaleX() * scaleX, scaleMatrix
             .getScaleY() * scaleY, scaleMatrix.getScaleZ() * scaleZ);
     }
@@ -101,9 +118,16 @@ public class MatrixList {
      *            Rotation around z-axis in degrees
      */
     public void rotate(float rotX, float rotY, float rotZ) {
-        rotXMatrix.setRotationX(rotXMatrix.getRotX() + rotX);
-        rotYMatrix.setRotationY(rotYMatrix.getRotY() + rotY);
-        rotZMatrix.setRotationZ(rotZMatrix.getRotZ() + rotZ);
+        // Only recalculating the rotations that change
+        if (rotX != 0) {
+            rotXMatrix.setRotationX(rotXMatrix.getRotX() + rotX);
+        }
+        if (rotY != 0) {
+            rotYMatrix.setRotationY(rotYMatrix.getRotY() + rotY);
+        }
+        if (rotZ != 0) {
+            rotZMatrix.setRotationZ(rotZMatrix.getRotZ() + rotZ);
+        }
     }
 
 
@@ -118,6 +142,10 @@ public class MatrixList {
      *            Translation in z-direction in world space units
      */
     public void translate(float transX, float transY, float transZ) {
+        if (transX == 0 && transY == 0 && transZ == 0) {
+            return;
+        }
+
         translationMatrix.setTranslation(translationMatrix.getTransX() + transX,
             translationMatrix.getTransY() + transY, translationMatrix
                 .getTransZ() + transZ);
@@ -127,11 +155,24 @@ public class MatrixList {
     /**
      * Updates the object's transformation matrix using all component matrices,
      * with transformations applied in the following order: scale, rotation Z,
-     * rotation Y, rotation X, translation
+     * rotation Y, rotation X, translation. The products are computed in place,
+     * alternating between the transformation matrix and a scratch matrix, so
+     * updating every frame never allocates memory. Nothing is computed if no
+     * component matrix has changed since the last update.
      */
     public void updateTransform() {
-        transformMatrix = translationMatrix.mul(rotXMatrix).mul(rotYMatrix).mul(
-            rotZMatrix).mul(scaleMatrix);
+        long version = (long)scaleMatrix.getVersion() + rotXMatrix.getVersion()
+            + rotYMatrix.getVersion() + rotZMatrix.getVersion()
+            + translationMatrix.getVersion();
+        if (version == composedVersion) {
+            return;
+        }
+        composedVersion = version;
+
+        translationMatrix.mulInto(rotXMatrix, scratchMatrix);
+        scratchMatrix.mulInto(rotYMatrix, transformMatrix);
+        transformMatrix.mulInto(rotZMatrix, scratchMatrix);
+        scratchMatrix.mulInto(scaleMatrix, transformMatrix);
     }
 
 
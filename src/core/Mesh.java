@@ -16,6 +16,15 @@ public class Mesh {
      * Indices used to specify the order in which vertices should be rendered
      */
     private int[] indices;
+    /**
+     * Mesh's vertex colors, or null if the mesh has no per-vertex colors
+     */
+    private float[] colors;
+    /**
+     * The cell of the 3x3x3 grid holding each vertex, or null if the mesh is
+     * not divided into cells
+     */
+    private float[] cells;
 
 
     /**
@@ -35,6 +44,56 @@ public class Mesh {
     }
 
 
+    /**
+     * Creates a new Mesh object with a color for every vertex
+     * 
+     * @param vertices
+     *            A float array of vertex positions, where each vertex uses
+     *            three consecutive values in the array: an x-position,
+     *            y-position, and z-position in model space
+     * @param colors
+     *            A float array of vertex colors, where each vertex uses three
+     *            consecutive values in the array: red, green, and blue
+     *            between 0 and 1
+     * @param indices
+     *            An int array of indices used to specify the order in which
+     *            vertices should be rendered
+     */
+    public Mesh(float[] vertices, float[] colors, int[] indices) {
+        this(vertices, indices);
+        this.colors = colors;
+    }
+
+
+    /**
+     * Creates a new Mesh object with a color and a grid cell for every vertex
+     * 
+     * @param vertices
+     *            A float array of vertex positions, where each vertex uses
+     *            three consecutive values in the array: an x-position,
+     *            y-position, and z-position in model space
+     * @param colors
+     *            A float array of vertex colors, where each vertex uses three
+     *            consecutive values in the array: red, green, and blue
+     *            between 0 and 1
+     * @param cells
+     *            A float array of grid cells, where each vertex uses three
+     *            consecutive values in the array: the x, y, and z position of
+     *            the vertex's cell in the 3x3x3 grid, each -1, 0, or 1
+     * @param indices
+     *            An int array of indices used to specify the order in which
+     *            vertices should be rendered
+     */
+    public Mesh(
+        float[] vertices,
+        float[] colors,
+        float[] cells,
+        int[] indices) {
+        this(vertices, colors, indices);
+        this.cells = cells;
+    }
+
+
     /**
      * Gets the mesh's vertices array
      * 
@@ -54,4 +113,26 @@ public class Mesh {
         return indices;
     }
 
+
+    /**
+     * Gets the mesh's vertex colors array
+     * 
+     * @return Mesh's vertex colors array, or null if the mesh has no vertex
+     *         colors
+     */
+    public float[] getColors() {
+        return colors;
+    }
+
+
+    /**
+     * Gets the mesh's vertex cells array
+     * 
+     * @return Mesh's vertex cells array, or null if the mesh is not divided
+     *         into cells
+     */
+    public float[] getCells() {
+        return cells;
+    }
+
 }
@@ -17,6 +17,19 @@ import utilities.BufferConverter;
  */
 public abstract class RenderObject {
 
+    /**
+     * Index of the vao attribute holding vertex positions
+     */
+    public static final int POSITION_ATTRIBUTE = 0;
+    /**
+     * Index of the vao attribute holding vertex colors
+     */
+    public static final int COLOR_ATTRIBUTE = 1;
+    /**
+     * Index of the vao attribute holding the grid cell of every vertex
+     */
+    public static final int CELL_ATTRIBUTE = 2;
+
     /**
      * The model being used by the object, which specifies its mesh and texture
      * color
@@ -90,7 +103,24 @@ public abstract class RenderObject {
         GL30.glBindVertexArray(attribs.getVao());
 
         // Loading the object's vertex data into its vertex position vbo
-        loadVbo(0, attribs.getVertVbo(), vertices, 3);
+        loadVbo(POSITION_ATTRIBUTE, attribs.getVertVbo(), vertices, 3,
+            GL15.GL_STATIC_DRAW);
+
+        // Loading the object's vertex colors into its color vbo, which is
+        // updated whenever the colors change
+        if (model.getMesh().getColors() != null) {
+            loadVbo(COLOR_ATTRIBUTE, attribs.getColorVbo(), BufferConverter
+                .arrayToBuffer(model.getMesh().getColors()), 3,
+                GL15.GL_DYNAMIC_DRAW);
+        }
+
+        // Loading the grid cell of every vertex, used to select the vertices
+        // of a turning layer
+        if (model.getMesh().getCells() != null) {
+            loadVbo(CELL_ATTRIBUTE, attribs.getCellVbo(), BufferConverter
+                .arrayToBuffer(model.getMesh().getCells()), 3,
+                GL15.GL_STATIC_DRAW);
+        }
 
         // Loading the object's index data into its index vbo
         GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, attribs.getIndexVbo());
@@ -116,27 +146,69 @@ public abstract class RenderObject {
      * @param dataSegmentLength
      *            Number of the buffer's indices used to store information about
      *            one vertex (e.g. 3 for a vertex's x, y, and z positions)
+     * @param usage
+     *            How often the data will change, GL_STATIC_DRAW or
+     *            GL_DYNAMIC_DRAW
      */
     private void loadVbo(
         int attribute,
         int vbo,
         FloatBuffer buffer,
-        int dataSegmentLength) {
+        int dataSegmentLength,
+        int usage) {
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, usage);
         GL20.glVertexAttribPointer(attribute, dataSegmentLength, GL11.GL_FLOAT,
             false, 0, 0);
+
+        // Enabled attributes are part of the vao's state, so they stay
+        // enabled whenever the vao is bound
+        GL20.glEnableVertexAttribArray(attribute);
     }
 
 
     /**
-     * Unbinds any array buffer, element array buffer, and vao currently being
-     * used by the object
+     * Unbinds the vao and array buffer currently being used by the object; the
+     * vao is unbound first so that it keeps its element array buffer binding
      */
     private void unbindAttribs() {
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
         GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+
+    /**
+     * Binds the object's vertex color vbo so its colors can be updated
+     */
+    protected void beginColorUpdate() {
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, attribs.getColorVbo());
+        GLCallCounter.add(1);
+    }
+
+
+    /**
+     * Replaces the colors of a run of consecutive vertices, leaving the rest
+     * of the color vbo untouched
+     * 
+     * @precondition beginColorUpdate() has been called
+     * @param firstVertex
+     *            The first vertex whose color is replaced
+     * @param colors
+     *            Buffer containing three color values for each vertex replaced
+     */
+    protected void updateColors(int firstVertex, FloatBuffer colors) {
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, firstVertex * 3L
+            * Float.BYTES, colors);
+        GLCallCounter.add(1);
+    }
+
+
+    /**
+     * Unbinds the object's vertex color vbo after its colors are updated
+     */
+    protected void endColorUpdate() {
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GLCallCounter.add(1);
     }
 
 
@@ -155,21 +227,17 @@ public abstract class RenderObject {
      * Renders the object to the screen
      */
     public void render() {
-        // Binding the object's vao and indices vbo for OpenGL to use, enabling
-        // the vao's vertex position attribute
+        // Binding the object's vao for OpenGL to use, which also binds its
+        // indices vbo and enables its attributes
         GL30.glBindVertexArray(attribs.getVao());
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, attribs.getIndexVbo());
-        GL20.glEnableVertexAttribArray(0);
 
         // Drawing the object to the screen
         GL11.glDrawElements(GL11.GL_TRIANGLES, model.getMesh()
             .getIndices().length, GL11.GL_UNSIGNED_INT, 0);
 
-        // Disabling the vao's vertex position attribute, unbinding the vao and
-        // indices vbo
-        GL20.glDisableVertexAttribArray(0);
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        // Unbinding the vao
         GL30.glBindVertexArray(0);
+        GLCallCounter.add(3);
     }
 
 
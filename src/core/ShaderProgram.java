@@ -1,17 +1,20 @@
 package core;
 
-import java.awt.Color;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
 import math.Matrix4f;
 import utilities.Constants;
 
 /**
- * Used to generate and manage this application's GLSL shader program
+ * Used to generate and manage this application's GLSL shader program. The
+ * program keeps a copy of the last value uploaded to every uniform matrix and
+ * skips uploads that would not change it, since the cube's transform only
+ * changes while it is being rotated.
  * 
  * @author Chris Hurt
  * @version 1.1
@@ -33,9 +36,22 @@ public class ShaderProgram {
      */
     private int programID, vertexID, fragmentID;
     /**
-     * Pointers for the uniform variables used in the shader program
+     * Pointers for the uniform matrices used in the shader program, indexed by
+     * matrix type, and for the axis and range of the turning layer
      */
-    private int transformLoc, projectionLoc, colorLoc;
+    private int[] matrixLocs;
+    private int layerAxisLoc, layerRangeLoc;
+    /**
+     * The last values uploaded to every uniform matrix, indexed by matrix
+     * type, and to the layer axis and range
+     */
+    private float[][] matrixShadows;
+    private float[] layerAxisShadow, layerRangeShadow;
+    /**
+     * The number of uniform uploads issued and skipped because the value was
+     * unchanged
+     */
+    private long issuedUploads, skippedUploads;
 
 
     /**
@@ -56,18 +72,40 @@ public class ShaderProgram {
         GL20.glAttachShader(programID, vertexID);
         GL20.glAttachShader(programID, fragmentID);
 
-        // Binding the shader's position input to the first attribute location
-        GL20.glBindAttribLocation(programID, 0, "position");
+        // Binding the shader's position and color inputs to their attribute
+        // locations
+        GL20.glBindAttribLocation(programID, RenderObject.POSITION_ATTRIBUTE,
+            "position");
+        GL20.glBindAttribLocation(programID, RenderObject.COLOR_ATTRIBUTE,
+            "color");
+        GL20.glBindAttribLocation(programID, RenderObject.CELL_ATTRIBUTE,
+            "cell");
 
         // Linking and validating the program
         GL20.glLinkProgram(programID);
         GL20.glValidateProgram(programID);
 
         // Getting the locations of the uniform variables
-        transformLoc = GL20.glGetUniformLocation(programID, "transformMatrix");
-        projectionLoc = GL20.glGetUniformLocation(programID,
-            "projectionMatrix");
-        colorLoc = GL20.glGetUniformLocation(programID, "color");
+        matrixLocs = new int[3];
+        matrixLocs[Constants.MAT_TRANSFORM] = GL20.glGetUniformLocation(
+            programID, "transformMatrix");
+        matrixLocs[Constants.MAT_PROJECTION] = GL20.glGetUniformLocation(
+            programID, "projectionMatrix");
+        matrixLocs[Constants.MAT_LAYER] = GL20.glGetUniformLocation(programID,
+            "layerMatrix");
+        layerAxisLoc = GL20.glGetUniformLocation(programID, "layerAxis");
+        layerRangeLoc = GL20.glGetUniformLocation(programID, "layerRange");
+
+        // Filling the shadows with NaN, which never equals any value, so the
+        // first upload of each uniform is always issued
+        matrixShadows = new float[matrixLocs.length][16];
+        for (float[] shadow : matrixShadows) {
+            Arrays.fill(shadow, Float.NaN);
+        }
+        layerAxisShadow = new float[3];
+        Arrays.fill(layerAxisShadow, Float.NaN);
+        layerRangeShadow = new float[2];
+        Arrays.fill(layerRangeShadow, Float.NaN);
 
         // Loading the projection matrix into its corresponding uniform variable
         start();
@@ -81,12 +119,14 @@ public class ShaderProgram {
      */
     public void start() {
         GL20.glUseProgram(programID);
+        GLCallCounter.add(1);
     }
 
 
     /**
-     * Loads a transformation or projection matrix into its corresponding
-     * uniform variable
+     * Loads a transformation, projection, or layer matrix into its
+     * corresponding uniform variable, unless the uniform already holds the
+     * same matrix
      * 
      * @param matrixType
      *            The type of matrix being loaded
@@ -94,31 +134,115 @@ public class ShaderProgram {
      *            The matrix being loaded as a uniform variable
      */
     public void loadMatrix(int matrixType, FloatBuffer mat) {
-        if (matrixType == Constants.MAT_TRANSFORM) {
-            GL20.glUniformMatrix4(transformLoc, false, mat);
-        }
-        else if (matrixType == Constants.MAT_PROJECTION) {
-            GL20.glUniformMatrix4(projectionLoc, false, mat);
-        }
-        else {
+        if (matrixType < 0 || matrixType >= matrixLocs.length) {
             System.err.println(
                 "Please load all matrices using a valid matrix type!");
             System.exit(-1);
         }
+
+        if (!updateShadow(matrixShadows[matrixType], mat)) {
+            skippedUploads++;
+            return;
+        }
+        GL20.glUniformMatrix4(matrixLocs[matrixType], false, mat);
+        GLCallCounter.add(1);
+        issuedUploads++;
+    }
+
+
+    /**
+     * Loads the axis of the turning layer into its uniform variable, unless
+     * the uniform already holds the same axis; vertices are rotated by the
+     * layer matrix if the dot product of their cell and the axis is within
+     * the layer range
+     * 
+     * @param x
+     *            The x-component of the axis
+     * @param y
+     *            The y-component of the axis
+     * @param z
+     *            The z-component of the axis
+     */
+    public void loadLayerAxis(float x, float y, float z) {
+        if (x == layerAxisShadow[0] && y == layerAxisShadow[1]
+            && z == layerAxisShadow[2]) {
+            skippedUploads++;
+            return;
+        }
+        layerAxisShadow[0] = x;
+        layerAxisShadow[1] = y;
+        layerAxisShadow[2] = z;
+        GL20.glUniform3f(layerAxisLoc, x, y, z);
+        GLCallCounter.add(1);
+        issuedUploads++;
+    }
+
+
+    /**
+     * Loads the range of the turning layer into its uniform variable, unless
+     * the uniform already holds the same range
+     * 
+     * @param min
+     *            The exclusive lower bound of dot(cell, layerAxis)
+     * @param max
+     *            The exclusive upper bound of dot(cell, layerAxis), which is
+     *            no greater than min to select no cells
+     */
+    public void loadLayerRange(float min, float max) {
+        if (min == layerRangeShadow[0] && max == layerRangeShadow[1]) {
+            skippedUploads++;
+            return;
+        }
+        layerRangeShadow[0] = min;
+        layerRangeShadow[1] = max;
+        GL20.glUniform2f(layerRangeLoc, min, max);
+        GLCallCounter.add(1);
+        issuedUploads++;
+    }
+
+
+    /**
+     * Copies a value into a uniform's shadow if it differs from the value
+     * last uploaded
+     * 
+     * @param shadow
+     *            The last value uploaded to the uniform
+     * @param value
+     *            The new value, read from its position without changing it
+     * @return True if the value differs and must be uploaded
+     */
+    private static boolean updateShadow(float[] shadow, FloatBuffer value) {
+        int start = value.position();
+        boolean changed = false;
+        for (int i = 0; i < shadow.length; i++) {
+            float f = value.get(start + i);
+            if (f != shadow[i]) {
+                shadow[i] = f;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+
+    /**
+     * Gets the number of uniform uploads issued to OpenGL
+     * 
+     * @return The number of uploads issued since the program was created
+     */
+    public long getIssuedUploads() {
+        return issuedUploads;
     }
 
 
     /**
-     * Loads a texture color to the corresponding uniform variable after
-     * normalizing its RGB components
+     * Gets the number of uniform uploads skipped because the uniform already
+     * held the same value
      * 
-     * @param color
-     *            The color being loaded to the shader's corresponding uniform
-     *            variable
+     * @return The number of uploads skipped since the program was created
      */
-    public void loadColor(Color color) {
-        GL20.glUniform4f(colorLoc, color.getRed() / 255.0f, color.getGreen()
-            / 255.0f, color.getBlue() / 255.0f, 1.0f);
+    public long getSkippedUploads() {
+        return skippedUploads;
     }
 
 
@@ -127,6 +251,7 @@ public class ShaderProgram {
      */
     public void stop() {
         GL20.glUseProgram(0);
+        GLCallCounter.add(1);
     }
 
 
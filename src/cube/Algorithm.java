@@ -0,0 +1,180 @@
+package cube;
+
+/**
+ * Represents a sequence of turns compiled into a single sticker permutation,
+ * so that applying the whole sequence to a CubeBuffer costs the same as
+ * applying one turn. Repeated groups in the notation are compiled by repeated
+ * squaring, so an algorithm such as "(R U R' U')1000000" compiles as quickly
+ * as a short one.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class Algorithm {
+
+    /**
+     * The notation of every turn, indexed by move index (see Constants.MOVE_R
+     * and Constants.MOVE_RW), which is case sensitive; the first
+     * CubeBuffer.MOVE_COUNT names are the basic face turns
+     */
+    public static final String[] MOVE_NAMES = { "R", "R'", "R2", "L", "L'",
+        "L2", "U", "U'", "U2", "D", "D'", "D2", "F", "F'", "F2", "B", "B'",
+        "B2", "Rw", "Rw'", "Rw2", "Lw", "Lw'", "Lw2", "Uw", "Uw'", "Uw2", "Dw",
+        "Dw'", "Dw2", "Fw", "Fw'", "Fw2", "Bw", "Bw'", "Bw2", "M", "M'", "M2",
+        "E", "E'", "E2", "S", "S'", "S2", "x", "x'", "x2", "y", "y'", "y2", "z",
+        "z'", "z2" };
+
+    /**
+     * The algorithm's notation
+     */
+    private String notation;
+    /**
+     * The number of turns in the algorithm, counting every repetition of a
+     * group, or Long.MAX_VALUE if there are more
+     */
+    private long turnCount;
+    /**
+     * The composite permutation of every turn in the algorithm, where the
+     * sticker at index i receives the color previously found at index
+     * permutation[i]
+     */
+    private int[] permutation;
+
+
+    /**
+     * Compiles a new Algorithm object from a sequence of move indices
+     * 
+     * @param moves
+     *            The move indices of the turns making up the algorithm
+     */
+    public Algorithm(int[] moves) {
+        this.notation = toNotation(moves);
+        this.turnCount = moves.length;
+        this.permutation = CubeBuffer.identity();
+
+        for (int i = 0; i < moves.length; i++) {
+            permutation = CubeBuffer.compose(permutation, CubeBuffer
+                .getMovePermutation(moves[i]));
+        }
+    }
+
+
+    /**
+     * Compiles a new Algorithm object from turn notation (see MoveTokenizer)
+     * 
+     * @param notation
+     *            The turns making up the algorithm, such as "R U R' U'"
+     * @throws IllegalArgumentException
+     *             If the notation is not valid
+     */
+    public Algorithm(CharSequence notation) {
+        MoveTokenizer tokenizer = new MoveTokenizer();
+        if (!tokenizer.compile(notation)) {
+            throw new IllegalArgumentException("Invalid algorithm: "
+                + tokenizer.getError() + " at position " + tokenizer
+                    .getErrorPosition() + " of \"" + notation + "\"");
+        }
+
+        this.notation = notation.toString().trim();
+        this.turnCount = tokenizer.getTurnCount();
+        this.permutation = tokenizer.getPermutation().clone();
+    }
+
+
+    /**
+     * Parses turn notation into move indices (see MoveTokenizer)
+     * 
+     * @param notation
+     *            The turns being parsed
+     * @return The move index of every turn, or null if the notation is not
+     *         valid
+     */
+    public static int[] parseMoves(CharSequence notation) {
+        MoveTokenizer tokenizer = new MoveTokenizer();
+        return tokenizer.tokenize(notation) ? tokenizer.toArray() : null;
+    }
+
+
+    /**
+     * Gets the move index of a single turn
+     * 
+     * @param token
+     *            The turn's notation, such as "R'"
+     * @return The move index of the turn, or -1 if it is not recognized
+     */
+    public static int parseMove(String token) {
+        for (int m = 0; m < MOVE_NAMES.length; m++) {
+            if (MOVE_NAMES[m].equals(token)) {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Writes move indices as notation
+     * 
+     * @param moves
+     *            The move indices of the turns
+     * @return The turns' names separated by spaces
+     */
+    public static String toNotation(int[] moves) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(MOVE_NAMES[moves[i]]);
+        }
+        return builder.toString();
+    }
+
+
+    /**
+     * Applies every turn of the algorithm to a cube buffer at once using the
+     * composite permutation
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being turned
+     */
+    public void applyTo(CubeBuffer cubeBuffer) {
+        cubeBuffer.applyPermutation(permutation);
+    }
+
+
+    /**
+     * Gets the number of turns in the algorithm
+     * 
+     * @return The number of turns in the algorithm, counting every repetition
+     *         of a group, or Long.MAX_VALUE if there are more
+     */
+    public long length() {
+        return turnCount;
+    }
+
+
+    /**
+     * Gets the algorithm's period, the number of times it must be applied to
+     * a cube before the cube returns to the state it started in; a piece
+     * that returns to its place twisted or flipped counts as not yet returned
+     * 
+     * @return The order of the algorithm's permutation
+     */
+    public long order() {
+        return CubeBuffer.order(permutation);
+    }
+
+
+    /**
+     * Gets the algorithm's notation
+     * 
+     * @return The notation the algorithm was compiled from, or its turns
+     *         separated by spaces
+     */
+    @Override
+    public String toString() {
+        return notation;
+    }
+
+}
@@ -1,16 +1,28 @@
 package cube;
 
 import java.awt.Color;
+import java.nio.FloatBuffer;
+import org.lwjgl.BufferUtils;
+import core.FrameScheduler;
 import core.Mesh;
 import core.Model;
 import core.RenderObject;
 import core.ShaderProgram;
 import input.Camera;
+import math.Matrix4f;
 import math.Vector2f;
 import utilities.Constants;
 
 /**
- * Represents the Rubik's cube object, not including its stickers
+ * Represents the Rubik's cube object, including its stickers. The plastic of
+ * all 27 cubies and all 54 stickers share one mesh with a color and a grid
+ * cell for every vertex, so the whole cube is drawn with a single draw call.
+ * The console thread publishes a CubeSnapshot after every change, which is
+ * queued in a TurnAnimator; the render thread draws the snapshot the animator
+ * is showing, uploading only the colors that differ from the last snapshot it
+ * drew, and the vertex shader rotates the cells of the turning layer.
+ * Publishing never blocks either thread, and a frame always shows one
+ * complete snapshot.
  * 
  * @author Chris Hurt
  * @version 1.1
@@ -18,7 +30,27 @@ import utilities.Constants;
 public class Cube extends RenderObject {
 
     /**
-     * Data about the position of the cube's vertices
+     * The number of cubies along each edge of the cube
+     */
+    public static final int CUBIES_PER_EDGE = 3;
+    /**
+     * The number of vertices in the plastic of all 27 cubies, which come
+     * before the stickers' vertices in the mesh
+     */
+    public static final int PLASTIC_VERTICES = CUBIES_PER_EDGE
+        * CUBIES_PER_EDGE * CUBIES_PER_EDGE * 8;
+    /**
+     * The number of vertices in each sticker
+     */
+    public static final int STICKER_VERTICES = 4;
+    /**
+     * The number of stickers on the cube
+     */
+    public static final int STICKER_COUNT = CubeBuffer.FACELET_COUNT;
+
+    /**
+     * Data about the position of a cubie's vertices, before it is shrunk to
+     * a third of the cube's size and moved into place
      */
     private static final float[] vertices = {
         -0.5f,  0.5f, -0.5f, // V0
@@ -32,7 +64,7 @@ public class Cube extends RenderObject {
     };
 
     /**
-     * Data about the order in which the cube's vertices should be rendered
+     * Data about the order in which a cubie's vertices should be rendered
      */
     private static final int[] indices = {
         0, 2, 1, 2, 3, 1, // F
@@ -42,6 +74,62 @@ public class Cube extends RenderObject {
         1, 5, 4, 4, 0, 1, // U
         6, 7, 3, 6, 3, 2  // D
     };
+    /**
+     * Data about the order in which each sticker's vertices should be
+     * rendered
+     */
+    private static final int[] stickerIndices = {
+        0, 2, 1, // Top half triangle
+        1, 2, 3  // Bottom half triangle
+    };
+    /**
+     * The outward axis of every face in move order (right, left, up, down,
+     * front, back); a clockwise turn of a face is a positive rotation about
+     * its axis
+     */
+    private static final int[][] FACE_AXES = {
+        { 1, 0, 0 }, { -1, 0, 0 }, { 0, 1, 0 }, { 0, -1, 0 }, { 0, 0, -1 },
+        { 0, 0, 1 }
+    };
+    /**
+     * The face whose axis each layer turns about, indexed by move index / 3:
+     * the six faces, their wide turns, the M, E, and S slices, which turn like
+     * L, D, and F, and the x, y, and z rotations, which turn like R, U, and F
+     */
+    private static final int[] LAYER_FACES = {
+        0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 1, 3, 4, 0, 2, 4
+    };
+    /**
+     * The range of dot(cell, axis) selected by the outer layer, the outer two
+     * layers, the middle layer, and the whole cube
+     */
+    private static final float[][] LAYER_RANGES = {
+        { 0.5f, 2 }, { -0.5f, 2 }, { -0.5f, 0.5f }, { -2, 2 }
+    };
+
+    /**
+     * The color of every vertex, three values each, only used on the render
+     * thread
+     */
+    private float[] colors;
+    /**
+     * Plays the turns and changes published by the console thread
+     */
+    private TurnAnimator animator;
+    /**
+     * The rotation of the turning layer, only used on the render thread
+     */
+    private Matrix4f layerMatrix;
+    /**
+     * The snapshot whose colors are currently in the color vbo, only used on
+     * the render thread
+     */
+    private CubeSnapshot drawn;
+    /**
+     * Scratch buffer holding the colors of a run of changed vertices while
+     * they are uploaded
+     */
+    private FloatBuffer uploadBuffer;
 
 
     /**
@@ -49,6 +137,9 @@ public class Cube extends RenderObject {
      * 
      * @param color
      *            The color of the cube's plastic
+     * @param stickerVertices
+     *            The positions of every sticker's four vertices, three values
+     *            each, in flat sticker index order (face * 9 + sticker)
      * @param scaleX
      *            Scale of object in x-direction relative to model size
      * @param scaleY
@@ -73,6 +164,7 @@ public class Cube extends RenderObject {
      */
     public Cube(
         Color color,
+        float[] stickerVertices,
         float scaleX,
         float scaleY,
         float scaleZ,
@@ -83,21 +175,212 @@ public class Cube extends RenderObject {
         float transY,
         float transZ) {
 
-        super(genCubeModel(color), scaleX, scaleY, scaleZ, rotX, rotY, rotZ,
-            transX, transY, transZ);
+        super(genCubeModel(color, stickerVertices), scaleX, scaleY, scaleZ,
+            rotX, rotY, rotZ, transX, transY, transZ);
+
+        this.colors = model.getMesh().getColors().clone();
+        this.animator = new TurnAnimator();
+        this.layerMatrix = new Matrix4f(true);
+        this.uploadBuffer = BufferUtils.createFloatBuffer((PLASTIC_VERTICES
+            + STICKER_COUNT * STICKER_VERTICES) * 3);
     }
 
 
     /**
-     * Generates the cube model used by the Rubik's cube object
+     * Generates the cube model used by the Rubik's cube object, joining the
+     * plastic of every cubie and every sticker into one mesh
      * 
      * @param color
-     *            The color of the cube's plastic
-     * @return Model object representing the Rubik's cube, not including its
-     *         stickers
+     *            The color of the cube's plastic, also used as the stickers'
+     *            initial color
+     * @param stickerVertices
+     *            The positions of every sticker's vertices
+     * @return Model object representing the Rubik's cube and its stickers
+     */
+    private static Model genCubeModel(Color color, float[] stickerVertices) {
+        float[] allVertices = new float[PLASTIC_VERTICES * 3
+            + stickerVertices.length];
+        float[] allCells = new float[allVertices.length];
+        int[] allIndices = new int[PLASTIC_VERTICES / 8 * indices.length
+            + STICKER_COUNT * stickerIndices.length];
+
+        // Shrinking the cubie model into each cell of the 3x3x3 grid
+        int cubie = 0;
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    int first = cubie * 8;
+                    for (int v = 0; v < 8; v++) {
+                        int i = (first + v) * 3;
+                        allVertices[i] = (vertices[v * 3] + x)
+                            / CUBIES_PER_EDGE;
+                        allVertices[i + 1] = (vertices[v * 3 + 1] + y)
+                            / CUBIES_PER_EDGE;
+                        allVertices[i + 2] = (vertices[v * 3 + 2] + z)
+                            / CUBIES_PER_EDGE;
+                        allCells[i] = x;
+                        allCells[i + 1] = y;
+                        allCells[i + 2] = z;
+                    }
+                    for (int i = 0; i < indices.length; i++) {
+                        allIndices[cubie * indices.length + i] = first
+                            + indices[i];
+                    }
+                    cubie++;
+                }
+            }
+        }
+
+        // Placing each sticker in the cell of the cubie it is stuck to
+        System.arraycopy(stickerVertices, 0, allVertices, PLASTIC_VERTICES * 3,
+            stickerVertices.length);
+        int offset = cubie * indices.length;
+        for (int f = 0; f < STICKER_COUNT; f++) {
+            int first = PLASTIC_VERTICES + f * STICKER_VERTICES;
+            for (int k = 0; k < 3; k++) {
+                float center = 0;
+                for (int v = 0; v < STICKER_VERTICES; v++) {
+                    center += allVertices[(first + v) * 3 + k];
+                }
+                float cell = Math.max(-1, Math.min(1, Math.round(center
+                    / STICKER_VERTICES * CUBIES_PER_EDGE)));
+                for (int v = 0; v < STICKER_VERTICES; v++) {
+                    allCells[(first + v) * 3 + k] = cell;
+                }
+            }
+            for (int i = 0; i < stickerIndices.length; i++) {
+                allIndices[offset + f * stickerIndices.length + i] = first
+                    + stickerIndices[i];
+            }
+        }
+
+        float[] allColors = new float[allVertices.length];
+        for (int v = 0; v < allColors.length / 3; v++) {
+            setRGB(allColors, v, color);
+        }
+
+        return new Model(new Mesh(allVertices, allColors, allCells,
+            allIndices), color);
+    }
+
+
+    /**
+     * Writes a color into a vertex color array
+     * 
+     * @param colors
+     *            The vertex color array
+     * @param vertex
+     *            The vertex whose color is written
+     * @param color
+     *            The new color of the vertex
+     */
+    private static void setRGB(float[] colors, int vertex, Color color) {
+        colors[vertex * 3] = color.getRed() / 255.0f;
+        colors[vertex * 3 + 1] = color.getGreen() / 255.0f;
+        colors[vertex * 3 + 2] = color.getBlue() / 255.0f;
+    }
+
+
+    /**
+     * Publishes a new state of the cube, which is shown once every state
+     * published before it has been played
+     * 
+     * @param move
+     *            The move index of the turn leading to the state, which is
+     *            animated, or TurnAnimator.NO_MOVE to show the state at once
+     * @param snapshot
+     *            The state being drawn
+     */
+    void publish(int move, CubeSnapshot snapshot) {
+        animator.add(move, snapshot);
+        FrameScheduler.requestRedraw();
+    }
+
+
+    /**
+     * Sets the duration of every turn played from now on
+     * 
+     * @param millis
+     *            The duration of a turn in milliseconds, or 0 to show turns
+     *            at once
      */
-    private static Model genCubeModel(Color color) {
-        return new Model(new Mesh(vertices, indices), color);
+    public void setTurnMillis(long millis) {
+        animator.setTurnMillis(millis);
+    }
+
+
+    /**
+     * Gets the duration of every turn
+     * 
+     * @return The duration of a turn in milliseconds, or 0 if turns are shown
+     *         at once
+     */
+    public long getTurnMillis() {
+        return animator.getTurnMillis();
+    }
+
+
+    /**
+     * Uploads the colors that differ between a snapshot and the last snapshot
+     * drawn, using one glBufferSubData call for each run of consecutive
+     * changed stickers
+     * 
+     * @param snapshot
+     *            The snapshot being drawn, or null if there is none yet
+     */
+    private void uploadColors(CubeSnapshot snapshot) {
+        if (snapshot == drawn) {
+            return;
+        }
+
+        boolean plasticChanged = drawn == null || !snapshot.getPlasticColor()
+            .equals(drawn.getPlasticColor());
+        long stickerChanged = snapshot.diff(drawn);
+        drawn = snapshot;
+        if (!plasticChanged && stickerChanged == 0) {
+            return;
+        }
+
+        beginColorUpdate();
+        if (plasticChanged) {
+            model.setColor(snapshot.getPlasticColor());
+            for (int v = 0; v < PLASTIC_VERTICES; v++) {
+                setRGB(colors, v, snapshot.getPlasticColor());
+            }
+            uploadRun(0, PLASTIC_VERTICES);
+        }
+        while (stickerChanged != 0) {
+            // Finding the next run of set bits
+            int first = Long.numberOfTrailingZeros(stickerChanged);
+            int count = Long.numberOfTrailingZeros(~(stickerChanged >>> first));
+            for (int f = first; f < first + count; f++) {
+                Color color = snapshot.getStickerColor(f);
+                int vertex = PLASTIC_VERTICES + f * STICKER_VERTICES;
+                for (int v = vertex; v < vertex + STICKER_VERTICES; v++) {
+                    setRGB(colors, v, color);
+                }
+            }
+            uploadRun(PLASTIC_VERTICES + first * STICKER_VERTICES, count
+                * STICKER_VERTICES);
+            stickerChanged &= ~(((1L << count) - 1) << first);
+        }
+        endColorUpdate();
+    }
+
+
+    /**
+     * Uploads the colors of a run of consecutive vertices
+     * 
+     * @param firstVertex
+     *            The first vertex of the run
+     * @param vertexCount
+     *            The number of vertices in the run
+     */
+    private void uploadRun(int firstVertex, int vertexCount) {
+        uploadBuffer.clear();
+        uploadBuffer.put(colors, firstVertex * 3, vertexCount * 3);
+        uploadBuffer.flip();
+        updateColors(firstVertex, uploadBuffer);
     }
 
 
@@ -116,11 +399,53 @@ public class Cube extends RenderObject {
             / divisor, 0);
         matrixList.updateTransform();
 
-        // Loading the cube's current transformation and plastic color to the
-        // shader's corresponding uniform variables
+        // Loading the cube's current transformation to the shader's
+        // corresponding uniform variable
         shader.loadMatrix(Constants.MAT_TRANSFORM, matrixList
             .getTransformMatrix().toBuffer());
-        shader.loadColor(model.getColor());
+
+        // Advancing the turn being played and uploading the colors of the
+        // state beneath it
+        boolean turning = animator.update(System.nanoTime());
+        uploadColors(animator.getSnapshot());
+        loadLayer(shader);
+        if (turning) {
+            FrameScheduler.requestRedraw();
+        }
+    }
+
+
+    /**
+     * Loads the axis, range, and rotation of the turning layer to the shader,
+     * or an empty range that selects no cells if no turn is playing
+     * 
+     * @param shader
+     *            Shader receiving the layer's uniform variables
+     */
+    private void loadLayer(ShaderProgram shader) {
+        int layer = animator.getLayer();
+        if (layer < 0) {
+            shader.loadLayerRange(0, 0);
+            return;
+        }
+
+        int[] axis = FACE_AXES[LAYER_FACES[layer]];
+        float angle = animator.getAngle();
+        if (axis[0] != 0) {
+            layerMatrix.setRotationX(angle * axis[0]);
+        }
+        else if (axis[1] != 0) {
+            layerMatrix.setRotationY(angle * axis[1]);
+        }
+        else {
+            layerMatrix.setRotationZ(angle * axis[2]);
+        }
+
+        int kind = layer < Constants.MOVE_RW / 3 ? 0 : layer < Constants.MOVE_M
+            / 3 ? 1 : layer < Constants.MOVE_X / 3 ? 2 : 3;
+        shader.loadMatrix(Constants.MAT_LAYER, layerMatrix.toBuffer());
+        shader.loadLayerAxis(axis[0], axis[1], axis[2]);
+        shader.loadLayerRange(LAYER_RANGES[kind][0], LAYER_RANGES[kind][1]);
     }
 
 }
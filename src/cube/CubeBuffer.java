@@ -1,6 +1,7 @@
 package cube;
 
 import java.util.Arrays;
+import utilities.Constants;
 
 /**
  * Represents a buffer containing information about the color of every sticker
@@ -12,891 +13,553 @@ import java.util.Arrays;
 public class CubeBuffer {
 
     /**
-     * A two-dimensional integer array, where the outer dimension value maps to
-     * a particular face on the cube, the inner dimension value maps to a
-     * particular sticker, and the value at a given face and sticker maps to the
-     * color of that sticker; see README for the specific values used for
-     * mapping faces, stickers, and colors
+     * The number of stickers on each face of the cube
      */
-    private int[][] colorMap;
+    public static final int FACE_SIZE = 9;
+    /**
+     * The total number of stickers on the cube
+     */
+    public static final int FACELET_COUNT = 6 * FACE_SIZE;
+    /**
+     * A facelet mask, where bit i stands for the sticker at flat index i,
+     * with every sticker's bit set
+     */
+    public static final long ALL_FACELETS = (1L << FACELET_COUNT) - 1;
+    /**
+     * The number of basic face turns, which are the only turns understood by
+     * CubieCube and the solvers
+     */
+    public static final int MOVE_COUNT = 18;
+    /**
+     * The number of turns that can be applied using apply(), including wide
+     * turns, slice turns, and rotations (see Constants.MOVE_RW)
+     */
+    public static final int EXTENDED_MOVE_COUNT = 54;
+    /**
+     * The letter used for each face in facelet strings, indexed by face; a
+     * sticker's letter names the face whose color it has in the solved state
+     */
+    public static final String FACE_NAMES = "FURDLB";
 
+    /**
+     * The sticker cycles performed by a clockwise turn of each face, in the
+     * order right, left, up, down, front, back; each cycle {a, b, c, d} moves
+     * the sticker at b to a, c to b, d to c, and a to d, where every value is
+     * a flat sticker index (face * 9 + sticker)
+     */
+    private static final int[][][] QUARTER_TURN_CYCLES = {
+        { { 2, 29, 51, 11 }, { 5, 32, 48, 14 }, { 8, 35, 45, 17 },
+            { 18, 20, 26, 24 }, { 19, 23, 25, 21 } },   // R
+        { { 0, 9, 53, 27 }, { 3, 12, 50, 30 }, { 6, 15, 47, 33 },
+            { 36, 38, 44, 42 }, { 37, 41, 43, 39 } },   // L
+        { { 6, 24, 51, 42 }, { 7, 25, 52, 43 }, { 8, 26, 53, 44 },
+            { 9, 11, 17, 15 }, { 10, 14, 16, 12 } },    // U
+        { { 0, 36, 45, 18 }, { 1, 37, 46, 19 }, { 2, 38, 47, 20 },
+            { 27, 29, 35, 33 }, { 28, 32, 34, 30 } },   // D
+        { { 0, 2, 8, 6 }, { 1, 5, 7, 3 }, { 9, 38, 35, 24 },
+            { 10, 41, 34, 21 }, { 11, 44, 33, 18 } },   // F
+        { { 15, 26, 29, 36 }, { 16, 23, 28, 39 }, { 17, 20, 27, 42 },
+            { 45, 47, 53, 51 }, { 46, 50, 52, 48 } }    // B
+    };
+    /**
+     * The sticker cycles performed by a clockwise turn of each middle slice,
+     * in the order M, E, S, written the same way as QUARTER_TURN_CYCLES
+     */
+    private static final int[][][] SLICE_TURN_CYCLES = {
+        { { 1, 10, 52, 28 }, { 4, 13, 49, 31 }, { 7, 16, 46, 34 } },    // M
+        { { 3, 39, 48, 21 }, { 4, 40, 49, 22 }, { 5, 41, 50, 23 } },    // E
+        { { 12, 37, 32, 25 }, { 13, 40, 31, 22 }, { 14, 43, 30, 19 } }  // S
+    };
+    /**
+     * The face that each slice turns along with, so M turns like L, E like D,
+     * and S like F
+     */
+    private static final int[] SLICE_FACES = { 1, 3, 4 };
+    /**
+     * The face that each rotation turns along with, so x turns like R, y like
+     * U, and z like F
+     */
+    private static final int[] ROTATION_FACES = { 0, 2, 4 };
+
+    /**
+     * Precomputed permutation for every turn, indexed by move index (see
+     * Constants.MOVE_R and Constants.MOVE_RW); after a turn, the sticker at
+     * index i holds the color previously found at index MOVE_TABLE[move][i]
+     */
+    private static final int[][] MOVE_TABLE = genMoveTable();
 
     /**
-     * Creates a new CubeBuffer object where colormap is initialized to the
-     * solved state of the cube
+     * A flat integer array containing the color of every sticker, where the
+     * sticker at position c on face s is stored at index s * 9 + c; see README
+     * for the specific values used for mapping faces, stickers, and colors
+     */
+    private int[] facelets;
+    /**
+     * Scratch array swapped with facelets whenever a permutation is applied, so
+     * that turning never allocates memory
+     */
+    private int[] scratch;
+    /**
+     * Set if the facelets may have changed since the last call to
+     * takeChanged(); which stickers changed is found by comparing snapshots
+     * (see CubeSnapshot), so turning only sets this once
+     */
+    private boolean changed;
+
+
+    /**
+     * Creates a new CubeBuffer object where the facelets are initialized to
+     * the solved state of the cube
      */
     public CubeBuffer() {
-        colorMap = new int[6][9];
+        facelets = new int[FACELET_COUNT];
+        scratch = new int[FACELET_COUNT];
         genSolved();
+        changed = true;
     }
 
 
     /**
-     * Creates a new CubeBuffer object and copies the colormap data of another
+     * Creates a new CubeBuffer object and copies the facelet data of another
      * CubeBuffer object
      * 
      * @param copy
      *            The CubeBuffer object whose data is being copied
      */
     public CubeBuffer(CubeBuffer copy) {
-        colorMap = new int[6][0];
-
-        for (int s = 0; s < 6; s++) {
-            colorMap[s] = Arrays.copyOf(copy.getSide(s), 9);
-        }
+        facelets = Arrays.copyOf(copy.facelets, FACELET_COUNT);
+        scratch = new int[FACELET_COUNT];
+        changed = true;
     }
 
 
     /**
-     * Used to initialize/reset colormap to the cube's solved state
+     * Creates a new CubeBuffer object from a facelet string
+     * 
+     * @param faceletString
+     *            54 face letters (see FACE_NAMES), one for every sticker in
+     *            flat index order
+     * @throws IllegalArgumentException
+     *             If the string has the wrong length or an unknown letter
      */
-    public void genSolved() {
-        for (int s = 0; s < 6; s++) {
-            for (int c = 0; c < 9; c++) {
-                colorMap[s][c] = s; // The color value of every sticker on each
-                                    // face is set to the index of the face
+    public CubeBuffer(String faceletString) {
+        if (faceletString.length() != FACELET_COUNT) {
+            throw new IllegalArgumentException("Expected " + FACELET_COUNT
+                + " facelets but found " + faceletString.length());
+        }
+
+        facelets = new int[FACELET_COUNT];
+        scratch = new int[FACELET_COUNT];
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            facelets[i] = FACE_NAMES.indexOf(faceletString.charAt(i));
+            if (facelets[i] < 0) {
+                throw new IllegalArgumentException("Unknown facelet '"
+                    + faceletString.charAt(i) + "' at position " + i);
             }
         }
+        changed = true;
     }
 
 
     /**
-     * Checks to see if the cube is in its solved state
+     * Builds the permutation table for every turn from the clockwise quarter
+     * turn cycles of the faces and slices; a wide turn is a face turn along
+     * with the neighboring slice, and a rotation is a wide turn along with the
+     * opposite face
      * 
-     * @return True if the cube is solved, false otherwise
+     * @return The permutation table indexed by move index
      */
-    public boolean isSolved() {
-        for (int s = 0; s < 6; s++) {
-            int centerTile = colorMap[s][4]; // The color value of the current
-                                             // face's center tile
-            for (int c = 0; c < 9; c++) {
-                int thisTile = colorMap[s][c];
-                if (thisTile != centerTile) { // Checks to see if every tile on
-                                              // the given face has the same
-                                              // color as its center tile,
-                                              // returns false if one doesn't
-                                              // match
-                    return false;
-                }
-            }
+    private static int[][] genMoveTable() {
+        int[][] quarters = new int[EXTENDED_MOVE_COUNT / 3][];
+
+        for (int f = 0; f < QUARTER_TURN_CYCLES.length; f++) {
+            quarters[f] = cyclePermutation(QUARTER_TURN_CYCLES[f]);
+        }
+        for (int s = 0; s < SLICE_TURN_CYCLES.length; s++) {
+            quarters[Constants.MOVE_M / 3 + s] = cyclePermutation(
+                SLICE_TURN_CYCLES[s]);
+        }
+        for (int f = 0; f < QUARTER_TURN_CYCLES.length; f++) {
+            // Turning the slice the same way as the face, which is backwards
+            // for the faces opposite the slice's own face
+            int slice = f / 2;
+            int[] sliceTurn = quarters[Constants.MOVE_M / 3 + slice];
+            quarters[Constants.MOVE_RW / 3 + f] = compose(quarters[f],
+                SLICE_FACES[slice] == f ? sliceTurn : power(sliceTurn, 3));
+        }
+        for (int r = 0; r < ROTATION_FACES.length; r++) {
+            int face = ROTATION_FACES[r];
+            quarters[Constants.MOVE_X / 3 + r] = compose(quarters[
+                Constants.MOVE_RW / 3 + face], power(quarters[face ^ 1], 3));
         }
 
-        return true;
+        int[][] table = new int[EXTENDED_MOVE_COUNT][];
+        for (int g = 0; g < quarters.length; g++) {
+            table[g * 3] = quarters[g];                     // Clockwise
+            table[g * 3 + 1] = power(quarters[g], 3);       // Counterclockwise
+            table[g * 3 + 2] = power(quarters[g], 2);       // Double
+        }
+
+        return table;
     }
 
 
     /**
-     * Performs a clockwise right-face turn on the color map
+     * Builds the permutation performing a set of sticker cycles
+     * 
+     * @param cycles
+     *            The cycles, written the same way as QUARTER_TURN_CYCLES
+     * @return The permutation of the cycles
      */
-    public void right() {
-        // Rotates the stickers on the front, up, back, and down faces that are
-        // adjacent to the right face
-        int FtempTR = colorMap[0][8];
-        int FtempMR = colorMap[0][5];
-        int FtempBR = colorMap[0][2];
-
-        colorMap[0][8] = colorMap[3][8];
-        colorMap[0][5] = colorMap[3][5];
-        colorMap[0][2] = colorMap[3][2];
-
-        colorMap[3][8] = colorMap[5][0];
-        colorMap[3][5] = colorMap[5][3];
-        colorMap[3][2] = colorMap[5][6];
+    private static int[] cyclePermutation(int[][] cycles) {
+        int[] perm = identity();
+        for (int[] cycle : cycles) {
+            for (int i = 0; i < cycle.length; i++) {
+                perm[cycle[i]] = cycle[(i + 1) % cycle.length];
+            }
+        }
+        return perm;
+    }
 
-        colorMap[5][0] = colorMap[1][8];
-        colorMap[5][3] = colorMap[1][5];
-        colorMap[5][6] = colorMap[1][2];
 
-        colorMap[1][8] = FtempTR;
-        colorMap[1][5] = FtempMR;
-        colorMap[1][2] = FtempBR;
+    /**
+     * Applies a sticker permutation several times in a row
+     * 
+     * @param perm
+     *            The permutation being repeated
+     * @param count
+     *            The number of times it is applied
+     * @return A new permutation equivalent to applying perm count times
+     */
+    private static int[] power(int[] perm, int count) {
+        int[] result = identity();
+        for (int i = 0; i < count; i++) {
+            result = compose(result, perm);
+        }
+        return result;
+    }
 
-        // Rotating corner stickers on right face
-        int RtempTL = colorMap[2][6];
-        colorMap[2][6] = colorMap[2][0];
-        colorMap[2][0] = colorMap[2][2];
-        colorMap[2][2] = colorMap[2][8];
-        colorMap[2][8] = RtempTL;
 
-        // Rotating edge stickers on right face
-        int RtempTM = colorMap[2][7];
-        colorMap[2][7] = colorMap[2][3];
-        colorMap[2][3] = colorMap[2][1];
-        colorMap[2][1] = colorMap[2][5];
-        colorMap[2][5] = RtempTM;
+    /**
+     * Creates the identity permutation over every sticker
+     * 
+     * @return A permutation that leaves every sticker in place
+     */
+    static int[] identity() {
+        int[] perm = new int[FACELET_COUNT];
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            perm[i] = i;
+        }
+        return perm;
     }
 
 
     /**
-     * Performs a counterclockwise right-face turn on the color map
+     * Composes two sticker permutations
+     * 
+     * @param first
+     *            The permutation applied first
+     * @param second
+     *            The permutation applied second
+     * @return A new permutation equivalent to applying first, then second
      */
-    public void rightPrime() {
-        // Rotates the stickers on the front, up, back, and down faces that are
-        // adjacent to the right face
-        int FtempTR = colorMap[0][8];
-        int FtempMR = colorMap[0][5];
-        int FtempBR = colorMap[0][2];
+    static int[] compose(int[] first, int[] second) {
+        int[] result = new int[FACELET_COUNT];
+        compose(first, second, result);
+        return result;
+    }
 
-        colorMap[0][8] = colorMap[1][8];
-        colorMap[0][5] = colorMap[1][5];
-        colorMap[0][2] = colorMap[1][2];
 
-        colorMap[1][8] = colorMap[5][0];
-        colorMap[1][5] = colorMap[5][3];
-        colorMap[1][2] = colorMap[5][6];
+    /**
+     * Composes two sticker permutations into an existing array
+     * 
+     * @param first
+     *            The permutation applied first
+     * @param second
+     *            The permutation applied second
+     * @param result
+     *            Receives the composition, and must not be either input
+     */
+    static void compose(int[] first, int[] second, int[] result) {
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            result[i] = first[second[i]];
+        }
+    }
 
-        colorMap[5][0] = colorMap[3][8];
-        colorMap[5][3] = colorMap[3][5];
-        colorMap[5][6] = colorMap[3][2];
 
-        colorMap[3][8] = FtempTR;
-        colorMap[3][5] = FtempMR;
-        colorMap[3][2] = FtempBR;
+    /**
+     * Finds how many times a sticker permutation must be applied to return
+     * every sticker to where it started, which is the least common multiple
+     * of the lengths of its cycles; since each sticker of a piece is tracked
+     * separately, a piece that comes back twisted or flipped has not finished
+     * its cycle yet
+     * 
+     * @param perm
+     *            The permutation
+     * @return The order of the permutation
+     */
+    static long order(int[] perm) {
+        long order = 1;
+        long visited = 0;
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            if ((visited & 1L << i) != 0) {
+                continue;
+            }
 
-        // Rotating corner stickers on right face
-        int RtempTL = colorMap[2][6];
-        colorMap[2][6] = colorMap[2][8];
-        colorMap[2][8] = colorMap[2][2];
-        colorMap[2][2] = colorMap[2][0];
-        colorMap[2][0] = RtempTL;
+            int length = 0;
+            for (int j = i; (visited & 1L << j) == 0; j = perm[j]) {
+                visited |= 1L << j;
+                length++;
+            }
 
-        // Rotating edge stickers on right face
-        int RtempTM = colorMap[2][7];
-        colorMap[2][7] = colorMap[2][5];
-        colorMap[2][5] = colorMap[2][1];
-        colorMap[2][1] = colorMap[2][3];
-        colorMap[2][3] = RtempTM;
+            long a = order;
+            long b = length;
+            while (b != 0) {
+                long t = a % b;
+                a = b;
+                b = t;
+            }
+            order = order / a * length;
+        }
+        return order;
     }
 
 
     /**
-     * Performs a double right face turn on the color map
-     * This method could be simplified by calling right() or rightPrime() twice,
-     * but a direct swap was implemented for efficiency's sake
+     * Gets the precomputed permutation of a turn
+     * 
+     * @param moveIndex
+     *            The index of the turn (see Constants.MOVE_R and
+     *            Constants.MOVE_RW)
+     * @return The turn's permutation table, which must not be modified
      */
-    public void rightTwo() {
-        // Swapping the stickers on the front and back faces that are adjacent
-        // to the right face
-        int FtempTR = colorMap[0][8];
-        int FtempMR = colorMap[0][5];
-        int FtempBR = colorMap[0][2];
-
-        colorMap[0][8] = colorMap[5][0];
-        colorMap[0][5] = colorMap[5][3];
-        colorMap[0][2] = colorMap[5][6];
-
-        colorMap[5][0] = FtempTR;
-        colorMap[5][3] = FtempMR;
-        colorMap[5][6] = FtempBR;
+    static int[] getMovePermutation(int moveIndex) {
+        return MOVE_TABLE[moveIndex];
+    }
 
-        // Swapping the stickers on the up and down faces that are adjacent to
-        // the right face
-        int TtempTR = colorMap[1][8];
-        int TtempMR = colorMap[1][5];
-        int TtempBR = colorMap[1][2];
 
-        colorMap[1][8] = colorMap[3][8];
-        colorMap[1][5] = colorMap[3][5];
-        colorMap[1][2] = colorMap[3][2];
+    /**
+     * Used to initialize/reset the facelets to the cube's solved state
+     */
+    public void genSolved() {
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            setFacelet(i, i / FACE_SIZE); // The color value of every sticker
+                                          // on each face is set to the index
+                                          // of the face
+        }
+    }
 
-        colorMap[3][8] = TtempTR;
-        colorMap[3][5] = TtempMR;
-        colorMap[3][2] = TtempBR;
 
-        // Swapping the corner stickers on the right face
-        int RtempTL = colorMap[2][6];
-        colorMap[2][6] = colorMap[2][2];
-        colorMap[2][2] = RtempTL;
-        int RtempTR = colorMap[2][8];
-        colorMap[2][8] = colorMap[2][0];
-        colorMap[2][0] = RtempTR;
+    /**
+     * Checks to see if the cube is in its solved state
+     * 
+     * @return True if the cube is solved, false otherwise
+     */
+    public boolean isSolved() {
+        for (int s = 0; s < FACELET_COUNT; s += FACE_SIZE) {
+            int centerTile = facelets[s + 4]; // The color value of the current
+                                              // face's center tile
+            for (int c = s; c < s + FACE_SIZE; c++) {
+                if (facelets[c] != centerTile) { // Returns false if one of the
+                                                 // face's tiles doesn't match
+                                                 // its center tile
+                    return false;
+                }
+            }
+        }
 
-        // Swapping the edge stickers on the right face
-        int RtempTM = colorMap[2][7];
-        colorMap[2][7] = colorMap[2][1];
-        colorMap[2][1] = RtempTM;
-        int RtempMR = colorMap[2][5];
-        colorMap[2][5] = colorMap[2][3];
-        colorMap[2][3] = RtempMR;
+        return true;
     }
 
 
     /**
-     * Performs a clockwise left face turn on the color map
+     * Applies a turn to the facelets using its precomputed permutation
+     * 
+     * @param moveIndex
+     *            The index of the turn being applied (see Constants.MOVE_R
+     *            and Constants.MOVE_RW)
      */
-    public void left() {
-        // Rotating the front, up, back, and down face stickers that are
-        // adjacent to the left face
-        int FtempTL = colorMap[0][6];
-        int FtempML = colorMap[0][3];
-        int FtempBL = colorMap[0][0];
-
-        colorMap[0][6] = colorMap[1][6];
-        colorMap[0][3] = colorMap[1][3];
-        colorMap[0][0] = colorMap[1][0];
+    public void apply(int moveIndex) {
+        applyPermutation(MOVE_TABLE[moveIndex]);
+    }
 
-        colorMap[1][6] = colorMap[5][2];
-        colorMap[1][3] = colorMap[5][5];
-        colorMap[1][0] = colorMap[5][8];
 
-        colorMap[5][2] = colorMap[3][6];
-        colorMap[5][5] = colorMap[3][3];
-        colorMap[5][8] = colorMap[3][0];
+    /**
+     * Rearranges the facelets using a sticker permutation, where the sticker
+     * at index i receives the color previously found at index perm[i]
+     * 
+     * @param perm
+     *            The permutation being applied
+     */
+    void applyPermutation(int[] perm) {
+        int[] source = facelets;
+        int[] target = scratch;
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            target[i] = source[perm[i]];
+        }
 
-        colorMap[3][6] = FtempTL;
-        colorMap[3][3] = FtempML;
-        colorMap[3][0] = FtempBL;
+        // Swapping buffers rather than copying the result back
+        facelets = target;
+        scratch = source;
+        changed = true;
+    }
 
-        // Rotating the corner stickers on the left face
-        int LtempTL = colorMap[4][6];
-        colorMap[4][6] = colorMap[4][0];
-        colorMap[4][0] = colorMap[4][2];
-        colorMap[4][2] = colorMap[4][8];
-        colorMap[4][8] = LtempTL;
 
-        // Rotating the edge stickers on the left face
-        int LtempTM = colorMap[4][7];
-        colorMap[4][7] = colorMap[4][3];
-        colorMap[4][3] = colorMap[4][1];
-        colorMap[4][1] = colorMap[4][5];
-        colorMap[4][5] = LtempTM;
+    /**
+     * Performs a clockwise right-face turn on the facelets
+     */
+    public void right() {
+        apply(Constants.MOVE_R);
     }
 
 
     /**
-     * Performs a counterclockwise left face turn on the color map
+     * Performs a counterclockwise right-face turn on the facelets
      */
-    public void leftPrime() {
-        // Rotates the front, up, back, and down face stickers that are adjacent
-        // to the left face
-        int FtempTL = colorMap[0][6];
-        int FtempML = colorMap[0][3];
-        int FtempBL = colorMap[0][0];
+    public void rightPrime() {
+        apply(Constants.MOVE_R_PRIME);
+    }
 
-        colorMap[0][6] = colorMap[3][6];
-        colorMap[0][3] = colorMap[3][3];
-        colorMap[0][0] = colorMap[3][0];
 
-        colorMap[3][6] = colorMap[5][2];
-        colorMap[3][3] = colorMap[5][5];
-        colorMap[3][0] = colorMap[5][8];
+    /**
+     * Performs a double right face turn on the facelets
+     */
+    public void rightTwo() {
+        apply(Constants.MOVE_R2);
+    }
 
-        colorMap[5][2] = colorMap[1][6];
-        colorMap[5][5] = colorMap[1][3];
-        colorMap[5][8] = colorMap[1][0];
 
-        colorMap[1][6] = FtempTL;
-        colorMap[1][3] = FtempML;
-        colorMap[1][0] = FtempBL;
+    /**
+     * Performs a clockwise left face turn on the facelets
+     */
+    public void left() {
+        apply(Constants.MOVE_L);
+    }
 
-        // Rotates the corner stickers on the left face
-        int LtempTL = colorMap[4][6];
-        colorMap[4][6] = colorMap[4][8];
-        colorMap[4][8] = colorMap[4][2];
-        colorMap[4][2] = colorMap[4][0];
-        colorMap[4][0] = LtempTL;
 
-        // Rotates the edge stickers on the left face
-        int LtempTM = colorMap[4][7];
-        colorMap[4][7] = colorMap[4][5];
-        colorMap[4][5] = colorMap[4][1];
-        colorMap[4][1] = colorMap[4][3];
-        colorMap[4][3] = LtempTM;
+    /**
+     * Performs a counterclockwise left face turn on the facelets
+     */
+    public void leftPrime() {
+        apply(Constants.MOVE_L_PRIME);
     }
 
 
     /**
-     * Performs a double left face turn on the color map
-     * This method could be simplified by calling left() or leftPrime() twice,
-     * but a direct swap was implemented for efficiency's sake
+     * Performs a double left face turn on the facelets
      */
     public void leftTwo() {
-        // Swaps the front and back face stickers adjacent to the left face
-        int FtempTL = colorMap[0][6];
-        int FtempML = colorMap[0][3];
-        int FtempBL = colorMap[0][0];
-
-        colorMap[0][6] = colorMap[5][2];
-        colorMap[0][3] = colorMap[5][5];
-        colorMap[0][0] = colorMap[5][8];
-
-        colorMap[5][2] = FtempTL;
-        colorMap[5][5] = FtempML;
-        colorMap[5][8] = FtempBL;
-
-        // Swaps the up and down face stickers adjacent to the left face
-        int TtempTL = colorMap[1][6];
-        int TtempML = colorMap[1][3];
-        int TtempBL = colorMap[1][0];
-
-        colorMap[1][6] = colorMap[3][6];
-        colorMap[1][3] = colorMap[3][3];
-        colorMap[1][0] = colorMap[3][0];
-
-        colorMap[3][6] = TtempTL;
-        colorMap[3][3] = TtempML;
-        colorMap[3][0] = TtempBL;
-
-        // Swaps the corner stickers on the left face
-        int LtempTL = colorMap[4][6];
-        colorMap[4][6] = colorMap[4][2];
-        colorMap[4][2] = LtempTL;
-        int LtempTR = colorMap[4][8];
-        colorMap[4][8] = colorMap[4][0];
-        colorMap[4][0] = LtempTR;
-
-        // Swaps the edge stickers on the left face
-        int LtempTM = colorMap[4][7];
-        colorMap[4][7] = colorMap[4][1];
-        colorMap[4][1] = LtempTM;
-        int LtempMR = colorMap[4][5];
-        colorMap[4][5] = colorMap[4][3];
-        colorMap[4][3] = LtempMR;
+        apply(Constants.MOVE_L2);
     }
 
 
     /**
-     * Performs a clockwise up face turn on the color map
+     * Performs a clockwise up face turn on the facelets
      */
     public void up() {
-        // Rotates the front, left, back, and right face stickers adjacent to
-        // the up face
-        int FtempTL = colorMap[0][6];
-        int FtempTM = colorMap[0][7];
-        int FtempTR = colorMap[0][8];
-
-        colorMap[0][6] = colorMap[2][6];
-        colorMap[0][7] = colorMap[2][7];
-        colorMap[0][8] = colorMap[2][8];
-
-        colorMap[2][6] = colorMap[5][6];
-        colorMap[2][7] = colorMap[5][7];
-        colorMap[2][8] = colorMap[5][8];
-
-        colorMap[5][6] = colorMap[4][6];
-        colorMap[5][7] = colorMap[4][7];
-        colorMap[5][8] = colorMap[4][8];
-
-        colorMap[4][6] = FtempTL;
-        colorMap[4][7] = FtempTM;
-        colorMap[4][8] = FtempTR;
-
-        // Rotates the corner stickers on the up face
-        int TtempTL = colorMap[1][6];
-        colorMap[1][6] = colorMap[1][0];
-        colorMap[1][0] = colorMap[1][2];
-        colorMap[1][2] = colorMap[1][8];
-        colorMap[1][8] = TtempTL;
-
-        // Rotates the edge stickers on the up face
-        int TtempTM = colorMap[1][7];
-        colorMap[1][7] = colorMap[1][3];
-        colorMap[1][3] = colorMap[1][1];
-        colorMap[1][1] = colorMap[1][5];
-        colorMap[1][5] = TtempTM;
+        apply(Constants.MOVE_U);
     }
 
 
     /**
-     * Performs a counterclockwise up face turn on the color map
+     * Performs a counterclockwise up face turn on the facelets
      */
     public void upPrime() {
-        // Rotates the front, left, back, and right face stickers adjacent to
-        // the up face
-        int FtempTL = colorMap[0][6];
-        int FtempTM = colorMap[0][7];
-        int FtempTR = colorMap[0][8];
-
-        colorMap[0][6] = colorMap[4][6];
-        colorMap[0][7] = colorMap[4][7];
-        colorMap[0][8] = colorMap[4][8];
-
-        colorMap[4][6] = colorMap[5][6];
-        colorMap[4][7] = colorMap[5][7];
-        colorMap[4][8] = colorMap[5][8];
-
-        colorMap[5][6] = colorMap[2][6];
-        colorMap[5][7] = colorMap[2][7];
-        colorMap[5][8] = colorMap[2][8];
-
-        colorMap[2][6] = FtempTL;
-        colorMap[2][7] = FtempTM;
-        colorMap[2][8] = FtempTR;
-
-        // Rotates the corner stickers on the up face
-        int TtempTL = colorMap[1][6];
-        colorMap[1][6] = colorMap[1][8];
-        colorMap[1][8] = colorMap[1][2];
-        colorMap[1][2] = colorMap[1][0];
-        colorMap[1][0] = TtempTL;
-
-        // Rotates the edge stickers on the up face
-        int TtempTM = colorMap[1][7];
-        colorMap[1][7] = colorMap[1][5];
-        colorMap[1][5] = colorMap[1][1];
-        colorMap[1][1] = colorMap[1][3];
-        colorMap[1][3] = TtempTM;
+        apply(Constants.MOVE_U_PRIME);
     }
 
 
     /**
-     * Performs a double up face turn on the color map
-     * This method could be simplified by calling up() or upPrime() twice, but a
-     * direct swap was implemented for efficiency's sake
+     * Performs a double up face turn on the facelets
      */
     public void upTwo() {
-        // Swapping the front and back stickers adjacent to the up face
-        int FtempTL = colorMap[0][6];
-        int FtempTM = colorMap[0][7];
-        int FtempTR = colorMap[0][8];
-
-        colorMap[0][6] = colorMap[5][6];
-        colorMap[0][7] = colorMap[5][7];
-        colorMap[0][8] = colorMap[5][8];
-
-        colorMap[5][6] = FtempTL;
-        colorMap[5][7] = FtempTM;
-        colorMap[5][8] = FtempTR;
-
-        // Swapping the left and right stickers adjacent to the up face
-        int RtempTL = colorMap[2][6];
-        int RtempTM = colorMap[2][7];
-        int RtempTR = colorMap[2][8];
-
-        colorMap[2][6] = colorMap[4][6];
-        colorMap[2][7] = colorMap[4][7];
-        colorMap[2][8] = colorMap[4][8];
-
-        colorMap[4][6] = RtempTL;
-        colorMap[4][7] = RtempTM;
-        colorMap[4][8] = RtempTR;
-
-        // Swapping the corner stickers on the up face
-        int TtempTL = colorMap[1][6];
-        colorMap[1][6] = colorMap[1][2];
-        colorMap[1][2] = TtempTL;
-        int TtempTR = colorMap[1][8];
-        colorMap[1][8] = colorMap[1][0];
-        colorMap[1][0] = TtempTR;
-
-        // Swapping the edge stickers on the up face
-        int TtempTM = colorMap[1][7];
-        colorMap[1][7] = colorMap[1][1];
-        colorMap[1][1] = TtempTM;
-        int TtempMR = colorMap[1][5];
-        colorMap[1][5] = colorMap[1][3];
-        colorMap[1][3] = TtempMR;
+        apply(Constants.MOVE_U2);
     }
 
 
     /**
-     * Performs a clockwise down face turn on the color map
+     * Performs a clockwise down face turn on the facelets
      */
     public void down() {
-        // Rotates the front, left, back, and right face stickers adjacent to
-        // the down face
-        int FtempBL = colorMap[0][0];
-        int FtempBM = colorMap[0][1];
-        int FtempBR = colorMap[0][2];
-
-        colorMap[0][0] = colorMap[4][0];
-        colorMap[0][1] = colorMap[4][1];
-        colorMap[0][2] = colorMap[4][2];
-
-        colorMap[4][0] = colorMap[5][0];
-        colorMap[4][1] = colorMap[5][1];
-        colorMap[4][2] = colorMap[5][2];
-
-        colorMap[5][0] = colorMap[2][0];
-        colorMap[5][1] = colorMap[2][1];
-        colorMap[5][2] = colorMap[2][2];
-
-        colorMap[2][0] = FtempBL;
-        colorMap[2][1] = FtempBM;
-        colorMap[2][2] = FtempBR;
-
-        // Rotates the corner stickers on the down face
-        int DtempTL = colorMap[3][6];
-        colorMap[3][6] = colorMap[3][0];
-        colorMap[3][0] = colorMap[3][2];
-        colorMap[3][2] = colorMap[3][8];
-        colorMap[3][8] = DtempTL;
-
-        // Rotates the edge stickers on the down face
-        int DtempTM = colorMap[3][7];
-        colorMap[3][7] = colorMap[3][3];
-        colorMap[3][3] = colorMap[3][1];
-        colorMap[3][1] = colorMap[3][5];
-        colorMap[3][5] = DtempTM;
+        apply(Constants.MOVE_D);
     }
 
 
     /**
-     * Performs a counterclockwise down face turn on the color map
+     * Performs a counterclockwise down face turn on the facelets
      */
     public void downPrime() {
-        // Rotates the front, left, back, and right face stickers adjacent to
-        // the down face
-        int FtempBL = colorMap[0][0];
-        int FtempBM = colorMap[0][1];
-        int FtempBR = colorMap[0][2];
-
-        colorMap[0][0] = colorMap[2][0];
-        colorMap[0][1] = colorMap[2][1];
-        colorMap[0][2] = colorMap[2][2];
-
-        colorMap[2][0] = colorMap[5][0];
-        colorMap[2][1] = colorMap[5][1];
-        colorMap[2][2] = colorMap[5][2];
-
-        colorMap[5][0] = colorMap[4][0];
-        colorMap[5][1] = colorMap[4][1];
-        colorMap[5][2] = colorMap[4][2];
-
-        colorMap[4][0] = FtempBL;
-        colorMap[4][1] = FtempBM;
-        colorMap[4][2] = FtempBR;
-
-        // Rotates the corner stickers on the down face
-        int DtempTL = colorMap[3][6];
-        colorMap[3][6] = colorMap[3][8];
-        colorMap[3][8] = colorMap[3][2];
-        colorMap[3][2] = colorMap[3][0];
-        colorMap[3][0] = DtempTL;
-
-        // Rotates the edge stickers on the down face
-        int DtempTM = colorMap[3][7];
-        colorMap[3][7] = colorMap[3][5];
-        colorMap[3][5] = colorMap[3][1];
-        colorMap[3][1] = colorMap[3][3];
-        colorMap[3][3] = DtempTM;
+        apply(Constants.MOVE_D_PRIME);
     }
 
 
     /**
-     * Performs a double down face turn on the color map
-     * This method could be simplified by calling down() or downPrime() twice,
-     * but a direct swap was implemented for efficiency's sake
+     * Performs a double down face turn on the facelets
      */
     public void downTwo() {
-        // Swapping the front and back face stickers adjacent to the down face
-        int FtempBL = colorMap[0][0];
-        int FtempBM = colorMap[0][1];
-        int FtempBR = colorMap[0][2];
-
-        colorMap[0][0] = colorMap[5][0];
-        colorMap[0][1] = colorMap[5][1];
-        colorMap[0][2] = colorMap[5][2];
-
-        colorMap[5][0] = FtempBL;
-        colorMap[5][1] = FtempBM;
-        colorMap[5][2] = FtempBR;
-
-        // Swapping the left and right face stickers adjacent to the down face
-        int RtempBL = colorMap[2][0];
-        int RtempBM = colorMap[2][1];
-        int RtempBR = colorMap[2][2];
-
-        colorMap[2][0] = colorMap[4][0];
-        colorMap[2][1] = colorMap[4][1];
-        colorMap[2][2] = colorMap[4][2];
-
-        colorMap[4][0] = RtempBL;
-        colorMap[4][1] = RtempBM;
-        colorMap[4][2] = RtempBR;
-
-        // Swaps the corner stickers on the down face
-        int DtempTL = colorMap[3][6];
-        colorMap[3][6] = colorMap[3][2];
-        colorMap[3][2] = DtempTL;
-        int DtempTR = colorMap[3][8];
-        colorMap[3][8] = colorMap[3][0];
-        colorMap[3][0] = DtempTR;
-
-        // Swaps the edge stickers on the down face
-        int DtempTM = colorMap[3][7];
-        colorMap[3][7] = colorMap[3][1];
-        colorMap[3][1] = DtempTM;
-        int DtempMR = colorMap[3][5];
-        colorMap[3][5] = colorMap[3][3];
-        colorMap[3][3] = DtempMR;
+        apply(Constants.MOVE_D2);
     }
 
 
     /**
-     * Performs a clockwise front face turn on the color map
+     * Performs a clockwise front face turn on the facelets
      */
     public void front() {
-        // Rotates the up, right, down, and left face stickers adjacent to the
-        // front face
-        int TtempBL = colorMap[1][0];
-        int TtempBM = colorMap[1][1];
-        int TtempBR = colorMap[1][2];
-
-        colorMap[1][0] = colorMap[4][2];
-        colorMap[1][1] = colorMap[4][5];
-        colorMap[1][2] = colorMap[4][8];
-
-        colorMap[4][2] = colorMap[3][8];
-        colorMap[4][5] = colorMap[3][7];
-        colorMap[4][8] = colorMap[3][6];
-
-        colorMap[3][8] = colorMap[2][6];
-        colorMap[3][7] = colorMap[2][3];
-        colorMap[3][6] = colorMap[2][0];
-
-        colorMap[2][6] = TtempBL;
-        colorMap[2][3] = TtempBM;
-        colorMap[2][0] = TtempBR;
-
-        // Rotates the corner stickers on the front face
-        int FtempTL = colorMap[0][6];
-        colorMap[0][6] = colorMap[0][0];
-        colorMap[0][0] = colorMap[0][2];
-        colorMap[0][2] = colorMap[0][8];
-        colorMap[0][8] = FtempTL;
-
-        // Rotates the edge stickers on the front face
-        int FtempTM = colorMap[0][7];
-        colorMap[0][7] = colorMap[0][3];
-        colorMap[0][3] = colorMap[0][1];
-        colorMap[0][1] = colorMap[0][5];
-        colorMap[0][5] = FtempTM;
+        apply(Constants.MOVE_F);
     }
 
 
     /**
-     * Performs a counterclockwise front face turn on the color map
+     * Performs a counterclockwise front face turn on the facelets
      */
     public void frontPrime() {
-        // Rotates the up, right, down, and left face stickers adjacent to the
-        // front face
-        int TtempBL = colorMap[1][0];
-        int TtempBM = colorMap[1][1];
-        int TtempBR = colorMap[1][2];
-
-        colorMap[1][0] = colorMap[2][6];
-        colorMap[1][1] = colorMap[2][3];
-        colorMap[1][2] = colorMap[2][0];
-
-        colorMap[2][6] = colorMap[3][8];
-        colorMap[2][3] = colorMap[3][7];
-        colorMap[2][0] = colorMap[3][6];
-
-        colorMap[3][8] = colorMap[4][2];
-        colorMap[3][7] = colorMap[4][5];
-        colorMap[3][6] = colorMap[4][8];
-
-        colorMap[4][2] = TtempBL;
-        colorMap[4][5] = TtempBM;
-        colorMap[4][8] = TtempBR;
-
-        // Rotates the corner stickers on the front face
-        int FtempTL = colorMap[0][6];
-        colorMap[0][6] = colorMap[0][8];
-        colorMap[0][8] = colorMap[0][2];
-        colorMap[0][2] = colorMap[0][0];
-        colorMap[0][0] = FtempTL;
-
-        // Rotates the edge stickers on the front face
-        int FtempTM = colorMap[0][7];
-        colorMap[0][7] = colorMap[0][5];
-        colorMap[0][5] = colorMap[0][1];
-        colorMap[0][1] = colorMap[0][3];
-        colorMap[0][3] = FtempTM;
+        apply(Constants.MOVE_F_PRIME);
     }
 
 
     /**
-     * Performs a double front face turn on the color map
-     * This method could be simplified by calling front() or frontPrime() twice,
-     * but a direct swap was implemented for efficiency's sake
+     * Performs a double front face turn on the facelets
      */
     public void frontTwo() {
-        // Swaps the up and down face stickers adjacent to the front face
-        int TtempBL = colorMap[1][0];
-        int TtempBM = colorMap[1][1];
-        int TtempBR = colorMap[1][2];
-
-        colorMap[1][0] = colorMap[3][8];
-        colorMap[1][1] = colorMap[3][7];
-        colorMap[1][2] = colorMap[3][6];
-
-        colorMap[3][8] = TtempBL;
-        colorMap[3][7] = TtempBM;
-        colorMap[3][6] = TtempBR;
-
-        // Swaps the left and right face stickers adjacent to the front face
-        int RtempTL = colorMap[2][6];
-        int RtempLM = colorMap[2][3];
-        int RtempBL = colorMap[2][0];
-
-        colorMap[2][6] = colorMap[4][2];
-        colorMap[2][3] = colorMap[4][5];
-        colorMap[2][0] = colorMap[4][8];
-
-        colorMap[4][2] = RtempTL;
-        colorMap[4][5] = RtempLM;
-        colorMap[4][8] = RtempBL;
-
-        // Swaps the corner stickers on the front face
-        int FtempTL = colorMap[0][6];
-        colorMap[0][6] = colorMap[0][2];
-        colorMap[0][2] = FtempTL;
-        int FtempTR = colorMap[0][8];
-        colorMap[0][8] = colorMap[0][0];
-        colorMap[0][0] = FtempTR;
-
-        // Swaps the edge stickers on the front face
-        int FtempTM = colorMap[0][7];
-        colorMap[0][7] = colorMap[0][1];
-        colorMap[0][1] = FtempTM;
-        int FtempMR = colorMap[0][5];
-        colorMap[0][5] = colorMap[0][3];
-        colorMap[0][3] = FtempMR;
+        apply(Constants.MOVE_F2);
     }
 
 
     /**
-     * Performs a clockwise back face turn on the color map
+     * Performs a clockwise back face turn on the facelets
      */
     public void back() {
-        // Rotates the up, right, down, and left face stickers adjacent to the
-        // back face
-        int TtempTL = colorMap[1][6];
-        int TtempTM = colorMap[1][7];
-        int TtempTR = colorMap[1][8];
-
-        colorMap[1][6] = colorMap[2][8];
-        colorMap[1][7] = colorMap[2][5];
-        colorMap[1][8] = colorMap[2][2];
-
-        colorMap[2][8] = colorMap[3][2];
-        colorMap[2][5] = colorMap[3][1];
-        colorMap[2][2] = colorMap[3][0];
-
-        colorMap[3][2] = colorMap[4][0];
-        colorMap[3][1] = colorMap[4][3];
-        colorMap[3][0] = colorMap[4][6];
-
-        colorMap[4][0] = TtempTL;
-        colorMap[4][3] = TtempTM;
-        colorMap[4][6] = TtempTR;
-
-        // Rotates the corner stickers on the back face
-        int BtempTL = colorMap[5][6];
-        colorMap[5][6] = colorMap[5][0];
-        colorMap[5][0] = colorMap[5][2];
-        colorMap[5][2] = colorMap[5][8];
-        colorMap[5][8] = BtempTL;
-
-        // Rotates the edge stickers on the back face
-        int BtempTM = colorMap[5][7];
-        colorMap[5][7] = colorMap[5][3];
-        colorMap[5][3] = colorMap[5][1];
-        colorMap[5][1] = colorMap[5][5];
-        colorMap[5][5] = BtempTM;
+        apply(Constants.MOVE_B);
     }
 
 
     /**
-     * Performs a counterclockwise back face turn on the color map
+     * Performs a counterclockwise back face turn on the facelets
      */
     public void backPrime() {
-        // Rotates the up, right, down, and left face stickers adjacent to the
-        // back face
-        int TtempTL = colorMap[1][6];
-        int TtempTM = colorMap[1][7];
-        int TtempTR = colorMap[1][8];
-
-        colorMap[1][6] = colorMap[4][0];
-        colorMap[1][7] = colorMap[4][3];
-        colorMap[1][8] = colorMap[4][6];
-
-        colorMap[4][0] = colorMap[3][2];
-        colorMap[4][3] = colorMap[3][1];
-        colorMap[4][6] = colorMap[3][0];
-
-        colorMap[3][2] = colorMap[2][8];
-        colorMap[3][1] = colorMap[2][5];
-        colorMap[3][0] = colorMap[2][2];
-
-        colorMap[2][8] = TtempTL;
-        colorMap[2][5] = TtempTM;
-        colorMap[2][2] = TtempTR;
-
-        // Rotates the corner stickers on the back face
-        int BtempTL = colorMap[5][6];
-        colorMap[5][6] = colorMap[5][8];
-        colorMap[5][8] = colorMap[5][2];
-        colorMap[5][2] = colorMap[5][0];
-        colorMap[5][0] = BtempTL;
-
-        // Rotates the edge stickers on the back face
-        int BtempTM = colorMap[5][7];
-        colorMap[5][7] = colorMap[5][5];
-        colorMap[5][5] = colorMap[5][1];
-        colorMap[5][1] = colorMap[5][3];
-        colorMap[5][3] = BtempTM;
+        apply(Constants.MOVE_B_PRIME);
     }
 
 
     /**
-     * Performs a double back face turn on the color map
-     * This method could be simplified by calling back() or backPrime() twice,
-     * but a direct swap was implemented for efficiency's sake
+     * Performs a double back face turn on the facelets
      */
     public void backTwo() {
-        // Swaps the up and down face stickers adjacent to the back face
-        int TtempTL = colorMap[1][6];
-        int TtempTM = colorMap[1][7];
-        int TtempTR = colorMap[1][8];
-
-        colorMap[1][6] = colorMap[3][2];
-        colorMap[1][7] = colorMap[3][1];
-        colorMap[1][8] = colorMap[3][0];
-
-        colorMap[3][2] = TtempTL;
-        colorMap[3][1] = TtempTM;
-        colorMap[3][0] = TtempTR;
-
-        // Swaps the left and right face stickers adjacent to the back face
-        int RtempTR = colorMap[2][8];
-        int RtempMR = colorMap[2][5];
-        int RtempBR = colorMap[2][2];
-
-        colorMap[2][8] = colorMap[4][0];
-        colorMap[2][5] = colorMap[4][3];
-        colorMap[2][2] = colorMap[4][6];
-
-        colorMap[4][0] = RtempTR;
-        colorMap[4][3] = RtempMR;
-        colorMap[4][6] = RtempBR;
-
-        // Swaps the corner stickers on the back face
-        int BtempTL = colorMap[5][6];
-        colorMap[5][6] = colorMap[5][2];
-        colorMap[5][2] = BtempTL;
-        int BtempTR = colorMap[5][8];
-        colorMap[5][8] = colorMap[5][0];
-        colorMap[5][0] = BtempTR;
-
-        // Swaps the edge stickers on the back face
-        int BtempTM = colorMap[5][7];
-        colorMap[5][7] = colorMap[5][1];
-        colorMap[5][1] = BtempTM;
-        int BtempMR = colorMap[5][5];
-        colorMap[5][5] = colorMap[5][3];
-        colorMap[5][3] = BtempMR;
+        apply(Constants.MOVE_B2);
     }
 
 
     /**
-     * Gets the buffer's color map
+     * Builds a two-dimensional copy of the buffer's facelets, where the outer
+     * dimension maps to a face and the inner dimension maps to a sticker
      * 
-     * @return Buffer's color map
+     * @return A new array containing the color of every sticker
      */
     public int[][] getColorMap() {
+        int[][] colorMap = new int[6][];
+        for (int s = 0; s < 6; s++) {
+            colorMap[s] = getSide(s);
+        }
         return colorMap;
     }
 
@@ -906,10 +569,11 @@ public class CubeBuffer {
      * 
      * @param s
      *            The integer value that maps to the side being retrieved
-     * @return The array of sticker colors on the given side
+     * @return A new array containing the sticker colors on the given side
      */
     public int[] getSide(int s) {
-        return colorMap[s];
+        return Arrays.copyOfRange(facelets, s * FACE_SIZE, (s + 1)
+            * FACE_SIZE);
     }
 
 
@@ -923,7 +587,64 @@ public class CubeBuffer {
      * @return Integer value mapped to the color of the specified sticker
      */
     public int getTileColor(int s, int c) {
-        return colorMap[s][c];
+        return facelets[s * FACE_SIZE + c];
+    }
+
+
+    /**
+     * Sets the color of one sticker using its flat index, used when rebuilding
+     * the facelets from another representation of the cube
+     * 
+     * @param index
+     *            The flat index of the sticker (face * 9 + sticker)
+     * @param color
+     *            Integer value mapped to the sticker's new color
+     */
+    void setFacelet(int index, int color) {
+        if (facelets[index] != color) {
+            facelets[index] = color;
+            changed = true;
+        }
+    }
+
+
+    /**
+     * Checks whether the facelets may have changed since the last call, and
+     * starts tracking changes again from the current state
+     * 
+     * @return True if a turn, permutation, or new color has been applied
+     */
+    public boolean takeChanged() {
+        boolean wasChanged = changed;
+        changed = false;
+        return wasChanged;
+    }
+
+
+    /**
+     * Gets the color information about one sticker using its flat index
+     * 
+     * @param index
+     *            The flat index of the sticker (face * 9 + sticker)
+     * @return Integer value mapped to the color of the specified sticker
+     */
+    public int getFacelet(int index) {
+        return facelets[index];
+    }
+
+
+    /**
+     * Gets the facelet string describing the buffer, which can be passed back
+     * to the CubeBuffer(String) constructor
+     * 
+     * @return One face letter for every sticker in flat index order
+     */
+    public String toFaceletString() {
+        char[] letters = new char[FACELET_COUNT];
+        for (int i = 0; i < FACELET_COUNT; i++) {
+            letters[i] = FACE_NAMES.charAt(facelets[i]);
+        }
+        return new String(letters);
     }
 
 }
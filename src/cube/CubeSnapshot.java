@@ -0,0 +1,114 @@
+package cube;
+
+import java.awt.Color;
+
+/**
+ * An immutable copy of everything needed to draw the cube: the color value
+ * of every sticker, held as a PackedCube, along with the plastic color and
+ * the sticker color table in use. The console thread builds a new snapshot
+ * after every change and hands it to the render thread, which always draws
+ * one complete snapshot and never a cube that is still being turned.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+final class CubeSnapshot {
+
+    /**
+     * The color value of every sticker
+     */
+    private final PackedCube state;
+    /**
+     * The color of the cube's plastic
+     */
+    private final Color plasticColor;
+    /**
+     * The sticker color of every color value, which is never modified once
+     * it is used by a snapshot
+     */
+    private final Color[] stickerColors;
+
+
+    /**
+     * Creates a new CubeSnapshot object from the current state of a cube
+     * buffer
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being copied
+     * @param plasticColor
+     *            The color of the cube's plastic
+     * @param stickerColors
+     *            The sticker color of every color value, which must not be
+     *            modified afterwards
+     */
+    CubeSnapshot(
+        CubeBuffer cubeBuffer,
+        Color plasticColor,
+        Color[] stickerColors) {
+        this.state = new PackedCube(cubeBuffer);
+        this.plasticColor = plasticColor;
+        this.stickerColors = stickerColors;
+    }
+
+
+    /**
+     * Gets the color value of one sticker
+     * 
+     * @param index
+     *            The flat index of the sticker (face * 9 + sticker)
+     * @return Integer value mapped to the sticker's color
+     */
+    int getFacelet(int index) {
+        return state.getFacelet(index);
+    }
+
+
+    /**
+     * Gets the drawn color of one sticker
+     * 
+     * @param index
+     *            The flat index of the sticker (face * 9 + sticker)
+     * @return The sticker's color under the snapshot's color table
+     */
+    Color getStickerColor(int index) {
+        return stickerColors[getFacelet(index)];
+    }
+
+
+    /**
+     * Gets the color of the cube's plastic
+     * 
+     * @return The plastic color
+     */
+    Color getPlasticColor() {
+        return plasticColor;
+    }
+
+
+    /**
+     * Finds the stickers drawn in a different color than in another snapshot
+     * 
+     * @param other
+     *            The snapshot being compared, or null to select every sticker
+     * @return A mask where bit i is set if the sticker at flat index i is
+     *         drawn differently
+     */
+    long diff(CubeSnapshot other) {
+        if (other == null || other.stickerColors != stickerColors) {
+            return CubeBuffer.ALL_FACELETS;
+        }
+
+        long changed = 0;
+        for (int w = 0; w < PackedCube.WORD_COUNT; w++) {
+            long x = state.getWord(w) ^ other.state.getWord(w);
+            while (x != 0) {
+                // Finding the sticker holding the lowest differing bit
+                int slot = Long.numberOfTrailingZeros(x) / PackedCube.BITS;
+                changed |= 1L << (w * PackedCube.FACELETS_PER_WORD + slot);
+                x &= ~(PackedCube.MASK << (slot * PackedCube.BITS));
+            }
+        }
+        return changed;
+    }
+
+}
@@ -0,0 +1,325 @@
+package cube;
+
+/**
+ * The 48 symmetries of the cube: the 24 whole-cube rotations, numbered 0 to
+ * 23 starting with the identity, followed by the 24 rotations combined with
+ * a mirror reflection. Each symmetry is a permutation of the six faces that
+ * keeps opposite faces opposite, and since every piece position and every
+ * piece is named by its faces, the same permutation moves the positions and
+ * recolors the pieces. The tables built here let CubieCube find the image of
+ * a state under any symmetry with a few lookups per piece.
+ * 
+ * Symmetric states need the same number of turns to solve, with each turn
+ * mapped to its image by conjugateMove(), so a table or cache only needs one
+ * entry for every class of up to 48 states: the smallest of them, found by
+ * CubieCube.canonicalize().
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class CubeSymmetry {
+
+    /**
+     * The number of symmetries, and the number that are rotations
+     */
+    public static final int COUNT = 48;
+    public static final int ROTATION_COUNT = 24;
+
+    /**
+     * The face opposite each face, in the order of CubeBuffer.FACE_NAMES
+     */
+    private static final int[] OPPOSITE_FACES = { 5, 3, 4, 1, 2, 0 };
+    /**
+     * The face turned by each basic turn, in the order right, left, up,
+     * down, front, back
+     */
+    private static final int[] MOVE_FACES = { 2, 4, 1, 3, 0, 5 };
+
+    /**
+     * The face each face maps to, indexed by [symmetry][face]
+     */
+    private static final int[][] FACE_MAPS = genFaceMaps();
+    /**
+     * The inverse of every symmetry
+     */
+    private static final int[] INVERSES = genInverses();
+
+    /**
+     * The position each corner or edge position maps to, which is also the
+     * piece each piece is recolored as, indexed by [symmetry][position]
+     */
+    static final byte[][] CORNER_MAPS = new byte[COUNT][];
+    static final byte[][] EDGE_MAPS = new byte[COUNT][];
+    /**
+     * The position mapping to each corner or edge position, indexed by
+     * [symmetry][position]
+     */
+    static final byte[][] CORNER_SOURCES = new byte[COUNT][];
+    static final byte[][] EDGE_SOURCES = new byte[COUNT][];
+    /**
+     * The twist of the image of a corner, indexed by [symmetry][(position *
+     * CORNER_COUNT + corner) * 3 + twist] for the corner and twist found at
+     * the position before mapping
+     */
+    static final byte[][] CORNER_TWISTS = new byte[COUNT][];
+    /**
+     * The flip of the image of an edge, indexed the same way by [symmetry][
+     * (position * EDGE_COUNT + edge) * 2 + flip]
+     */
+    static final byte[][] EDGE_FLIPS = new byte[COUNT][];
+
+    static {
+        for (int s = 0; s < COUNT; s++) {
+            int[][] cornerSlots = new int[CubieCube.CORNER_COUNT][];
+            CORNER_MAPS[s] = new byte[CubieCube.CORNER_COUNT];
+            CORNER_SOURCES[s] = new byte[CubieCube.CORNER_COUNT];
+            genPieceMaps(FACE_MAPS[s], CubieCube.CORNER_FACES, CORNER_MAPS[s],
+                CORNER_SOURCES[s], cornerSlots);
+            CORNER_TWISTS[s] = genOrientations(cornerSlots, 3);
+
+            int[][] edgeSlots = new int[CubieCube.EDGE_COUNT][];
+            EDGE_MAPS[s] = new byte[CubieCube.EDGE_COUNT];
+            EDGE_SOURCES[s] = new byte[CubieCube.EDGE_COUNT];
+            genPieceMaps(FACE_MAPS[s], CubieCube.EDGE_FACES, EDGE_MAPS[s],
+                EDGE_SOURCES[s], edgeSlots);
+            EDGE_FLIPS[s] = genOrientations(edgeSlots, 2);
+        }
+    }
+
+
+    /**
+     * Lists every permutation of the faces that keeps opposite faces
+     * opposite, with the rotations first, starting with the identity
+     * 
+     * @return The face map of every symmetry
+     */
+    private static int[][] genFaceMaps() {
+        int[][] maps = new int[COUNT][];
+        int rotations = 0;
+        int reflections = ROTATION_COUNT;
+
+        // Choosing the images of the front, up, and right faces in turn
+        for (int front = 0; front < 6; front++) {
+            for (int up = 0; up < 6; up++) {
+                if (up == front || up == OPPOSITE_FACES[front]) {
+                    continue;
+                }
+                for (int right = 0; right < 6; right++) {
+                    if (right == front || right == OPPOSITE_FACES[front]
+                        || right == up || right == OPPOSITE_FACES[up]) {
+                        continue;
+                    }
+
+                    int[] map = { front, up, right, OPPOSITE_FACES[up],
+                        OPPOSITE_FACES[right], OPPOSITE_FACES[front] };
+                    if (isReflection(map)) {
+                        maps[reflections++] = map;
+                    }
+                    else {
+                        maps[rotations++] = map;
+                    }
+                }
+            }
+        }
+        return maps;
+    }
+
+
+    /**
+     * Checks whether a face map mirrors the cube, which reverses the order of
+     * the faces around every corner
+     * 
+     * @param map
+     *            The face each face maps to
+     * @return True if the map is a reflection
+     */
+    private static boolean isReflection(int[] map) {
+        int[] faces = CubieCube.CORNER_FACES[0];
+        int[] image = { map[faces[0]], map[faces[1]], map[faces[2]] };
+
+        for (int[] corner : CubieCube.CORNER_FACES) {
+            for (int k = 0; k < 3; k++) {
+                if (corner[k] != image[0]) {
+                    continue;
+                }
+                if (corner[(k + 1) % 3] == image[1]
+                    && corner[(k + 2) % 3] == image[2]) {
+                    return false;
+                }
+                if (corner[(k + 2) % 3] == image[1]
+                    && corner[(k + 1) % 3] == image[2]) {
+                    return true;
+                }
+            }
+        }
+        throw new IllegalStateException("No corner has the mapped faces");
+    }
+
+
+    /**
+     * Finds the inverse of every symmetry
+     * 
+     * @return The symmetry undoing each symmetry
+     */
+    private static int[] genInverses() {
+        int[] inverses = new int[COUNT];
+        for (int s = 0; s < COUNT; s++) {
+            for (int t = 0; t < COUNT; t++) {
+                boolean identity = true;
+                for (int f = 0; f < 6 && identity; f++) {
+                    identity = FACE_MAPS[t][FACE_MAPS[s][f]] == f;
+                }
+                if (identity) {
+                    inverses[s] = t;
+                    break;
+                }
+            }
+        }
+        return inverses;
+    }
+
+
+    /**
+     * Finds where a face map moves every position of one kind of piece, and
+     * where it moves each sticker slot of every position
+     * 
+     * @param faceMap
+     *            The face each face maps to
+     * @param pieceFaces
+     *            The face of every sticker slot of every position
+     * @param maps
+     *            Array receiving the position each position maps to
+     * @param sources
+     *            Array receiving the position mapping to each position
+     * @param slots
+     *            Array receiving, for every position, the slot of its image
+     *            that each of its slots maps to
+     */
+    private static void genPieceMaps(
+        int[] faceMap,
+        int[][] pieceFaces,
+        byte[] maps,
+        byte[] sources,
+        int[][] slots) {
+        int size = pieceFaces[0].length;
+        for (int i = 0; i < pieceFaces.length; i++) {
+            slots[i] = new int[size];
+            for (int j = 0; j < pieceFaces.length; j++) {
+                // Matching every mapped face with a sticker of position j
+                int matched = 0;
+                for (int k = 0; k < size; k++) {
+                    for (int l = 0; l < size; l++) {
+                        if (pieceFaces[j][l] == faceMap[pieceFaces[i][k]]) {
+                            slots[i][k] = l;
+                            matched++;
+                        }
+                    }
+                }
+                if (matched == size) {
+                    maps[i] = (byte)j;
+                    sources[j] = (byte)i;
+                    break;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Builds the table giving the orientation of every piece's image. The
+     * sticker of a piece in slot (k + orientation) of a position is the
+     * piece's sticker k, and both the slot and the sticker are mapped by the
+     * slot maps, so the image's orientation is the mapped slot of the sticker
+     * that becomes the image piece's sticker 0.
+     * 
+     * @param slots
+     *            The slot maps of every position
+     * @param orientations
+     *            The number of orientations of each piece
+     * @return The orientation table of one symmetry
+     */
+    private static byte[] genOrientations(int[][] slots, int orientations) {
+        int count = slots.length;
+        byte[] table = new byte[count * count * orientations];
+        for (int i = 0; i < count; i++) {
+            for (int piece = 0; piece < count; piece++) {
+                int first = 0;
+                while (slots[piece][first] != 0) {
+                    first++;
+                }
+                for (int o = 0; o < orientations; o++) {
+                    table[(i * count + piece) * orientations + o] = (byte)slots[
+                        i][(first + o) % orientations];
+                }
+            }
+        }
+        return table;
+    }
+
+
+    /**
+     * Gets the face a face maps to under a symmetry
+     * 
+     * @param symmetry
+     *            The index of the symmetry
+     * @param face
+     *            The index of the face, in the order of CubeBuffer.FACE_NAMES
+     * @return The index of the face it maps to
+     */
+    public static int getFace(int symmetry, int face) {
+        return FACE_MAPS[symmetry][face];
+    }
+
+
+    /**
+     * Checks whether a symmetry mirrors the cube
+     * 
+     * @param symmetry
+     *            The index of the symmetry
+     * @return True if the symmetry is not a rotation
+     */
+    public static boolean isReflection(int symmetry) {
+        return symmetry >= ROTATION_COUNT;
+    }
+
+
+    /**
+     * Gets the symmetry that undoes another
+     * 
+     * @param symmetry
+     *            The index of the symmetry
+     * @return The index of its inverse
+     */
+    public static int inverse(int symmetry) {
+        return INVERSES[symmetry];
+    }
+
+
+    /**
+     * Maps a basic turn to its image under a symmetry: the turn of the mapped
+     * face, in the opposite direction if the symmetry is a reflection. The
+     * image of a state after a turn is the image of the state after the
+     * image of the turn.
+     * 
+     * @param symmetry
+     *            The index of the symmetry
+     * @param moveIndex
+     *            The index of the turn (see Constants.MOVE_R through
+     *            Constants.MOVE_B2)
+     * @return The index of the turn's image
+     */
+    public static int conjugateMove(int symmetry, int moveIndex) {
+        int face = FACE_MAPS[symmetry][MOVE_FACES[moveIndex / 3]];
+        int group = 0;
+        while (MOVE_FACES[group] != face) {
+            group++;
+        }
+
+        int amount = moveIndex % 3;
+        if (isReflection(symmetry) && amount < 2) {
+            amount ^= 1;
+        }
+        return group * 3 + amount;
+    }
+
+}
@@ -0,0 +1,1031 @@
+package cube;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Represents the cube at the level of its pieces rather than its stickers:
+ * the permutation and orientation of the 8 corners and 12 edges. This is the
+ * representation used by search algorithms, and it can be converted to and
+ * from a CubeBuffer.
+ * 
+ * Corners are numbered URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB and edges are
+ * numbered UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR, following the usual
+ * conventions of two-phase solvers.
+ * 
+ * States are ordered by their corners, then their twists, edges, and flips,
+ * position by position; canonicalize() finds the smallest state among the
+ * images of a state under the 48 symmetries (see CubeSymmetry).
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class CubieCube implements Comparable<CubieCube> {
+
+    /**
+     * The number of corner pieces on the cube
+     */
+    public static final int CORNER_COUNT = 8;
+    /**
+     * The number of edge pieces on the cube
+     */
+    public static final int EDGE_COUNT = 12;
+
+    /**
+     * The number of possible values of each coordinate
+     */
+    public static final int TWIST_COUNT = 2187;         // 3^7
+    public static final int FLIP_COUNT = 2048;          // 2^11
+    public static final int UD_SLICE_COUNT = 495;       // 12 choose 4
+    public static final int CORNER_PERM_COUNT = 40320;  // 8!
+    public static final int UD_EDGE_PERM_COUNT = 40320; // 8!
+    public static final int SLICE_PERM_COUNT = 24;      // 4!
+    public static final int EDGE_PERM_COUNT = 479001600; // 12!
+
+    /**
+     * Flat sticker indices (face * 9 + sticker) of every corner position,
+     * starting with the up or down sticker and continuing clockwise
+     */
+    private static final int[][] CORNER_FACELETS = {
+        { 11, 24, 8 }, { 9, 6, 44 }, { 15, 42, 53 }, { 17, 51, 26 },
+        { 35, 2, 18 }, { 33, 38, 0 }, { 27, 47, 36 }, { 29, 20, 45 } };
+    /**
+     * Flat sticker indices of every edge position, starting with the up or
+     * down sticker (or front or back sticker for middle layer edges)
+     */
+    private static final int[][] EDGE_FACELETS = {
+        { 14, 25 }, { 10, 7 }, { 12, 43 }, { 16, 52 }, { 32, 19 }, { 34, 1 },
+        { 30, 37 }, { 28, 46 }, { 5, 21 }, { 3, 41 }, { 50, 39 }, { 48, 23 } };
+    /**
+     * The faces that each corner's stickers belong to when it is solved, in
+     * the same order as CORNER_FACELETS
+     */
+    static final int[][] CORNER_FACES = genPieceFaces(CORNER_FACELETS);
+    /**
+     * The faces that each edge's stickers belong to when it is solved, in the
+     * same order as EDGE_FACELETS
+     */
+    static final int[][] EDGE_FACES = genPieceFaces(EDGE_FACELETS);
+
+    /**
+     * The index of the up and down faces in a CubeBuffer
+     */
+    private static final int FACE_U = 1;
+    private static final int FACE_D = 3;
+
+    /**
+     * Binomial coefficients up to 12 choose 12, used for the UD-slice
+     * coordinate
+     */
+    private static final int[][] BINOMIAL = genBinomial(EDGE_COUNT);
+    /**
+     * Factorials up to 12!, used for the permutation coordinates
+     */
+    private static final int[] FACTORIAL = genFactorial(EDGE_COUNT);
+
+    /**
+     * Precomputed piece-level effect of every basic turn, indexed by move
+     * index, derived from the sticker permutations in CubeBuffer
+     */
+    private static final CubieCube[] MOVE_CUBES = genMoveCubes();
+
+    /**
+     * The corner found at each corner position
+     */
+    private byte[] cp;
+    /**
+     * The twist of the corner found at each corner position (0 to 2)
+     */
+    private byte[] co;
+    /**
+     * The edge found at each edge position
+     */
+    private byte[] ep;
+    /**
+     * The flip of the edge found at each edge position (0 or 1)
+     */
+    private byte[] eo;
+
+    /**
+     * Scratch arrays swapped with cp, co, ep, and eo when a turn is applied so
+     * that turning never allocates memory
+     */
+    private byte[] cpScratch, coScratch, epScratch, eoScratch;
+    /**
+     * Scratch arrays used by setFromCubeBuffer() for the face whose center has
+     * each color and the faces of one corner's stickers, so that converting
+     * never allocates memory
+     */
+    private int[] faceOfColor, cornerFaces;
+
+
+    /**
+     * Creates a new CubieCube object in the solved state
+     */
+    public CubieCube() {
+        cp = new byte[CORNER_COUNT];
+        co = new byte[CORNER_COUNT];
+        ep = new byte[EDGE_COUNT];
+        eo = new byte[EDGE_COUNT];
+        cpScratch = new byte[CORNER_COUNT];
+        coScratch = new byte[CORNER_COUNT];
+        epScratch = new byte[EDGE_COUNT];
+        eoScratch = new byte[EDGE_COUNT];
+        faceOfColor = new int[6];
+        cornerFaces = new int[3];
+
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            cp[i] = (byte)i;
+        }
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            ep[i] = (byte)i;
+        }
+    }
+
+
+    /**
+     * Creates a new CubieCube object and copies the piece data of another
+     * CubieCube object
+     * 
+     * @param copy
+     *            The CubieCube object whose data is being copied
+     */
+    public CubieCube(CubieCube copy) {
+        this();
+        set(copy);
+    }
+
+
+    /**
+     * Creates a new CubieCube object from the stickers of a cube buffer. Faces
+     * are identified by the colors of their center stickers, so whole-cube
+     * rotations of the buffer are handled.
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being converted
+     * @throws IllegalArgumentException
+     *             If the stickers do not describe a valid set of pieces
+     */
+    public CubieCube(CubeBuffer cubeBuffer) {
+        this();
+        setFromCubeBuffer(cubeBuffer);
+    }
+
+
+    /**
+     * Lists the faces that each piece's stickers belong to in the solved state
+     * 
+     * @param pieceFacelets
+     *            The sticker indices of every piece
+     * @return The face of every sticker of every piece
+     */
+    private static int[][] genPieceFaces(int[][] pieceFacelets) {
+        int[][] faces = new int[pieceFacelets.length][];
+        for (int i = 0; i < pieceFacelets.length; i++) {
+            faces[i] = new int[pieceFacelets[i].length];
+            for (int k = 0; k < faces[i].length; k++) {
+                faces[i][k] = pieceFacelets[i][k] / CubeBuffer.FACE_SIZE;
+            }
+        }
+        return faces;
+    }
+
+
+    /**
+     * Builds a table of binomial coefficients
+     * 
+     * @param n
+     *            The largest value of n in the table
+     * @return A table where [n][k] holds n choose k
+     */
+    private static int[][] genBinomial(int n) {
+        int[][] table = new int[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            table[i][0] = 1;
+            for (int k = 1; k <= i; k++) {
+                table[i][k] = table[i - 1][k - 1] + table[i - 1][k];
+            }
+        }
+        return table;
+    }
+
+
+    /**
+     * Builds a table of factorials
+     * 
+     * @param n
+     *            The largest value in the table
+     * @return A table where [i] holds i!
+     */
+    private static int[] genFactorial(int n) {
+        int[] table = new int[n + 1];
+        table[0] = 1;
+        for (int i = 1; i <= n; i++) {
+            table[i] = table[i - 1] * i;
+        }
+        return table;
+    }
+
+
+    /**
+     * Builds the piece-level move table by converting the sticker permutation
+     * of every basic turn
+     * 
+     * @return The effect of every basic turn on a solved cube
+     */
+    private static CubieCube[] genMoveCubes() {
+        CubieCube[] moveCubes = new CubieCube[CubeBuffer.MOVE_COUNT];
+        for (int m = 0; m < moveCubes.length; m++) {
+            CubeBuffer buffer = new CubeBuffer();
+            buffer.apply(m);
+            moveCubes[m] = new CubieCube(buffer);
+        }
+        return moveCubes;
+    }
+
+
+    /**
+     * Gets the piece-level effect of a basic turn
+     * 
+     * @param moveIndex
+     *            The index of the turn (see Constants.MOVE_R through
+     *            Constants.MOVE_B2)
+     * @return The turn applied to a solved cube, which must not be modified
+     */
+    public static CubieCube getMoveCube(int moveIndex) {
+        return MOVE_CUBES[moveIndex];
+    }
+
+
+    /**
+     * Copies the piece data of another CubieCube object into this one
+     * 
+     * @param other
+     *            The CubieCube object whose data is being copied
+     */
+    public void set(CubieCube other) {
+        System.arraycopy(other.cp, 0, cp, 0, CORNER_COUNT);
+        System.arraycopy(other.co, 0, co, 0, CORNER_COUNT);
+        System.arraycopy(other.ep, 0, ep, 0, EDGE_COUNT);
+        System.arraycopy(other.eo, 0, eo, 0, EDGE_COUNT);
+    }
+
+
+    /**
+     * Sets this cube's pieces from the stickers of a cube buffer
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being converted
+     * @throws IllegalArgumentException
+     *             If the stickers do not describe a valid set of pieces
+     */
+    public void setFromCubeBuffer(CubeBuffer cubeBuffer) {
+        // Mapping every color to the face whose center has that color
+        Arrays.fill(faceOfColor, -1);
+        for (int f = 0; f < 6; f++) {
+            int color = cubeBuffer.getTileColor(f, 4);
+            if (color < 0 || color >= 6 || faceOfColor[color] != -1) {
+                throw new IllegalArgumentException(
+                    "Center stickers must all have different colors");
+            }
+            faceOfColor[color] = f;
+        }
+
+        // Identifying the corner at every corner position
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            int[] faces = cornerFaces;
+            for (int k = 0; k < 3; k++) {
+                faces[k] = faceOfColor[cubeBuffer.getFacelet(
+                    CORNER_FACELETS[i][k])];
+            }
+
+            int ori = 0;
+            while (ori < 3 && faces[ori] != FACE_U && faces[ori] != FACE_D) {
+                ori++;
+            }
+
+            int corner = -1;
+            if (ori < 3) {
+                for (int j = 0; j < CORNER_COUNT; j++) {
+                    if (CORNER_FACES[j][0] == faces[ori]
+                        && CORNER_FACES[j][1] == faces[(ori + 1) % 3]
+                        && CORNER_FACES[j][2] == faces[(ori + 2) % 3]) {
+                        corner = j;
+                        break;
+                    }
+                }
+            }
+            if (corner < 0) {
+                throw new IllegalArgumentException("Invalid corner stickers");
+            }
+
+            cp[i] = (byte)corner;
+            co[i] = (byte)ori;
+        }
+
+        // Identifying the edge at every edge position
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            int first = faceOfColor[cubeBuffer.getFacelet(EDGE_FACELETS[i][0])];
+            int second = faceOfColor[cubeBuffer.getFacelet(
+                EDGE_FACELETS[i][1])];
+
+            int edge = -1;
+            for (int j = 0; j < EDGE_COUNT && edge < 0; j++) {
+                if (EDGE_FACES[j][0] == first && EDGE_FACES[j][1] == second) {
+                    edge = j;
+                    eo[i] = 0;
+                }
+                else if (EDGE_FACES[j][0] == second
+                    && EDGE_FACES[j][1] == first) {
+                    edge = j;
+                    eo[i] = 1;
+                }
+            }
+            if (edge < 0) {
+                throw new IllegalArgumentException("Invalid edge stickers");
+            }
+
+            ep[i] = (byte)edge;
+        }
+
+        if (!isValid()) {
+            throw new IllegalArgumentException(
+                "The stickers do not describe a solvable cube");
+        }
+    }
+
+
+    /**
+     * Writes this cube's pieces to the stickers of a cube buffer, using the
+     * default center colors
+     * 
+     * @param cubeBuffer
+     *            The cube buffer whose stickers are overwritten
+     */
+    public void toCubeBuffer(CubeBuffer cubeBuffer) {
+        for (int f = 0; f < 6; f++) {
+            cubeBuffer.setFacelet(f * CubeBuffer.FACE_SIZE + 4, f);
+        }
+
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            for (int k = 0; k < 3; k++) {
+                cubeBuffer.setFacelet(CORNER_FACELETS[i][(k + co[i]) % 3],
+                    CORNER_FACES[cp[i]][k]);
+            }
+        }
+
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            for (int k = 0; k < 2; k++) {
+                cubeBuffer.setFacelet(EDGE_FACELETS[i][(k + eo[i]) % 2],
+                    EDGE_FACES[ep[i]][k]);
+            }
+        }
+    }
+
+
+    /**
+     * Converts this cube's pieces to a new cube buffer
+     * 
+     * @return A new cube buffer with the same state as this cube
+     */
+    public CubeBuffer toCubeBuffer() {
+        CubeBuffer cubeBuffer = new CubeBuffer();
+        toCubeBuffer(cubeBuffer);
+        return cubeBuffer;
+    }
+
+
+    /**
+     * Applies a basic turn using the precomputed piece-level move table
+     * 
+     * @param moveIndex
+     *            The index of the turn being applied (see Constants.MOVE_R
+     *            through Constants.MOVE_B2)
+     */
+    public void apply(int moveIndex) {
+        multiply(MOVE_CUBES[moveIndex]);
+    }
+
+
+    /**
+     * Multiplies this cube by another one, which is the same as applying the
+     * other cube's piece movements to this cube
+     * 
+     * @param other
+     *            The cube being multiplied with this one
+     */
+    public void multiply(CubieCube other) {
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            int from = other.cp[i];
+            cpScratch[i] = cp[from];
+            coScratch[i] = (byte)((co[from] + other.co[i]) % 3);
+        }
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            int from = other.ep[i];
+            epScratch[i] = ep[from];
+            eoScratch[i] = (byte)(eo[from] ^ other.eo[i]);
+        }
+
+        // Swapping buffers rather than copying the result back
+        byte[] temp = cp;
+        cp = cpScratch;
+        cpScratch = temp;
+        temp = co;
+        co = coScratch;
+        coScratch = temp;
+        temp = ep;
+        ep = epScratch;
+        epScratch = temp;
+        temp = eo;
+        eo = eoScratch;
+        eoScratch = temp;
+    }
+
+
+    /**
+     * Sets this cube to the image of another under a symmetry, which moves
+     * every piece to the mapped position and recolors it as the mapped piece
+     * 
+     * @param cube
+     *            The cube being mapped, which may be this cube
+     * @param symmetry
+     *            The index of the symmetry (see CubeSymmetry)
+     */
+    public void setConjugate(CubieCube cube, int symmetry) {
+        byte[] cornerMap = CubeSymmetry.CORNER_MAPS[symmetry];
+        byte[] twists = CubeSymmetry.CORNER_TWISTS[symmetry];
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            int corner = cube.cp[i];
+            int to = cornerMap[i];
+            cpScratch[to] = cornerMap[corner];
+            coScratch[to] = twists[(i * CORNER_COUNT + corner) * 3
+                + cube.co[i]];
+        }
+
+        byte[] edgeMap = CubeSymmetry.EDGE_MAPS[symmetry];
+        byte[] flips = CubeSymmetry.EDGE_FLIPS[symmetry];
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            int edge = cube.ep[i];
+            int to = edgeMap[i];
+            epScratch[to] = edgeMap[edge];
+            eoScratch[to] = flips[(i * EDGE_COUNT + edge) * 2 + cube.eo[i]];
+        }
+
+        // Swapping buffers rather than copying the result back
+        byte[] temp = cp;
+        cp = cpScratch;
+        cpScratch = temp;
+        temp = co;
+        co = coScratch;
+        coScratch = temp;
+        temp = ep;
+        ep = epScratch;
+        epScratch = temp;
+        temp = eo;
+        eo = eoScratch;
+        eoScratch = temp;
+    }
+
+
+    /**
+     * Finds the smallest of the images of this cube under every symmetry,
+     * which is the same for every state in its class of symmetric states
+     * 
+     * @param result
+     *            The cube receiving the smallest image, which must not be this
+     *            cube
+     * @return The index of the symmetry mapping this cube to the result, so
+     *         that result.setConjugate(this, symmetry) gives the same state
+     */
+    public int canonicalize(CubieCube result) {
+        if (result == this) {
+            throw new IllegalArgumentException(
+                "The result must be another cube");
+        }
+
+        result.set(this);
+        int best = 0;
+        for (int s = 1; s < CubeSymmetry.COUNT; s++) {
+            if (compareConjugate(s, result) < 0) {
+                result.setConjugate(this, s);
+                best = s;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Compares the image of this cube under a symmetry with another cube,
+     * stopping at the first piece that differs rather than mapping the whole
+     * cube
+     * 
+     * @param symmetry
+     *            The index of the symmetry
+     * @param other
+     *            The cube being compared with the image
+     * @return A negative number, zero, or a positive number if the image
+     *         comes before, equals, or comes after the other cube
+     */
+    private int compareConjugate(int symmetry, CubieCube other) {
+        byte[] cornerMap = CubeSymmetry.CORNER_MAPS[symmetry];
+        byte[] cornerSources = CubeSymmetry.CORNER_SOURCES[symmetry];
+        for (int p = 0; p < CORNER_COUNT; p++) {
+            int corner = cornerMap[cp[cornerSources[p]]];
+            if (corner != other.cp[p]) {
+                return corner - other.cp[p];
+            }
+        }
+
+        byte[] twists = CubeSymmetry.CORNER_TWISTS[symmetry];
+        for (int p = 0; p < CORNER_COUNT; p++) {
+            int i = cornerSources[p];
+            int twist = twists[(i * CORNER_COUNT + cp[i]) * 3 + co[i]];
+            if (twist != other.co[p]) {
+                return twist - other.co[p];
+            }
+        }
+
+        byte[] edgeMap = CubeSymmetry.EDGE_MAPS[symmetry];
+        byte[] edgeSources = CubeSymmetry.EDGE_SOURCES[symmetry];
+        for (int p = 0; p < EDGE_COUNT; p++) {
+            int edge = edgeMap[ep[edgeSources[p]]];
+            if (edge != other.ep[p]) {
+                return edge - other.ep[p];
+            }
+        }
+
+        byte[] flips = CubeSymmetry.EDGE_FLIPS[symmetry];
+        for (int p = 0; p < EDGE_COUNT; p++) {
+            int i = edgeSources[p];
+            int flip = flips[(i * EDGE_COUNT + ep[i]) * 2 + eo[i]];
+            if (flip != other.eo[p]) {
+                return flip - other.eo[p];
+            }
+        }
+        return 0;
+    }
+
+
+    /**
+     * Checks whether this cube can be reached from the solved state by turning
+     * 
+     * @return True if every piece appears once, the twist and flip sums are
+     *         zero, and the corner and edge permutation parities match
+     */
+    public boolean isValid() {
+        int cornerMask = 0;
+        int twistSum = 0;
+        for (int i = 0; i < CORNER_COUNT; i++) {
+            cornerMask |= 1 << cp[i];
+            twistSum += co[i];
+        }
+
+        int edgeMask = 0;
+        int flipSum = 0;
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            edgeMask |= 1 << ep[i];
+            flipSum += eo[i];
+        }
+
+        return cornerMask == (1 << CORNER_COUNT) - 1
+            && edgeMask == (1 << EDGE_COUNT) - 1 && twistSum % 3 == 0
+            && flipSum % 2 == 0 && getCornerParity() == getEdgeParity();
+    }
+
+
+    /**
+     * Gets the parity of the corner permutation
+     * 
+     * @return 0 for an even permutation, 1 for an odd permutation
+     */
+    public int getCornerParity() {
+        return parity(cp);
+    }
+
+
+    /**
+     * Gets the parity of the edge permutation
+     * 
+     * @return 0 for an even permutation, 1 for an odd permutation
+     */
+    public int getEdgeParity() {
+        return parity(ep);
+    }
+
+
+    /**
+     * Computes the parity of a permutation by counting its inversions
+     * 
+     * @param perm
+     *            The permutation being checked
+     * @return 0 for an even permutation, 1 for an odd permutation
+     */
+    private static int parity(byte[] perm) {
+        int inversions = 0;
+        for (int i = 0; i < perm.length; i++) {
+            for (int j = i + 1; j < perm.length; j++) {
+                if (perm[i] > perm[j]) {
+                    inversions++;
+                }
+            }
+        }
+        return inversions & 1;
+    }
+
+
+    /**
+     * Sets this cube to a random state that can be reached by turning, where
+     * every such state is equally likely; the permutations, twist, and flip
+     * are drawn independently, and if the permutation parities differ, two
+     * edges are swapped, which pairs every unreachable state with exactly one
+     * reachable state
+     * 
+     * @param random
+     *            The source of randomness
+     */
+    public void randomize(SplittableRandom random) {
+        setCornerPermutation(random.nextInt(CORNER_PERM_COUNT));
+        setEdgePermutation(random.nextInt(EDGE_PERM_COUNT));
+        if (getCornerParity() != getEdgeParity()) {
+            byte edge = ep[EDGE_COUNT - 1];
+            ep[EDGE_COUNT - 1] = ep[EDGE_COUNT - 2];
+            ep[EDGE_COUNT - 2] = edge;
+        }
+        setTwist(random.nextInt(TWIST_COUNT));
+        setFlip(random.nextInt(FLIP_COUNT));
+    }
+
+
+    /**
+     * Gets the corner orientation coordinate
+     * 
+     * @return The twist of the first 7 corners as a base-3 number (0 to 2186)
+     */
+    public int getTwist() {
+        int twist = 0;
+        for (int i = 0; i < CORNER_COUNT - 1; i++) {
+            twist = twist * 3 + co[i];
+        }
+        return twist;
+    }
+
+
+    /**
+     * Sets the corner orientations from the corner orientation coordinate,
+     * twisting the last corner so the twist sum stays valid
+     * 
+     * @param twist
+     *            The corner orientation coordinate (0 to 2186)
+     */
+    public void setTwist(int twist) {
+        int sum = 0;
+        for (int i = CORNER_COUNT - 2; i >= 0; i--) {
+            co[i] = (byte)(twist % 3);
+            sum += co[i];
+            twist /= 3;
+        }
+        co[CORNER_COUNT - 1] = (byte)((3 - sum % 3) % 3);
+    }
+
+
+    /**
+     * Gets the edge orientation coordinate
+     * 
+     * @return The flip of the first 11 edges as a binary number (0 to 2047)
+     */
+    public int getFlip() {
+        int flip = 0;
+        for (int i = 0; i < EDGE_COUNT - 1; i++) {
+            flip = flip * 2 + eo[i];
+        }
+        return flip;
+    }
+
+
+    /**
+     * Sets the edge orientations from the edge orientation coordinate,
+     * flipping the last edge so the flip sum stays valid
+     * 
+     * @param flip
+     *            The edge orientation coordinate (0 to 2047)
+     */
+    public void setFlip(int flip) {
+        int sum = 0;
+        for (int i = EDGE_COUNT - 2; i >= 0; i--) {
+            eo[i] = (byte)(flip & 1);
+            sum += eo[i];
+            flip >>= 1;
+        }
+        eo[EDGE_COUNT - 1] = (byte)(sum & 1);
+    }
+
+
+    /**
+     * Gets the UD-slice coordinate, which describes the positions of the four
+     * middle layer edges (FR, FL, BL, BR) regardless of their order
+     * 
+     * @return The UD-slice coordinate (0 to 494), 0 when the middle layer
+     *         edges are all in the middle layer
+     */
+    public int getUDSlice() {
+        int slice = 0;
+        int found = 0;
+        for (int j = EDGE_COUNT - 1; j >= 0; j--) {
+            if (ep[j] >= 8) {
+                slice += BINOMIAL[EDGE_COUNT - 1 - j][found + 1];
+                found++;
+            }
+        }
+        return slice;
+    }
+
+
+    /**
+     * Sets the positions of the middle layer edges from the UD-slice
+     * coordinate; the middle layer edges are placed in order and the
+     * remaining edges fill the other positions in order
+     * 
+     * @param slice
+     *            The UD-slice coordinate (0 to 494)
+     */
+    public void setUDSlice(int slice) {
+        int remaining = 3;
+        int sliceEdge = 8;
+        int otherEdge = 0;
+        for (int j = 0; j < EDGE_COUNT; j++) {
+            int term = remaining >= 0 ? BINOMIAL[EDGE_COUNT - 1 - j][remaining
+                + 1] : 0;
+            if (remaining >= 0 && slice >= term) {
+                ep[j] = (byte)sliceEdge++;
+                slice -= term;
+                remaining--;
+            }
+            else {
+                ep[j] = (byte)otherEdge++;
+            }
+        }
+    }
+
+
+    /**
+     * Gets the corner permutation coordinate
+     * 
+     * @return The rank of the corner permutation (0 to 40319), 0 when every
+     *         corner is in place
+     */
+    public int getCornerPermutation() {
+        return rank(cp, 0, CORNER_COUNT);
+    }
+
+
+    /**
+     * Sets the corner permutation from the corner permutation coordinate
+     * 
+     * @param rank
+     *            The corner permutation coordinate (0 to 40319)
+     */
+    public void setCornerPermutation(int rank) {
+        unrank(cp, 0, CORNER_COUNT, 0, rank);
+    }
+
+
+    /**
+     * Gets the edge permutation coordinate
+     * 
+     * @return The rank of the edge permutation (0 to 479001599), 0 when every
+     *         edge is in place
+     */
+    public int getEdgePermutation() {
+        return rank(ep, 0, EDGE_COUNT);
+    }
+
+
+    /**
+     * Sets the edge permutation from the edge permutation coordinate
+     * 
+     * @param rank
+     *            The edge permutation coordinate (0 to 479001599)
+     */
+    public void setEdgePermutation(int rank) {
+        unrank(ep, 0, EDGE_COUNT, 0, rank);
+    }
+
+
+    /**
+     * Gets the permutation coordinate of the eight up and down layer edges,
+     * which is only meaningful while all of them are in the up and down layers
+     * 
+     * @return The rank of the permutation of the first 8 edge positions (0 to
+     *         40319)
+     */
+    public int getUDEdgePermutation() {
+        return rank(ep, 0, 8);
+    }
+
+
+    /**
+     * Sets the up and down layer edges from their permutation coordinate,
+     * placing the middle layer edges in order in the middle layer
+     * 
+     * @param rank
+     *            The permutation coordinate of the up and down layer edges (0
+     *            to 40319)
+     */
+    public void setUDEdgePermutation(int rank) {
+        unrank(ep, 0, 8, 0, rank);
+        for (int i = 8; i < EDGE_COUNT; i++) {
+            ep[i] = (byte)i;
+        }
+    }
+
+
+    /**
+     * Gets the permutation coordinate of the four middle layer edges, which is
+     * only meaningful while all of them are in the middle layer
+     * 
+     * @return The rank of the permutation of the last 4 edge positions (0 to
+     *         23)
+     */
+    public int getSlicePermutation() {
+        return rank(ep, 8, 4);
+    }
+
+
+    /**
+     * Sets the middle layer edges from their permutation coordinate, placing
+     * the up and down layer edges in order in the up and down layers
+     * 
+     * @param rank
+     *            The permutation coordinate of the middle layer edges (0 to 23)
+     */
+    public void setSlicePermutation(int rank) {
+        for (int i = 0; i < 8; i++) {
+            ep[i] = (byte)i;
+        }
+        unrank(ep, 8, 4, 8, rank);
+    }
+
+
+    /**
+     * Ranks a permutation in lexicographic order
+     * 
+     * @param perm
+     *            The array containing the permutation being ranked
+     * @param offset
+     *            The index of the permutation's first element in the array
+     * @param n
+     *            The number of elements in the permutation
+     * @return The lexicographic rank of the permutation
+     */
+    private static int rank(byte[] perm, int offset, int n) {
+        int rank = 0;
+        for (int i = 0; i < n - 1; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < n; j++) {
+                if (perm[offset + j] < perm[offset + i]) {
+                    smaller++;
+                }
+            }
+            rank += smaller * FACTORIAL[n - 1 - i];
+        }
+        return rank;
+    }
+
+
+    /**
+     * Fills a permutation from its lexicographic rank
+     * 
+     * @param perm
+     *            The array receiving the permutation
+     * @param offset
+     *            The index of the permutation's first element in the array
+     * @param n
+     *            The number of elements in the permutation
+     * @param base
+     *            The smallest value in the permutation
+     * @param rank
+     *            The lexicographic rank of the permutation
+     */
+    private static void unrank(
+        byte[] perm,
+        int offset,
+        int n,
+        int base,
+        int rank) {
+        int used = 0;
+        for (int i = 0; i < n; i++) {
+            int smaller = rank / FACTORIAL[n - 1 - i];
+            rank %= FACTORIAL[n - 1 - i];
+
+            // Picking the unused element with the given number of smaller
+            // unused elements
+            int value = 0;
+            while ((used & (1 << value)) != 0 || smaller > 0) {
+                if ((used & (1 << value)) == 0) {
+                    smaller--;
+                }
+                value++;
+            }
+            used |= 1 << value;
+            perm[offset + i] = (byte)(base + value);
+        }
+    }
+
+
+    /**
+     * Gets the corner found at a corner position
+     * 
+     * @param i
+     *            The corner position
+     * @return The corner at the given position
+     */
+    public int getCorner(int i) {
+        return cp[i];
+    }
+
+
+    /**
+     * Gets the twist of the corner found at a corner position
+     * 
+     * @param i
+     *            The corner position
+     * @return The twist of the corner at the given position (0 to 2)
+     */
+    public int getCornerTwist(int i) {
+        return co[i];
+    }
+
+
+    /**
+     * Gets the edge found at an edge position
+     * 
+     * @param i
+     *            The edge position
+     * @return The edge at the given position
+     */
+    public int getEdge(int i) {
+        return ep[i];
+    }
+
+
+    /**
+     * Gets the flip of the edge found at an edge position
+     * 
+     * @param i
+     *            The edge position
+     * @return The flip of the edge at the given position (0 or 1)
+     */
+    public int getEdgeFlip(int i) {
+        return eo[i];
+    }
+
+
+    /**
+     * Checks whether another object is a CubieCube in the same state
+     * 
+     * @param obj
+     *            The object being compared with this cube
+     * @return True if both cubes have the same pieces in the same places
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CubieCube)) {
+            return false;
+        }
+
+        CubieCube other = (CubieCube)obj;
+        return Arrays.equals(cp, other.cp) && Arrays.equals(co, other.co)
+            && Arrays.equals(ep, other.ep) && Arrays.equals(eo, other.eo);
+    }
+
+
+    /**
+     * Orders cubes by their corners, then their twists, edges, and flips,
+     * comparing one position at a time
+     * 
+     * @param other
+     *            The cube being compared with this one
+     * @return A negative number, zero, or a positive number if this cube
+     *         comes before, equals, or comes after the other cube
+     */
+    @Override
+    public int compareTo(CubieCube other) {
+        return compareConjugate(0, other);
+    }
+
+
+    /**
+     * Computes a hash code from the cube's coordinates
+     * 
+     * @return A hash code consistent with equals()
+     */
+    @Override
+    public int hashCode() {
+        int hash = getEdgePermutation();
+        hash = hash * 31 + getCornerPermutation();
+        hash = hash * 31 + getTwist();
+        return hash * 31 + getFlip();
+    }
+
+}
@@ -0,0 +1,290 @@
+package cube;
+
+import java.util.Arrays;
+import utilities.Constants;
+
+/**
+ * Shortens a sequence of turns without changing its effect, one turn at a
+ * time as the turns arrive. Inverse turns cancel ("R R'"), turns of the same
+ * face merge ("R R R" becomes "R'"), and since turns of opposite faces
+ * commute, they are merged across each other and written in a fixed order
+ * ("L R L" becomes "R L2"). When turns cancel completely, the run of turns
+ * before them is taken back from the output and merged with whatever follows,
+ * so "R U U' R'" simplifies to nothing.
+ * 
+ * Besides the output, the simplifier only keeps the run of turns about the
+ * current axis, which is a few integers. Wide turns, slices, and rotations
+ * merge with turns of the same layer but are not reordered.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class MoveSimplifier {
+
+    /**
+     * The number of axes shared by two opposite faces, which are followed by
+     * one axis for every layer of extended turns
+     */
+    private static final int FACE_AXES = CubeBuffer.MOVE_COUNT / 6;
+    /**
+     * Marks that no run is pending
+     */
+    private static final int NO_AXIS = -1;
+    /**
+     * The initial size of the output buffer
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The move index of every turn written so far, valid up to moveCount
+     */
+    private byte[] moves;
+    private int moveCount;
+    /**
+     * The axis of the pending run of turns, which has not been written yet,
+     * and the clockwise quarter turns of its first and second face
+     */
+    private int axis;
+    private int firstQuarters, secondQuarters;
+
+
+    /**
+     * Creates a new MoveSimplifier object with an empty sequence
+     */
+    public MoveSimplifier() {
+        this.moves = new byte[INITIAL_CAPACITY];
+        reset();
+    }
+
+
+    /**
+     * Simplifies a sequence of turns
+     * 
+     * @param moves
+     *            The move indices of the turns
+     * @return The move indices of the simplified sequence
+     */
+    public static int[] simplify(int[] moves) {
+        MoveSimplifier simplifier = new MoveSimplifier();
+        simplifier.simplify(moves, moves.length);
+        return simplifier.toArray();
+    }
+
+
+    /**
+     * Gets the number of clockwise quarter turns made by a turn
+     * 
+     * @param move
+     *            The move index of the turn
+     * @return 1, 2, or 3 quarter turns
+     */
+    public static int quarters(int move) {
+        int amount = move % 3;
+        return amount == 0 ? 1 : amount == 1 ? 3 : 2;
+    }
+
+
+    /**
+     * Gets the turn of a layer that makes a number of quarter turns
+     * 
+     * @param move
+     *            The move index of any turn of the layer
+     * @param quarters
+     *            The number of clockwise quarter turns, 1 to 3
+     * @return The move index of the turn
+     */
+    public static int withQuarters(int move, int quarters) {
+        return move / 3 * 3 + (quarters == 1 ? 0 : quarters == 3 ? 1 : 2);
+    }
+
+
+    /**
+     * Starts a new, empty sequence
+     */
+    public void reset() {
+        moveCount = 0;
+        axis = NO_AXIS;
+        firstQuarters = 0;
+        secondQuarters = 0;
+    }
+
+
+    /**
+     * Replaces the output with the simplified form of a whole sequence, which
+     * is then read with length() and getMove()
+     * 
+     * @param moves
+     *            The move indices of the turns
+     * @param length
+     *            The number of turns, from the start of the array
+     */
+    public void simplify(int[] moves, int length) {
+        reset();
+        for (int i = 0; i < length; i++) {
+            add(moves[i]);
+        }
+        finish();
+    }
+
+
+    /**
+     * Replaces the output with the simplified form of the turns read by a
+     * tokenizer, without copying them first
+     * 
+     * @param tokenizer
+     *            A tokenizer holding the turns of its last tokenize()
+     */
+    public void simplify(MoveTokenizer tokenizer) {
+        reset();
+        for (int i = 0; i < tokenizer.length(); i++) {
+            add(tokenizer.getMove(i));
+        }
+        finish();
+    }
+
+
+    /**
+     * Adds the next turn of the sequence
+     * 
+     * @param move
+     *            The move index of the turn (see Constants.MOVE_R and
+     *            Constants.MOVE_RW)
+     */
+    public void add(int move) {
+        int moveAxis = axisOf(move);
+        if (moveAxis != axis) {
+            writeRun();
+            axis = moveAxis;
+        }
+        addQuarters(move);
+
+        // Taking back the previous run if this one has cancelled out
+        if (firstQuarters == 0 && secondQuarters == 0) {
+            axis = NO_AXIS;
+            if (moveCount > 0) {
+                int last = moves[--moveCount];
+                axis = axisOf(last);
+                addQuarters(last);
+                if (moveCount > 0 && axisOf(moves[moveCount - 1]) == axis) {
+                    addQuarters(moves[--moveCount]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Gets the axis of a turn; opposite faces share an axis, and every layer
+     * of extended turns has its own
+     * 
+     * @param move
+     *            The move index of the turn
+     * @return The axis of the turn
+     */
+    private static int axisOf(int move) {
+        return move < CubeBuffer.MOVE_COUNT ? move / 6 : FACE_AXES + move / 3
+            - Constants.MOVE_RW / 3;
+    }
+
+
+    /**
+     * Adds a turn's quarter turns to the pending run, which must share its
+     * axis
+     * 
+     * @param move
+     *            The move index of the turn
+     */
+    private void addQuarters(int move) {
+        if (move < CubeBuffer.MOVE_COUNT && move / 3 % 2 == 1) {
+            secondQuarters = (secondQuarters + quarters(move)) % 4;
+        }
+        else {
+            firstQuarters = (firstQuarters + quarters(move)) % 4;
+        }
+    }
+
+
+    /**
+     * Writes the pending run to the output and empties it
+     */
+    private void writeRun() {
+        if (axis == NO_AXIS) {
+            return;
+        }
+
+        int first = axis < FACE_AXES ? axis * 6 : (axis - FACE_AXES) * 3
+            + Constants.MOVE_RW;
+        if (firstQuarters != 0) {
+            write(withQuarters(first, firstQuarters));
+        }
+        if (secondQuarters != 0) {
+            write(withQuarters(first + 3, secondQuarters));
+        }
+
+        axis = NO_AXIS;
+        firstQuarters = 0;
+        secondQuarters = 0;
+    }
+
+
+    /**
+     * Appends a turn to the output
+     * 
+     * @param move
+     *            The move index of the turn
+     */
+    private void write(int move) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = (byte)move;
+    }
+
+
+    /**
+     * Writes the pending run, so that the output holds the whole simplified
+     * sequence; the next sequence must start with reset()
+     */
+    public void finish() {
+        writeRun();
+    }
+
+
+    /**
+     * Gets the number of turns in the output, which is only the whole
+     * sequence after finish()
+     * 
+     * @return The number of turns written
+     */
+    public int length() {
+        return moveCount;
+    }
+
+
+    /**
+     * Gets the move index of one of the turns in the output
+     * 
+     * @param i
+     *            The position of the turn
+     * @return The move index of the turn
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+
+    /**
+     * Finishes the sequence and copies the output
+     * 
+     * @return A new array holding the move index of every turn
+     */
+    public int[] toArray() {
+        finish();
+        int[] result = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            result[i] = moves[i];
+        }
+        return result;
+    }
+
+}
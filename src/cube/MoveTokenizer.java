@@ -0,0 +1,666 @@
+package cube;
+
+import java.util.Arrays;
+import utilities.Constants;
+
+/**
+ * Reads turn notation into move indices in a single pass over the text. Turns
+ * may be separated by any whitespace or written back to back, as in
+ * "RUR'U'", and each turn may be followed by an amount and a prime, as in
+ * "R2" or "U3'". Besides the basic face turns, wide turns ("Rw" or "r"),
+ * slice turns (M, E, S), and rotations (x, y, z) are understood, and a group
+ * of turns in parentheses may be followed by a repeat count, as in
+ * "(R U R' U')6". Groups may be nested.
+ * 
+ * The move indices are written as bytes into a buffer that is reused by every
+ * call to tokenize(), so once the buffer has grown large enough for the
+ * longest input, reading notation never allocates memory. Alternatively,
+ * compile() reads the same notation straight into a sticker permutation
+ * without listing the turns, raising every group to its repeat count by
+ * repeated squaring, so "(R U R' U')1000000" takes a few dozen permutation
+ * compositions rather than four million. A tokenizer is not thread safe.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class MoveTokenizer {
+
+    /**
+     * The largest number of turns a single input may expand to, which stops a
+     * large repeat count from running out of memory
+     */
+    public static final int MAX_MOVES = 1 << 26;
+    /**
+     * The largest repeat count a group may have
+     */
+    public static final long MAX_REPEAT = 1000000000000000000L;
+
+    /**
+     * The initial sizes of the move buffer and the stack of open groups
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_DEPTH = 8;
+
+    /**
+     * Error messages, which are constants so that failing does not allocate
+     * memory either
+     */
+    private static final String UNKNOWN_TURN = "Unknown turn";
+    private static final String UNMATCHED_CLOSE = "Unmatched ')'";
+    private static final String UNCLOSED_GROUP = "Unclosed '('";
+    private static final String TOO_MANY_MOVES = "Too many turns";
+    private static final String REPEAT_TOO_LARGE = "Repeat count too large";
+
+    /**
+     * The move index of the clockwise turn named by every ASCII letter, or -1
+     * for characters that do not start a turn
+     */
+    private static final byte[] LETTER_MOVES = genLetterMoves();
+
+    /**
+     * The move index of every turn read by the last call to tokenize(), valid
+     * up to moveCount
+     */
+    private byte[] moves;
+    private int moveCount;
+    /**
+     * The largest number of turns the current call to tokenize() may list
+     */
+    private int moveLimit;
+    /**
+     * For every group still open, the number of moves read before it started
+     * and the position of its opening parenthesis
+     */
+    private int[] groupStarts;
+    private int[] groupPositions;
+    private int depth;
+    /**
+     * The reason the last call to tokenize() failed and the position in the
+     * text where it failed, or null and -1 if it succeeded
+     */
+    private String error;
+    private int errorPosition;
+    /**
+     * Set while compile() is reading, in which case turns are composed into
+     * permutations instead of being written to the move buffer
+     */
+    private boolean compiling;
+    /**
+     * The permutation of the turns read so far at the top level and within
+     * every open group, indexed by depth, and the number of turns each stands
+     * for, which stops growing at Long.MAX_VALUE
+     */
+    private int[][] permutations;
+    private long[] turnCounts;
+    /**
+     * Scratch permutations used while composing and squaring
+     */
+    private int[] scratch, square, product;
+
+
+    /**
+     * Creates a new MoveTokenizer object
+     */
+    public MoveTokenizer() {
+        this.moves = new byte[INITIAL_CAPACITY];
+        this.groupStarts = new int[INITIAL_DEPTH];
+        this.groupPositions = new int[INITIAL_DEPTH];
+        this.errorPosition = -1;
+        this.permutations = new int[INITIAL_DEPTH + 1][];
+        this.turnCounts = new long[INITIAL_DEPTH + 1];
+        this.scratch = new int[CubeBuffer.FACELET_COUNT];
+        this.square = new int[CubeBuffer.FACELET_COUNT];
+        this.product = new int[CubeBuffer.FACELET_COUNT];
+    }
+
+
+    /**
+     * Builds the table of the turn named by every ASCII letter
+     * 
+     * @return The move index of the clockwise turn of every letter, or -1
+     */
+    private static byte[] genLetterMoves() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte)-1);
+
+        String faces = "RLUDFB";
+        for (int f = 0; f < faces.length(); f++) {
+            table[faces.charAt(f)] = (byte)(Constants.MOVE_R + f * 3);
+            table[Character.toLowerCase(faces.charAt(f))] =
+                (byte)(Constants.MOVE_RW + f * 3);
+        }
+
+        String slices = "MES";
+        String rotations = "xyz";
+        for (int i = 0; i < 3; i++) {
+            table[slices.charAt(i)] = (byte)(Constants.MOVE_M + i * 3);
+            table[rotations.charAt(i)] = (byte)(Constants.MOVE_X + i * 3);
+        }
+
+        return table;
+    }
+
+
+    /**
+     * Reads a sequence of turns, replacing the moves read by the previous call
+     * 
+     * @param text
+     *            The turns being read, such as "(R U R' U')6 x2 M'"
+     * @return True if the whole text was read, false if it is not valid
+     *         notation, in which case getError() and getErrorPosition()
+     *         describe the problem
+     */
+    public boolean tokenize(CharSequence text) {
+        return tokenize(text, MAX_MOVES);
+    }
+
+
+    /**
+     * Reads a sequence of turns, failing as soon as it expands to more than a
+     * number of turns, so that a caller who only lists short sequences never
+     * expands a long one
+     * 
+     * @param text
+     *            The turns being read
+     * @param maxMoves
+     *            The largest number of turns to list, up to MAX_MOVES
+     * @return True if the whole text was read within the limit, false if it
+     *         is not valid notation or expands to more turns, in which case
+     *         getError() and getErrorPosition() describe the problem
+     * @throws IllegalArgumentException
+     *             If the limit is negative or above MAX_MOVES
+     */
+    public boolean tokenize(CharSequence text, int maxMoves) {
+        if (maxMoves < 0 || maxMoves > MAX_MOVES) {
+            throw new IllegalArgumentException("Move limit must be between 0"
+                + " and " + MAX_MOVES);
+        }
+        compiling = false;
+        moveLimit = maxMoves;
+        return scan(text);
+    }
+
+
+    /**
+     * Reads a sequence of turns into a single sticker permutation, which can
+     * then be applied with applyTo(); the move buffer is left empty
+     * 
+     * @param text
+     *            The turns being read, such as "(R U)105"
+     * @return True if the whole text was read, false if it is not valid
+     *         notation, in which case getError() and getErrorPosition()
+     *         describe the problem
+     */
+    public boolean compile(CharSequence text) {
+        compiling = true;
+        return scan(text);
+    }
+
+
+    /**
+     * Reads a sequence of turns, either listing them or composing them
+     * depending on the mode
+     * 
+     * @param text
+     *            The turns being read
+     * @return True if the whole text was read
+     */
+    private boolean scan(CharSequence text) {
+        moveCount = 0;
+        depth = 0;
+        error = null;
+        errorPosition = -1;
+        if (compiling) {
+            resetLevel(0);
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '(') {
+                openGroup(i);
+                i++;
+            }
+            else if (c == ')') {
+                if (depth == 0) {
+                    return fail(UNMATCHED_CLOSE, i);
+                }
+                i++;
+
+                // Reading the repeat count, which defaults to one
+                int countStart = i;
+                long count = 0;
+                while (i < length && isDigit(text.charAt(i))) {
+                    // Checking before multiplying, so the count never
+                    // overflows
+                    int digit = text.charAt(i) - '0';
+                    if (count > (MAX_REPEAT - digit) / 10) {
+                        return fail(REPEAT_TOO_LARGE, countStart);
+                    }
+                    count = count * 10 + digit;
+                    i++;
+                }
+                if (i == countStart) {
+                    count = 1;
+                }
+
+                if (!closeGroup(count)) {
+                    return fail(TOO_MANY_MOVES, groupPositions[depth]);
+                }
+            }
+            else {
+                int move = c < LETTER_MOVES.length ? LETTER_MOVES[c] : -1;
+                if (move < 0) {
+                    return fail(UNKNOWN_TURN, i);
+                }
+                int start = i++;
+
+                // Reading the wide marker, amount, and prime
+                if (move < Constants.MOVE_RW && i < length
+                    && text.charAt(i) == 'w') {
+                    move += Constants.MOVE_RW - Constants.MOVE_R;
+                    i++;
+                }
+                int quarters = 1;
+                if (i < length && isDigit(text.charAt(i))) {
+                    quarters = 0;
+                    while (i < length && isDigit(text.charAt(i))) {
+                        quarters = (quarters * 10 + text.charAt(i) - '0') % 4;
+                        i++;
+                    }
+                }
+                if (i < length && isPrime(text.charAt(i))) {
+                    quarters = (4 - quarters) % 4;
+                    i++;
+                }
+
+                if (quarters != 0 && !addMove(move + (quarters == 1 ? 0
+                    : quarters == 3 ? 1 : 2))) {
+                    return fail(TOO_MANY_MOVES, start);
+                }
+            }
+        }
+
+        if (depth > 0) {
+            return fail(UNCLOSED_GROUP, groupPositions[depth - 1]);
+        }
+        return true;
+    }
+
+
+    /**
+     * Checks whether a character is a decimal digit, without accepting the
+     * other Unicode digits that Character.isDigit() does
+     * 
+     * @param c
+     *            The character being checked
+     * @return True if the character is 0 through 9
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+
+    /**
+     * Checks whether a character marks a counterclockwise turn, accepting the
+     * typographic apostrophe that often appears in copied algorithms
+     * 
+     * @param c
+     *            The character being checked
+     * @return True if the character is a prime
+     */
+    private static boolean isPrime(char c) {
+        return c == '\'' || c == '\u2019';
+    }
+
+
+    /**
+     * Adds a turn to the moves read at the current depth
+     * 
+     * @param move
+     *            The move index of the turn
+     * @return False if the move buffer already holds the most turns allowed
+     */
+    private boolean addMove(int move) {
+        if (compiling) {
+            int[] current = permutations[depth];
+            CubeBuffer.compose(current, CubeBuffer.getMovePermutation(move),
+                scratch);
+            permutations[depth] = scratch;
+            scratch = current;
+            turnCounts[depth] = saturatedAdd(turnCounts[depth], 1);
+            return true;
+        }
+
+        if (moveCount >= moveLimit) {
+            return false;
+        }
+        ensureCapacity(moveCount + 1);
+        moves[moveCount++] = (byte)move;
+        return true;
+    }
+
+
+    /**
+     * Records the start of a group of turns
+     * 
+     * @param position
+     *            The position of the group's opening parenthesis
+     */
+    private void openGroup(int position) {
+        if (depth == groupStarts.length) {
+            groupStarts = Arrays.copyOf(groupStarts, depth * 2);
+            groupPositions = Arrays.copyOf(groupPositions, depth * 2);
+            permutations = Arrays.copyOf(permutations, depth * 2 + 1);
+            turnCounts = Arrays.copyOf(turnCounts, depth * 2 + 1);
+        }
+        groupStarts[depth] = moveCount;
+        groupPositions[depth] = position;
+        depth++;
+        if (compiling) {
+            resetLevel(depth);
+        }
+    }
+
+
+    /**
+     * Starts an empty sequence of turns at a depth
+     * 
+     * @param level
+     *            The depth being reset
+     */
+    private void resetLevel(int level) {
+        if (permutations[level] == null) {
+            permutations[level] = new int[CubeBuffer.FACELET_COUNT];
+        }
+        int[] perm = permutations[level];
+        for (int i = 0; i < perm.length; i++) {
+            perm[i] = i;
+        }
+        turnCounts[level] = 0;
+    }
+
+
+    /**
+     * Ends the innermost group, repeating it and adding it to the turns of
+     * the enclosing depth
+     * 
+     * @param count
+     *            The number of times the group is played, which may be 0
+     * @return False if repeating the group would exceed the most turns
+     *         allowed
+     */
+    private boolean closeGroup(long count) {
+        depth--;
+        if (!compiling) {
+            return repeat(groupStarts[depth], count);
+        }
+
+        int[] group = permutations[depth + 1];
+        raise(group, count);
+        int[] current = permutations[depth];
+        CubeBuffer.compose(current, group, scratch);
+        permutations[depth] = scratch;
+        scratch = current;
+        turnCounts[depth] = saturatedAdd(turnCounts[depth], saturatedMultiply(
+            turnCounts[depth + 1], count));
+        return true;
+    }
+
+
+    /**
+     * Raises a permutation to a power by repeated squaring, which takes at
+     * most two compositions for every bit of the exponent
+     * 
+     * @param perm
+     *            The permutation, which is replaced by the result
+     * @param count
+     *            The exponent, which may be 0
+     */
+    private void raise(int[] perm, long count) {
+        int[] base = square;
+        int[] result = product;
+        System.arraycopy(perm, 0, base, 0, base.length);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i;
+        }
+
+        while (count > 0) {
+            if ((count & 1) != 0) {
+                CubeBuffer.compose(result, base, scratch);
+                int[] swap = result;
+                result = scratch;
+                scratch = swap;
+            }
+            count >>= 1;
+            if (count > 0) {
+                CubeBuffer.compose(base, base, scratch);
+                int[] swap = base;
+                base = scratch;
+                scratch = swap;
+            }
+        }
+
+        System.arraycopy(result, 0, perm, 0, perm.length);
+        square = base;
+        product = result;
+    }
+
+
+    /**
+     * Adds two turn counts, stopping at Long.MAX_VALUE
+     * 
+     * @param a
+     *            The first count
+     * @param b
+     *            The second count
+     * @return The sum, or Long.MAX_VALUE if it does not fit
+     */
+    private static long saturatedAdd(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+
+
+    /**
+     * Multiplies two turn counts, stopping at Long.MAX_VALUE
+     * 
+     * @param a
+     *            The first count
+     * @param b
+     *            The second count
+     * @return The product, or Long.MAX_VALUE if it does not fit
+     */
+    private static long saturatedMultiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+
+    /**
+     * Repeats the moves of a group that has just been closed
+     * 
+     * @param start
+     *            The index of the group's first move
+     * @param count
+     *            The number of times the group is played, which may be 0
+     * @return False if repeating the group would exceed the most turns
+     *         allowed
+     */
+    private boolean repeat(int start, long count) {
+        int groupLength = moveCount - start;
+        if (groupLength != 0 && count > (moveLimit - start) / groupLength) {
+            return false;
+        }
+        int total = start + groupLength * (int)count;
+
+        ensureCapacity(total);
+
+        // Doubling the copied moves with every copy
+        int copied = groupLength;
+        int target = total - start;
+        while (copied < target) {
+            int chunk = Math.min(copied, target - copied);
+            System.arraycopy(moves, start, moves, start + copied, chunk);
+            copied += chunk;
+        }
+        moveCount = total;
+        return true;
+    }
+
+
+    /**
+     * Grows the move buffer if needed
+     * 
+     * @param capacity
+     *            The number of moves the buffer must hold
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > moves.length) {
+            moves = Arrays.copyOf(moves, (int)Math.min(MAX_MOVES, Math.max(
+                capacity, moves.length * 2L)));
+        }
+    }
+
+
+    /**
+     * Records the reason reading failed
+     * 
+     * @param message
+     *            The reason reading failed
+     * @param position
+     *            The position in the text where it failed
+     * @return Always false
+     */
+    private boolean fail(String message, int position) {
+        moveCount = 0;
+        turnCounts[0] = 0;
+        error = message;
+        errorPosition = position;
+        return false;
+    }
+
+
+    /**
+     * Gets the number of turns read by the last call to tokenize()
+     * 
+     * @return The number of turns
+     */
+    public int length() {
+        return moveCount;
+    }
+
+
+    /**
+     * Gets the move index of one of the turns read by the last call to
+     * tokenize()
+     * 
+     * @param i
+     *            The position of the turn
+     * @return The move index of the turn (see Constants.MOVE_R and
+     *         Constants.MOVE_RW)
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+
+    /**
+     * Gets the buffer holding the move indices read by the last call to
+     * tokenize(), which is only valid up to length() and is overwritten by
+     * the next call
+     * 
+     * @return The move buffer, which must not be modified
+     */
+    public byte[] getMoves() {
+        return moves;
+    }
+
+
+    /**
+     * Copies the move indices read by the last call to tokenize()
+     * 
+     * @return A new array holding the move index of every turn
+     */
+    public int[] toArray() {
+        int[] result = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            result[i] = moves[i];
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the number of turns read by the last call to compile(), counting
+     * every repetition of a group
+     * 
+     * @return The number of turns, or Long.MAX_VALUE if there are more
+     */
+    public long getTurnCount() {
+        return turnCounts[0];
+    }
+
+
+    /**
+     * Gets the permutation read by the last call to compile(), where the
+     * sticker at index i receives the color previously found at index
+     * permutation[i]
+     * 
+     * @return The permutation, which is overwritten by the next call and must
+     *         not be modified
+     */
+    int[] getPermutation() {
+        return permutations[0];
+    }
+
+
+    /**
+     * Gets the order of the permutation read by the last call to compile(),
+     * the number of times its turns must be played before the cube returns to
+     * the state it started in (see Algorithm.order())
+     * 
+     * @return The order of the permutation
+     */
+    public long getOrder() {
+        return CubeBuffer.order(permutations[0]);
+    }
+
+
+    /**
+     * Applies every turn read by the last call to compile() to a cube buffer
+     * at once
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being turned
+     */
+    public void applyTo(CubeBuffer cubeBuffer) {
+        cubeBuffer.applyPermutation(permutations[0]);
+    }
+
+
+    /**
+     * Gets the reason the last call to tokenize() or compile() failed
+     * 
+     * @return A short description of the problem, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+
+    /**
+     * Gets the position where the last call to tokenize() or compile()
+     * failed
+     * 
+     * @return The index of the offending character in the text, or -1 if it
+     *         succeeded
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+}
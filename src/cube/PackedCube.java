@@ -0,0 +1,413 @@
+package cube;
+
+/**
+ * An immutable cube state packed into three longs, three bits for the color
+ * value of every sticker, so it can be used as a key in hash-based searches
+ * without copying color arrays. Every CubeBuffer converts to a PackedCube and
+ * back without losing anything, including states where slices or rotations
+ * have moved the centers.
+ * 
+ * A turn only moves about 20 stickers, so apply() copies every other sticker
+ * with one mask per word, and moves the rest in groups that share a source
+ * word, a target word, and a shift, using tables built once for every turn.
+ * It allocates nothing but the result.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public final class PackedCube implements Comparable<PackedCube> {
+
+    /**
+     * The number of longs holding the stickers
+     */
+    public static final int WORD_COUNT = 3;
+    /**
+     * The number of bits used for each sticker's color value
+     */
+    static final int BITS = 3;
+    /**
+     * The number of stickers packed into each long
+     */
+    static final int FACELETS_PER_WORD = 64 / BITS;
+    /**
+     * Mask covering one sticker's color value
+     */
+    static final long MASK = (1L << BITS) - 1;
+
+    /**
+     * For every turn, indexed by move index, the bits of each word holding
+     * stickers that the turn leaves in place
+     */
+    private static final long[][] KEEP_MASKS;
+    /**
+     * For every turn, the moved stickers grouped by the word they come from,
+     * the word they move to, and the distance they move within the word, so
+     * that each group moves with one mask and one shift: the source word of
+     * each group, its target word, the mask selecting its stickers in the
+     * source word, and its shift, which is to the left when positive
+     */
+    private static final byte[][] GROUP_SOURCES, GROUP_TARGETS;
+    private static final long[][] GROUP_MASKS;
+    private static final byte[][] GROUP_SHIFTS;
+
+    static {
+        int moveCount = CubeBuffer.EXTENDED_MOVE_COUNT;
+        KEEP_MASKS = new long[moveCount][WORD_COUNT];
+        GROUP_SOURCES = new byte[moveCount][];
+        GROUP_TARGETS = new byte[moveCount][];
+        GROUP_MASKS = new long[moveCount][];
+        GROUP_SHIFTS = new byte[moveCount][];
+
+        for (int m = 0; m < moveCount; m++) {
+            int[] perm = CubeBuffer.getMovePermutation(m);
+            int[] keys = new int[CubeBuffer.FACELET_COUNT];
+            long[] masks = new long[CubeBuffer.FACELET_COUNT];
+            int groupCount = 0;
+
+            for (int i = 0; i < CubeBuffer.FACELET_COUNT; i++) {
+                if (perm[i] == i) {
+                    KEEP_MASKS[m][i / FACELETS_PER_WORD] |= MASK << shift(i);
+                    continue;
+                }
+
+                // Finding or starting the group this sticker moves with
+                int source = perm[i] / FACELETS_PER_WORD;
+                int target = i / FACELETS_PER_WORD;
+                int key = (source * WORD_COUNT + target) * 128 + shift(i)
+                    - shift(perm[i]) + 64;
+                int g = 0;
+                while (g < groupCount && keys[g] != key) {
+                    g++;
+                }
+                if (g == groupCount) {
+                    keys[groupCount++] = key;
+                }
+                masks[g] |= MASK << shift(perm[i]);
+            }
+
+            GROUP_SOURCES[m] = new byte[groupCount];
+            GROUP_TARGETS[m] = new byte[groupCount];
+            GROUP_MASKS[m] = new long[groupCount];
+            GROUP_SHIFTS[m] = new byte[groupCount];
+            for (int g = 0; g < groupCount; g++) {
+                GROUP_SOURCES[m][g] = (byte)(keys[g] / 128 / WORD_COUNT);
+                GROUP_TARGETS[m][g] = (byte)(keys[g] / 128 % WORD_COUNT);
+                GROUP_MASKS[m][g] = masks[g];
+                GROUP_SHIFTS[m][g] = (byte)(keys[g] % 128 - 64);
+            }
+        }
+    }
+
+    /**
+     * The solved state, where every sticker has the color value of its face
+     */
+    public static final PackedCube SOLVED = new PackedCube(new CubeBuffer());
+
+    /**
+     * The packed color values of stickers 0-20, 21-41, and 42-53
+     */
+    private final long word0, word1, word2;
+
+
+    /**
+     * Creates a new PackedCube object from its packed words
+     * 
+     * @param word0
+     *            The first word, as returned by getWord(0)
+     * @param word1
+     *            The second word, as returned by getWord(1)
+     * @param word2
+     *            The third word, as returned by getWord(2)
+     * @throws IllegalArgumentException
+     *             If a sticker's color value is not below 6, or a bit past
+     *             the last sticker of a word is set
+     */
+    public PackedCube(long word0, long word1, long word2) {
+        this(word0, word1, word2, true);
+    }
+
+
+    /**
+     * Creates a new PackedCube object from its packed words, which are only
+     * checked when they come from outside of this class
+     * 
+     * @param word0
+     *            The first word
+     * @param word1
+     *            The second word
+     * @param word2
+     *            The third word
+     * @param check
+     *            Whether the words are checked
+     */
+    private PackedCube(long word0, long word1, long word2, boolean check) {
+        if (check) {
+            checkWord(word0, 0);
+            checkWord(word1, 1);
+            checkWord(word2, 2);
+        }
+        this.word0 = word0;
+        this.word1 = word1;
+        this.word2 = word2;
+    }
+
+
+    /**
+     * Creates a new PackedCube object from the current state of a cube buffer
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being packed
+     */
+    public PackedCube(CubeBuffer cubeBuffer) {
+        this(pack(cubeBuffer, 0), pack(cubeBuffer, 1), pack(cubeBuffer, 2),
+            false);
+    }
+
+
+    /**
+     * Checks that a word holds a valid color value for every one of its
+     * stickers and nothing else
+     * 
+     * @param word
+     *            The packed word
+     * @param w
+     *            The index of the word
+     * @throws IllegalArgumentException
+     *             If the word is not one a cube buffer could pack into
+     */
+    private static void checkWord(long word, int w) {
+        int first = w * FACELETS_PER_WORD;
+        int end = Math.min(first + FACELETS_PER_WORD,
+            CubeBuffer.FACELET_COUNT);
+
+        long unused = -1L << (end - first) * BITS;
+        if ((word & unused) != 0) {
+            throw new IllegalArgumentException("Word " + w
+                + " has bits set past its last sticker");
+        }
+        for (int i = first; i < end; i++) {
+            if ((word >>> shift(i) & MASK) >= CubeBuffer.FACE_NAMES.length()) {
+                throw new IllegalArgumentException("Sticker " + i
+                    + " has no valid color value");
+            }
+        }
+    }
+
+
+    /**
+     * Packs the color values of one word's stickers
+     * 
+     * @param cubeBuffer
+     *            The cube buffer being packed
+     * @param w
+     *            The index of the word
+     * @return The packed color values
+     */
+    private static long pack(CubeBuffer cubeBuffer, int w) {
+        int first = w * FACELETS_PER_WORD;
+        int end = Math.min(first + FACELETS_PER_WORD,
+            CubeBuffer.FACELET_COUNT);
+
+        long word = 0;
+        for (int i = first; i < end; i++) {
+            word |= (long)cubeBuffer.getFacelet(i) << shift(i);
+        }
+        return word;
+    }
+
+
+    /**
+     * Gets the position of a sticker's bits within its word
+     * 
+     * @param index
+     *            The flat index of the sticker
+     * @return The number of bits below the sticker's color value
+     */
+    private static int shift(int index) {
+        return index % FACELETS_PER_WORD * BITS;
+    }
+
+
+    /**
+     * Gets one of the packed words
+     * 
+     * @param w
+     *            The index of the word, 0 to WORD_COUNT - 1
+     * @return The packed color values of the word's stickers
+     */
+    public long getWord(int w) {
+        return w == 0 ? word0 : w == 1 ? word1 : word2;
+    }
+
+
+    /**
+     * Gets the color value of one sticker
+     * 
+     * @param index
+     *            The flat index of the sticker (face * 9 + sticker)
+     * @return Integer value mapped to the sticker's color
+     */
+    public int getFacelet(int index) {
+        return (int)(getWord(index / FACELETS_PER_WORD) >>> shift(index)
+            & MASK);
+    }
+
+
+    /**
+     * Gets the state reached by applying a turn to this one
+     * 
+     * @param moveIndex
+     *            The index of the turn being applied (see Constants.MOVE_R
+     *            and Constants.MOVE_RW)
+     * @return The turned state
+     */
+    public PackedCube apply(int moveIndex) {
+        long[] keep = KEEP_MASKS[moveIndex];
+        long next0 = word0 & keep[0];
+        long next1 = word1 & keep[1];
+        long next2 = word2 & keep[2];
+
+        byte[] sources = GROUP_SOURCES[moveIndex];
+        byte[] targets = GROUP_TARGETS[moveIndex];
+        long[] masks = GROUP_MASKS[moveIndex];
+        byte[] shifts = GROUP_SHIFTS[moveIndex];
+        for (int g = 0; g < sources.length; g++) {
+            long bits = getWord(sources[g]) & masks[g];
+            bits = shifts[g] >= 0 ? bits << shifts[g] : bits >>> -shifts[g];
+            if (targets[g] == 0) {
+                next0 |= bits;
+            }
+            else if (targets[g] == 1) {
+                next1 |= bits;
+            }
+            else {
+                next2 |= bits;
+            }
+        }
+
+        return new PackedCube(next0, next1, next2, false);
+    }
+
+
+    /**
+     * Writes this state to the stickers of a cube buffer
+     * 
+     * @param cubeBuffer
+     *            The cube buffer whose stickers are overwritten
+     */
+    public void toCubeBuffer(CubeBuffer cubeBuffer) {
+        for (int i = 0; i < CubeBuffer.FACELET_COUNT; i++) {
+            cubeBuffer.setFacelet(i, getFacelet(i));
+        }
+    }
+
+
+    /**
+     * Creates a cube buffer holding this state
+     * 
+     * @return A new cube buffer with the same stickers
+     */
+    public CubeBuffer toCubeBuffer() {
+        CubeBuffer cubeBuffer = new CubeBuffer();
+        toCubeBuffer(cubeBuffer);
+        return cubeBuffer;
+    }
+
+
+    /**
+     * Mixes the packed words into a well-distributed 64-bit hash, suitable
+     * for indexing open-addressing tables
+     * 
+     * @return The 64-bit hash of this state
+     */
+    public long hash64() {
+        return hash64(word0, word1, word2);
+    }
+
+
+    /**
+     * Mixes three packed words into a well-distributed 64-bit hash
+     * 
+     * @param word0
+     *            The first word
+     * @param word1
+     *            The second word
+     * @param word2
+     *            The third word
+     * @return The same hash as hash64() of the state with these words
+     */
+    public static long hash64(long word0, long word1, long word2) {
+        long h = word0 * 0x9E3779B97F4A7C15L;
+        h = (h ^ word1) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ word2) * 0x165667B19E3779F9L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ h >>> 32;
+    }
+
+
+    /**
+     * Checks whether another object is a PackedCube in the same state
+     * 
+     * @param obj
+     *            The object being compared with this state
+     * @return True if every sticker has the same color value
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PackedCube)) {
+            return false;
+        }
+
+        PackedCube other = (PackedCube)obj;
+        return word0 == other.word0 && word1 == other.word1
+            && word2 == other.word2;
+    }
+
+
+    /**
+     * Computes a hash code from the packed words
+     * 
+     * @return A hash code consistent with equals()
+     */
+    @Override
+    public int hashCode() {
+        return (int)hash64();
+    }
+
+
+    /**
+     * Orders states by their packed words, starting with the first word
+     * 
+     * @param other
+     *            The state being compared with this one
+     * @return A negative number, zero, or a positive number if this state
+     *         comes before, equals, or comes after the other state
+     */
+    @Override
+    public int compareTo(PackedCube other) {
+        if (word0 != other.word0) {
+            return Long.compare(word0, other.word0);
+        }
+        if (word1 != other.word1) {
+            return Long.compare(word1, other.word1);
+        }
+        return Long.compare(word2, other.word2);
+    }
+
+
+    /**
+     * Gets the facelet string of this state (see CubeBuffer.FACE_NAMES)
+     * 
+     * @return One face letter for every sticker in flat index order
+     */
+    @Override
+    public String toString() {
+        char[] letters = new char[CubeBuffer.FACELET_COUNT];
+        for (int i = 0; i < CubeBuffer.FACELET_COUNT; i++) {
+            letters[i] = CubeBuffer.FACE_NAMES.charAt(getFacelet(i));
+        }
+        return new String(letters);
+    }
+
+}
@@ -0,0 +1,149 @@
+package cube;
+
+/**
+ * A map from cube states to long values, such as the depth at which a search
+ * first reached each state, that keeps nothing but the three packed words of
+ * each state and its value. With the default load factor, each entry takes
+ * between 43 and 86 bytes, and the entries can be kept outside of the Java
+ * heap (see PackedCubeTable).
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class PackedCubeMap extends PackedCubeTable {
+
+    /**
+     * The position of the value in each record, after the key
+     */
+    private static final int VALUE = PackedCube.WORD_COUNT;
+
+
+    /**
+     * Creates a new, empty PackedCubeMap object on the Java heap
+     */
+    public PackedCubeMap() {
+        this(0, DEFAULT_LOAD_FACTOR, false);
+    }
+
+
+    /**
+     * Creates a new, empty PackedCubeMap object
+     * 
+     * @param expectedSize
+     *            The number of entries the map can hold before it first grows
+     * @param loadFactor
+     *            The fraction of slots that may be filled before the map
+     *            grows, above 0 and below 1
+     * @param offHeap
+     *            Whether the entries are kept in direct buffers outside of
+     *            the Java heap
+     */
+    public PackedCubeMap(long expectedSize, float loadFactor, boolean offHeap) {
+        super(VALUE + 1, expectedSize, loadFactor, offHeap);
+    }
+
+
+    /**
+     * Gets the value mapped to a state
+     * 
+     * @param state
+     *            The state being looked up
+     * @param defaultValue
+     *            The value returned if the state is not in the map
+     * @return The state's value, or defaultValue
+     */
+    public long get(PackedCube state, long defaultValue) {
+        return get(state.getWord(0), state.getWord(1), state.getWord(2),
+            defaultValue);
+    }
+
+
+    /**
+     * Gets the value mapped to a state by its packed words
+     * 
+     * @param word0
+     *            The first word of the state (see PackedCube.getWord())
+     * @param word1
+     *            The second word of the state
+     * @param word2
+     *            The third word of the state
+     * @param defaultValue
+     *            The value returned if the state is not in the map
+     * @return The state's value, or defaultValue
+     */
+    public long get(long word0, long word1, long word2, long defaultValue) {
+        long slot = find(word0, word1, word2);
+        return slot < 0 ? defaultValue : getRecord(slot, VALUE);
+    }
+
+
+    /**
+     * Checks whether a state is in the map
+     * 
+     * @param state
+     *            The state being looked up
+     * @return True if a value has been mapped to the state
+     */
+    public boolean containsKey(PackedCube state) {
+        return find(state.getWord(0), state.getWord(1), state
+            .getWord(2)) >= 0;
+    }
+
+
+    /**
+     * Maps a value to a state, replacing any value it had
+     * 
+     * @param state
+     *            The state being mapped
+     * @param value
+     *            The state's new value
+     * @return True if the state was not in the map yet
+     */
+    public boolean put(PackedCube state, long value) {
+        return put(state.getWord(0), state.getWord(1), state.getWord(2),
+            value);
+    }
+
+
+    /**
+     * Maps a value to a state by its packed words, replacing any value it had
+     * 
+     * @param word0
+     *            The first word of the state (see PackedCube.getWord())
+     * @param word1
+     *            The second word of the state
+     * @param word2
+     *            The third word of the state
+     * @param value
+     *            The state's new value
+     * @return True if the state was not in the map yet
+     */
+    public boolean put(long word0, long word1, long word2, long value) {
+        long slot = insert(word0, word1, word2);
+        boolean added = slot < 0;
+        setRecord(added ? -slot - 1 : slot, VALUE, value);
+        return added;
+    }
+
+
+    /**
+     * Maps a value to a state only if the state is not in the map yet, such
+     * as when recording the depth at which a state was first reached
+     * 
+     * @param state
+     *            The state being mapped
+     * @param value
+     *            The state's value if it is new
+     * @return True if the state was not in the map yet
+     */
+    public boolean putIfAbsent(PackedCube state, long value) {
+        long slot = insert(state.getWord(0), state.getWord(1), state
+            .getWord(2));
+        if (slot >= 0) {
+            return false;
+        }
+        setRecord(-slot - 1, VALUE, value);
+        return true;
+    }
+
+}
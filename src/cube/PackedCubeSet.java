@@ -0,0 +1,95 @@
+package cube;
+
+/**
+ * A set of cube states that keeps nothing but the three packed words of each
+ * state, for finding which states have been reached in a search without
+ * holding an object per state. With the default load factor, each state
+ * takes between 32 and 64 bytes, and the states can be kept outside of the
+ * Java heap (see PackedCubeTable).
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class PackedCubeSet extends PackedCubeTable {
+
+    /**
+     * Creates a new, empty PackedCubeSet object on the Java heap
+     */
+    public PackedCubeSet() {
+        this(0, DEFAULT_LOAD_FACTOR, false);
+    }
+
+
+    /**
+     * Creates a new, empty PackedCubeSet object
+     * 
+     * @param expectedSize
+     *            The number of states the set can hold before it first grows
+     * @param loadFactor
+     *            The fraction of slots that may be filled before the set
+     *            grows, above 0 and below 1
+     * @param offHeap
+     *            Whether the states are kept in direct buffers outside of the
+     *            Java heap
+     */
+    public PackedCubeSet(long expectedSize, float loadFactor, boolean offHeap) {
+        super(PackedCube.WORD_COUNT, expectedSize, loadFactor, offHeap);
+    }
+
+
+    /**
+     * Adds a state to the set
+     * 
+     * @param state
+     *            The state being added
+     * @return True if the state was not in the set yet
+     */
+    public boolean add(PackedCube state) {
+        return add(state.getWord(0), state.getWord(1), state.getWord(2));
+    }
+
+
+    /**
+     * Adds a state to the set by its packed words
+     * 
+     * @param word0
+     *            The first word of the state (see PackedCube.getWord())
+     * @param word1
+     *            The second word of the state
+     * @param word2
+     *            The third word of the state
+     * @return True if the state was not in the set yet
+     */
+    public boolean add(long word0, long word1, long word2) {
+        return insert(word0, word1, word2) < 0;
+    }
+
+
+    /**
+     * Checks whether a state is in the set
+     * 
+     * @param state
+     *            The state being looked up
+     * @return True if the state has been added
+     */
+    public boolean contains(PackedCube state) {
+        return contains(state.getWord(0), state.getWord(1), state.getWord(2));
+    }
+
+
+    /**
+     * Checks whether a state is in the set by its packed words
+     * 
+     * @param word0
+     *            The first word of the state (see PackedCube.getWord())
+     * @param word1
+     *            The second word of the state
+     * @param word2
+     *            The third word of the state
+     * @return True if the state has been added
+     */
+    public boolean contains(long word0, long word1, long word2) {
+        return find(word0, word1, word2) >= 0;
+    }
+
+}
@@ -0,0 +1,373 @@
+package cube;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * An open-addressing hash table of packed cube states, which is the shared
+ * part of PackedCubeSet and PackedCubeMap. Every slot is a record of longs
+ * holding the three words of a key followed by whatever the subclass stores
+ * with it, so a probe reads one record instead of several arrays and no
+ * object is kept for any entry. Collisions are resolved by linear probing,
+ * and the table doubles once it is filled past its load factor.
+ * 
+ * The records are kept in chunks of at most 2^24 slots, either in long
+ * arrays on the Java heap or in direct buffers outside of it, where even
+ * hundreds of millions of states add no garbage collection work. Since the
+ * first word of a packed state never uses its top bit, that bit marks the
+ * occupied slots, and storage that is filled with zeros is an empty table.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+abstract class PackedCubeTable {
+
+    /**
+     * The load factor used unless another is given
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * The number of bits of a slot index that select the slot within its
+     * chunk
+     */
+    private static final int CHUNK_BITS = 24;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    /**
+     * The smallest and largest number of slots
+     */
+    private static final long MIN_CAPACITY = 16;
+    private static final long MAX_CAPACITY = 1L << 40;
+    /**
+     * Bit set in the stored first word of every occupied slot
+     */
+    private static final long OCCUPIED = Long.MIN_VALUE;
+
+    /**
+     * The number of longs in every slot
+     */
+    private final int stride;
+    /**
+     * The fraction of slots that may be filled before the table doubles
+     */
+    private final float loadFactor;
+    /**
+     * Whether the records are kept outside of the Java heap
+     */
+    private final boolean offHeap;
+
+    /**
+     * The records of every slot, split into chunks of equal size
+     */
+    private LongBuffer[] chunks;
+    /**
+     * The number of slots, which is always a power of two
+     */
+    private long capacity;
+    /**
+     * The number of occupied slots, and the number at which the table
+     * doubles
+     */
+    private long size;
+    private long growthThreshold;
+
+
+    /**
+     * Creates a new, empty PackedCubeTable object
+     * 
+     * @param stride
+     *            The number of longs in every slot, starting with the three
+     *            words of the key
+     * @param expectedSize
+     *            The number of entries the table can hold before it first
+     *            doubles
+     * @param loadFactor
+     *            The fraction of slots that may be filled before the table
+     *            doubles, above 0 and below 1
+     * @param offHeap
+     *            Whether the records are kept in direct buffers outside of
+     *            the Java heap
+     */
+    PackedCubeTable(
+        int stride,
+        long expectedSize,
+        float loadFactor,
+        boolean offHeap) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0"
+                + " and 1");
+        }
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size is negative");
+        }
+        this.stride = stride;
+        this.loadFactor = loadFactor;
+        this.offHeap = offHeap;
+        allocate(capacityFor(expectedSize));
+    }
+
+
+    /**
+     * Finds the number of slots needed to hold a number of entries
+     * 
+     * @param count
+     *            The number of entries
+     * @return The smallest power of two that holds them under the load
+     *         factor
+     */
+    private long capacityFor(long count) {
+        long newCapacity = MIN_CAPACITY;
+        while ((long)(newCapacity * (double)loadFactor) < count) {
+            if (newCapacity == MAX_CAPACITY) {
+                throw new IllegalStateException("Table cannot hold " + count
+                    + " entries");
+            }
+            newCapacity <<= 1;
+        }
+        return newCapacity;
+    }
+
+
+    /**
+     * Replaces the records with empty storage
+     * 
+     * @param newCapacity
+     *            The number of slots, a power of two
+     */
+    private void allocate(long newCapacity) {
+        int chunkSlots = (int)Math.min(newCapacity, 1L << CHUNK_BITS);
+        chunks = new LongBuffer[(int)(newCapacity / chunkSlots)];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = offHeap ? ByteBuffer.allocateDirect(chunkSlots * stride
+                * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer()
+                : LongBuffer.allocate(chunkSlots * stride);
+        }
+        capacity = newCapacity;
+        growthThreshold = (long)(newCapacity * (double)loadFactor);
+    }
+
+
+    /**
+     * Gets the chunk holding a slot
+     * 
+     * @param slot
+     *            The index of the slot
+     * @return The chunk's records
+     */
+    private LongBuffer chunk(long slot) {
+        return chunks[(int)(slot >>> CHUNK_BITS)];
+    }
+
+
+    /**
+     * Gets the position of a slot's record within its chunk
+     * 
+     * @param slot
+     *            The index of the slot
+     * @return The index of the record's first long
+     */
+    private int offset(long slot) {
+        return (int)(slot & CHUNK_MASK) * stride;
+    }
+
+
+    /**
+     * Finds the slot holding a key, or the empty slot where probing for it
+     * stops
+     * 
+     * @param word0
+     *            The first word of the key
+     * @param word1
+     *            The second word of the key
+     * @param word2
+     *            The third word of the key
+     * @return The index of the slot
+     */
+    private long probe(long word0, long word1, long word2) {
+        if (word0 < 0) {
+            throw new IllegalArgumentException("Not a packed cube state");
+        }
+
+        long mask = capacity - 1;
+        long stored = word0 | OCCUPIED;
+        long slot = PackedCube.hash64(word0, word1, word2) & mask;
+        while (true) {
+            LongBuffer chunk = chunk(slot);
+            int offset = offset(slot);
+            long first = chunk.get(offset);
+            if (first == 0 || first == stored && chunk.get(offset + 1) == word1
+                && chunk.get(offset + 2) == word2) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+        }
+    }
+
+
+    /**
+     * Finds the slot holding a key
+     * 
+     * @param word0
+     *            The first word of the key
+     * @param word1
+     *            The second word of the key
+     * @param word2
+     *            The third word of the key
+     * @return The index of the slot, or -1 if the key is not in the table
+     */
+    final long find(long word0, long word1, long word2) {
+        long slot = probe(word0, word1, word2);
+        return chunk(slot).get(offset(slot)) == 0 ? -1 : slot;
+    }
+
+
+    /**
+     * Finds the slot holding a key, adding the key if it is not in the table
+     * yet; the rest of a new key's record is filled with zeros
+     * 
+     * @param word0
+     *            The first word of the key
+     * @param word1
+     *            The second word of the key
+     * @param word2
+     *            The third word of the key
+     * @return The index of the slot if the key was already in the table, or
+     *         (-slot - 1) if it was added
+     */
+    final long insert(long word0, long word1, long word2) {
+        long slot = probe(word0, word1, word2);
+        if (chunk(slot).get(offset(slot)) != 0) {
+            return slot;
+        }
+
+        if (size >= growthThreshold) {
+            grow();
+            slot = probe(word0, word1, word2);
+        }
+        LongBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        chunk.put(offset, word0 | OCCUPIED);
+        chunk.put(offset + 1, word1);
+        chunk.put(offset + 2, word2);
+        size++;
+        return -slot - 1;
+    }
+
+
+    /**
+     * Doubles the number of slots, moving every record to its slot in the
+     * new storage
+     */
+    private void grow() {
+        LongBuffer[] oldChunks = chunks;
+        long oldCapacity = capacity;
+        if (oldCapacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Table cannot hold more than "
+                + size + " entries");
+        }
+        allocate(oldCapacity << 1);
+
+        for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+            LongBuffer oldChunk = oldChunks[(int)(oldSlot >>> CHUNK_BITS)];
+            int oldOffset = offset(oldSlot);
+            long first = oldChunk.get(oldOffset);
+            if (first == 0) {
+                continue;
+            }
+
+            long slot = probe(first & ~OCCUPIED, oldChunk.get(oldOffset + 1),
+                oldChunk.get(oldOffset + 2));
+            LongBuffer chunk = chunk(slot);
+            int offset = offset(slot);
+            for (int k = 0; k < stride; k++) {
+                chunk.put(offset + k, oldChunk.get(oldOffset + k));
+            }
+        }
+    }
+
+
+    /**
+     * Gets one of the longs stored with a key
+     * 
+     * @param slot
+     *            The index of the key's slot
+     * @param k
+     *            The position of the long within the record, after the
+     *            three words of the key
+     * @return The stored value
+     */
+    final long getRecord(long slot, int k) {
+        return chunk(slot).get(offset(slot) + k);
+    }
+
+
+    /**
+     * Sets one of the longs stored with a key
+     * 
+     * @param slot
+     *            The index of the key's slot
+     * @param k
+     *            The position of the long within the record, after the
+     *            three words of the key
+     * @param value
+     *            The value being stored
+     */
+    final void setRecord(long slot, int k, long value) {
+        chunk(slot).put(offset(slot) + k, value);
+    }
+
+
+    /**
+     * Removes every entry, keeping the current storage
+     */
+    public void clear() {
+        for (LongBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i++) {
+                chunk.put(i, 0);
+            }
+        }
+        size = 0;
+    }
+
+
+    /**
+     * Gets the number of entries in the table
+     * 
+     * @return The number of keys
+     */
+    public long size() {
+        return size;
+    }
+
+
+    /**
+     * Gets the number of slots in the table
+     * 
+     * @return The number of slots, a power of two
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Checks whether the records are kept outside of the Java heap
+     * 
+     * @return True if the records are in direct buffers
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+
+    /**
+     * Gets the number of bytes taken by the records of every slot
+     * 
+     * @return The size of the table's storage in bytes
+     */
+    public long memoryBytes() {
+        return capacity * stride * Long.BYTES;
+    }
+
+}
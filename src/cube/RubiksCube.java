@@ -1,10 +1,13 @@
 package cube;
 
+import java.awt.Color;
 import colors.ColorScheme;
 import utilities.Constants;
 
 /**
- * Contains all data necessary for updating and rendering the Rubik's cube
+ * Contains all data necessary for updating and rendering the Rubik's cube. A
+ * headless RubiksCube keeps only its cube buffer and color scheme and never
+ * creates models, so it can be used without a display or OpenGL context.
  * 
  * @author Chris Hurt
  * @version 1.1
@@ -21,7 +24,8 @@ public class RubiksCube {
     private static final float TILE_SIZE = (1 - 4.0f * BLANK_SPACE) / 3.0f;
 
     /**
-     * The model used to render the plastic of the cube
+     * The model used to render the plastic and stickers of the cube, or null
+     * if the cube is headless
      */
     private Cube cube;
     /**
@@ -29,15 +33,16 @@ public class RubiksCube {
      * stickers
      */
     private CubeBuffer cubeBuffer;
-    /**
-     * The models used to represent all of the cube' stickers
-     */
-    private Quad[][] tiles;
     /**
      * Stores information about the color of the cube's plastic and color of
      * each face's stickers
      */
     private ColorScheme colorScheme;
+    /**
+     * The sticker color of every color value found in the cube buffer, built
+     * from the color scheme
+     */
+    private Color[] stickerColors;
 
 
     /**
@@ -80,54 +85,41 @@ public class RubiksCube {
         float transY,
         float transZ) {
         this.cubeBuffer = new CubeBuffer();
-        this.tiles = new Quad[6][9];
-        this.colorScheme = colorScheme;
 
-        // Creating a new cube model
-        cube = new Cube(colorScheme.getPlasticColor(), scaleX, scaleY, scaleZ,
-            rotX, rotY, rotZ, transX, transY, transZ);
+        // Creating a new cube model containing the plastic and every sticker
+        cube = new Cube(colorScheme.getPlasticColor(), genTiles(), scaleX,
+            scaleY, scaleZ, rotX, rotY, rotZ, transX, transY, transZ);
 
-        genTiles(scaleX, scaleY, scaleZ, // Generates the models for the cube's
-                                         // stickers
-            rotX, rotY, rotZ, transX, transY, transZ);
+        setColorScheme(colorScheme); // Sets the cube's initial plastic color
+                                     // and sticker colors using the cube's
+                                     // initial color scheme
     }
 
 
     /**
-     * Generates the models used to render the cube's stickers
-     * While tiles could reuse the same mesh with different transformation
-     * matrices, giving each sticker its own model and manually setting
-     * transformations was favored for simplicity
+     * Constructs a headless RubiksCube object, which holds the cube's state
+     * without creating any models
      * 
-     * @param scaleX
-     *            Scale of the cube in x-direction
-     * @param scaleY
-     *            Scale of the cube in y-direction
-     * @param scaleZ
-     *            Scale of the cube in z-direction
-     * @param rotX
-     *            Rotation of the cube about the x-axis
-     * @param rotY
-     *            Rotation of the cube about the y-axis
-     * @param rotZ
-     *            Rotation of the cube about the z-axis
-     * @param transX
-     *            Position of the cube in the x-direction
-     * @param transY
-     *            Position of the cube in the y-direction
-     * @param transZ
-     *            Position of the cube in the z-direction
+     * @param colorScheme
+     *            Contains information about plastic and sticker colors
      */
-    private void genTiles(
-        float scaleX,
-        float scaleY,
-        float scaleZ,
-        float rotX,
-        float rotY,
-        float rotZ,
-        float transX,
-        float transY,
-        float transZ) {
+    public RubiksCube(ColorScheme colorScheme) {
+        this.cubeBuffer = new CubeBuffer();
+        setColorScheme(colorScheme);
+    }
+
+
+    /**
+     * Generates the vertex positions of the cube's stickers, which are joined
+     * with the plastic into a single mesh so the whole cube is drawn at once
+     * 
+     * @return The positions of every sticker's four vertices, three values
+     *         each, in flat sticker index order (face * 9 + sticker)
+     */
+    private static float[] genTiles() {
+        float[] tiles = new float[CubeBuffer.FACELET_COUNT
+            * Cube.STICKER_VERTICES * 3];
+
         // Front face stickers
         float depth = -0.501f;
         for (int r = 0; r < 3; r++) {
@@ -141,9 +133,7 @@ public class RubiksCube {
                     botLeftX + TILE_SIZE, botLeftY, depth                   // V3
                 };
 
-                tiles[0][r * 3 + c] = new Quad(colorScheme.getfCol(), vertices,
-                    cube.getMatrixList(), scaleX, scaleY, scaleZ, rotX, rotY,
-                    rotZ, transX, transY, transZ);
+                putTile(tiles, 0, r * 3 + c, vertices);
             }
         }
 
@@ -160,9 +150,7 @@ public class RubiksCube {
                     botLeftX + TILE_SIZE, depth, botLeftZ                   // V3
                 };
 
-                tiles[1][r * 3 + c] = new Quad(colorScheme.gettCol(), vertices,
-                    cube.getMatrixList(), scaleX, scaleY, scaleZ, rotX, rotY,
-                    rotZ, transX, transY, transZ);
+                putTile(tiles, 1, r * 3 + c, vertices);
             }
         }
 
@@ -179,9 +167,7 @@ public class RubiksCube {
                     depth, botLeftY, botLeftZ + TILE_SIZE                   // V3
                 };
 
-                tiles[2][r * 3 + c] = new Quad(colorScheme.getrCol(), vertices,
-                    cube.getMatrixList(), scaleX, scaleY, scaleZ, rotX, rotY,
-                    rotZ, transX, transY, transZ);
+                putTile(tiles, 2, r * 3 + c, vertices);
             }
         }
 
@@ -198,9 +184,7 @@ public class RubiksCube {
                     topLeftX + TILE_SIZE, depth, topLeftZ + TILE_SIZE       // V3
                 };
 
-                tiles[3][(2 - r) * 3 + c] = new Quad(colorScheme.getdCol(),
-                    vertices, cube.getMatrixList(), scaleX, scaleY, scaleZ,
-                    rotX, rotY, rotZ, transX, transY, transZ);
+                putTile(tiles, 3, (2 - r) * 3 + c, vertices);
             }
         }
 
@@ -218,9 +202,7 @@ public class RubiksCube {
                     depth, botLeftY, botLeftZ - TILE_SIZE                   // V3
                 };
 
-                tiles[4][r * 3 + c] = new Quad(colorScheme.getlCol(), vertices,
-                    cube.getMatrixList(), scaleX, scaleY, scaleZ, rotX, rotY,
-                    rotZ, transX, transY, transZ);
+                putTile(tiles, 4, r * 3 + c, vertices);
             }
         }
 
@@ -238,60 +220,112 @@ public class RubiksCube {
                     botLeftX - TILE_SIZE, botLeftY, depth                   // V3
                 };
 
-                tiles[5][r * 3 + c] = new Quad(colorScheme.getbCol(), vertices,
-                    cube.getMatrixList(), scaleX, scaleY, scaleZ, rotX, rotY,
-                    rotZ, transX, transY, transZ);
+                putTile(tiles, 5, r * 3 + c, vertices);
             }
         }
 
-        updateTilesAndCube(); // Sets the cube's initial plastic color and
-                              // sticker colors using the cube's initial color
-                              // scheme
+        return tiles;
+    }
+
+
+    /**
+     * Copies one sticker's vertex positions into the array of every sticker's
+     * positions
+     * 
+     * @param tiles
+     *            The positions of every sticker's vertices
+     * @param s
+     *            The face of the sticker
+     * @param c
+     *            The position of the sticker on its face
+     * @param vertices
+     *            The positions of the sticker's four vertices
+     */
+    private static void putTile(
+        float[] tiles,
+        int s,
+        int c,
+        float[] vertices) {
+        System.arraycopy(vertices, 0, tiles, (s * CubeBuffer.FACE_SIZE + c)
+            * vertices.length, vertices.length);
+    }
+
+
+    /**
+     * Builds the table of sticker colors for every color value found in the
+     * cube buffer
+     * 
+     * @param colorScheme
+     *            Contains information about the cube's sticker colors
+     * @return The sticker colors indexed by color value
+     */
+    private static Color[] genColorTable(ColorScheme colorScheme) {
+        Color[] table = new Color[6];
+        table[Constants.COL_W] = colorScheme.getfCol();
+        table[Constants.COL_B] = colorScheme.gettCol();
+        table[Constants.COL_R] = colorScheme.getrCol();
+        table[Constants.COL_G] = colorScheme.getdCol();
+        table[Constants.COL_O] = colorScheme.getlCol();
+        table[Constants.COL_Y] = colorScheme.getbCol();
+        return table;
     }
 
 
     /**
-     * Synchronizes the cube's plastic color and every sticker's model color
-     * with the current color scheme and cube buffer data
+     * Publishes the current state of the cube buffer to the cube model if any
+     * sticker has changed since the last update; the render thread shows the
+     * new state at once after playing every turn published before it
      */
     public void updateTilesAndCube() {
-        // Updating the plastic color
-        cube.getModel().setColor(colorScheme.getPlasticColor());
-
-        // Updating every sticker's model color
-        for (int s = 0; s < tiles.length; s++) {
-            for (int c = 0; c < tiles[0].length; c++) {
-                switch (cubeBuffer.getTileColor(s, c)) {
-                    case (Constants.COL_B):
-                        tiles[s][c].setColor(colorScheme.gettCol());
-                        break;
-                    case (Constants.COL_G):
-                        tiles[s][c].setColor(colorScheme.getdCol());
-                        break;
-                    case (Constants.COL_O):
-                        tiles[s][c].setColor(colorScheme.getlCol());
-                        break;
-                    case (Constants.COL_R):
-                        tiles[s][c].setColor(colorScheme.getrCol());
-                        break;
-                    case (Constants.COL_W):
-                        tiles[s][c].setColor(colorScheme.getfCol());
-                        break;
-                    case (Constants.COL_Y):
-                        tiles[s][c].setColor(colorScheme.getbCol());
-                        break;
-                    default:
-                        System.err.println(
-                            "Incorrect tile color value in cube buffer");
-                        System.exit(-1);
-                }
-            }
+        // There is nothing to update without models
+        if (isHeadless()) {
+            return;
+        }
+
+        if (cubeBuffer.takeChanged()) {
+            publish(TurnAnimator.NO_MOVE);
         }
     }
 
 
     /**
-     * Sets the color scheme of the cube
+     * Applies a turn to the cube buffer and publishes it to be animated by
+     * the render thread; this returns at once, and the turn is played after
+     * every turn published before it
+     * 
+     * @param move
+     *            The index of the turn being applied (see Constants.MOVE_R
+     *            and Constants.MOVE_RW)
+     */
+    public void turn(int move) {
+        // Showing any other changes made since the last update before turning
+        updateTilesAndCube();
+
+        cubeBuffer.apply(move);
+        if (isHeadless()) {
+            return;
+        }
+        cubeBuffer.takeChanged();
+        publish(move);
+    }
+
+
+    /**
+     * Hands an immutable copy of the cube buffer and colors to the cube model
+     * 
+     * @param move
+     *            The move index of the turn leading to the copied state, or
+     *            TurnAnimator.NO_MOVE if the state is shown at once
+     */
+    private void publish(int move) {
+        cube.publish(move, new CubeSnapshot(cubeBuffer, colorScheme
+            .getPlasticColor(), stickerColors));
+    }
+
+
+    /**
+     * Sets the color scheme of the cube, recoloring the plastic and every
+     * sticker
      * 
      * @param colorScheme
      *            Contains information about the cube's plastic and sticker
@@ -299,8 +333,39 @@ public class RubiksCube {
      */
     public void setColorScheme(ColorScheme colorScheme) {
         this.colorScheme = colorScheme;
-        updateTilesAndCube(); // Updates the sticker and plastic colors based on
-                              // the new color scheme colors
+        // Building a new table rather than changing the old one, which may be
+        // shared by snapshots that have not been drawn yet
+        this.stickerColors = genColorTable(colorScheme);
+        if (isHeadless()) {
+            return;
+        }
+
+        cubeBuffer.takeChanged();
+        publish(TurnAnimator.NO_MOVE);
+    }
+
+
+    /**
+     * Sets the duration of every turn played from now on
+     * 
+     * @param millis
+     *            The duration of a turn in milliseconds, or 0 to show turns
+     *            at once
+     */
+    public void setTurnMillis(long millis) {
+        if (!isHeadless()) {
+            cube.setTurnMillis(millis);
+        }
+    }
+
+
+    /**
+     * Checks whether the cube was created without models
+     * 
+     * @return True if the cube is headless
+     */
+    public boolean isHeadless() {
+        return cube == null;
     }
 
 
@@ -0,0 +1,320 @@
+package cube;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays queued turns on the render thread. The console thread applies every
+ * turn to the cube buffer at once and queues the turn along with a snapshot
+ * of the result, so it never waits for playback. Each frame, the render
+ * thread advances the animator by the time that has passed; the turning
+ * layer's angle is eased from 0 to the full turn over the turn duration, and
+ * the turn's snapshot is shown once it finishes.
+ * 
+ * When turns are queued faster than they are played, consecutive turns of the
+ * same layer are played as one, so "R R" becomes "R2" and "R R'" disappears,
+ * and if the queue grows very long the animator jumps straight to the latest
+ * state. A turn duration of 0 shows every state at once.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+class TurnAnimator {
+
+    /**
+     * Used in place of a move index for changes that are shown at once, such
+     * as resetting the cube or changing its colors
+     */
+    static final int NO_MOVE = -1;
+    /**
+     * The default duration of a turn in milliseconds
+     */
+    static final long DEFAULT_TURN_MILLIS = 300;
+
+    /**
+     * The number of waiting steps at which consecutive turns of the same layer
+     * are combined
+     */
+    private static final int COALESCE_BACKLOG = 2;
+    /**
+     * The number of waiting steps at which playback jumps to the latest state
+     */
+    private static final int SKIP_BACKLOG = 500;
+
+    /**
+     * Steps queued by the console thread and not yet played
+     */
+    private ConcurrentLinkedQueue<Step> queue;
+    /**
+     * The number of steps in the queue, kept separately since counting the
+     * queue walks every element
+     */
+    private AtomicInteger pending;
+    /**
+     * The duration of a turn in nanoseconds, or 0 to show turns at once
+     */
+    private volatile long turnNanos;
+
+    /**
+     * The snapshot drawn under the current turn, or the latest snapshot if no
+     * turn is playing; only used on the render thread
+     */
+    private CubeSnapshot shown;
+    /**
+     * The turn being played, the snapshot shown once it finishes, and the
+     * time it started, only used on the render thread
+     */
+    private int move;
+    private CubeSnapshot target;
+    private long startNanos;
+    /**
+     * The current angle of the turning layer in degrees, clockwise as defined
+     * by the turn's notation
+     */
+    private float angle;
+
+
+    /**
+     * Creates a new TurnAnimator object with the default turn duration
+     */
+    TurnAnimator() {
+        this.queue = new ConcurrentLinkedQueue<Step>();
+        this.pending = new AtomicInteger();
+        this.move = NO_MOVE;
+        setTurnMillis(DEFAULT_TURN_MILLIS);
+    }
+
+
+    /**
+     * Queues a step to be played after every step already queued
+     * 
+     * @param move
+     *            The move index of the turn, or NO_MOVE to show the snapshot
+     *            at once
+     * @param after
+     *            The state of the cube after the step
+     */
+    void add(int move, CubeSnapshot after) {
+        queue.add(new Step(move, after));
+        pending.incrementAndGet();
+    }
+
+
+    /**
+     * Sets the duration of every turn played from now on
+     * 
+     * @param millis
+     *            The duration of a turn in milliseconds, or 0 to show turns
+     *            at once
+     */
+    void setTurnMillis(long millis) {
+        turnNanos = Math.max(0, millis) * 1000000L;
+    }
+
+
+    /**
+     * Gets the duration of every turn
+     * 
+     * @return The duration of a turn in milliseconds, or 0 if turns are shown
+     *         at once
+     */
+    long getTurnMillis() {
+        return turnNanos / 1000000L;
+    }
+
+
+    /**
+     * Advances playback to the given time, finishing turns whose time has
+     * passed and starting the next queued turns
+     * 
+     * @param now
+     *            The current time from System.nanoTime()
+     * @return True if a turn is still playing, so another frame is needed
+     */
+    boolean update(long now) {
+        long duration = turnNanos;
+
+        while (true) {
+            if (move != NO_MOVE) {
+                long elapsed = now - startNanos;
+                if (duration > 0 && elapsed < duration) {
+                    angle = fullAngle(move) * ease((float)elapsed / duration);
+                    return true;
+                }
+
+                // Finishing the turn, the next one starts where it ended
+                shown = target;
+                move = NO_MOVE;
+                startNanos += duration;
+            }
+            else {
+                startNanos = now;
+            }
+
+            Step step = poll();
+            if (step == null) {
+                angle = 0;
+                return false;
+            }
+
+            if (duration == 0 || step.move == NO_MOVE
+                || pending.get() >= SKIP_BACKLOG) {
+                shown = step.after;
+                continue;
+            }
+
+            // Combining turns of the same layer while turns are backing up
+            int next = step.move;
+            CubeSnapshot after = step.after;
+            while (pending.get() >= COALESCE_BACKLOG) {
+                Step following = queue.peek();
+                if (following == null || following.move == NO_MOVE
+                    || following.move / 3 != next / 3) {
+                    break;
+                }
+                poll();
+                next = combine(next, following.move);
+                after = following.after;
+                if (next == NO_MOVE) {
+                    break;
+                }
+            }
+            if (next == NO_MOVE) {
+                shown = after;
+                continue;
+            }
+
+            move = next;
+            target = after;
+            if (now - startNanos > duration) {
+                startNanos = now; // Not catching up on time spent idle
+            }
+        }
+    }
+
+
+    /**
+     * Takes the next step from the queue
+     * 
+     * @return The next step, or null if the queue is empty
+     */
+    private Step poll() {
+        Step step = queue.poll();
+        if (step != null) {
+            pending.decrementAndGet();
+        }
+        return step;
+    }
+
+
+    /**
+     * Gets the snapshot drawn under the current turn
+     * 
+     * @return The state before the current turn, or the latest state if no
+     *         turn is playing, or null if nothing has been queued yet
+     */
+    CubeSnapshot getSnapshot() {
+        return shown;
+    }
+
+
+    /**
+     * Gets the layer turned by the turn being played
+     * 
+     * @return The move index of the turn divided by 3, so the faces in move
+     *         order (right, left, up, down, front, back) are 0 to 5 and are
+     *         followed by the wide turns, slices, and rotations, or -1 if no
+     *         turn is playing
+     */
+    int getLayer() {
+        return move == NO_MOVE ? -1 : move / 3;
+    }
+
+
+    /**
+     * Gets the current angle of the turning layer
+     * 
+     * @return The angle in degrees, clockwise as defined by the turn's
+     *         notation
+     */
+    float getAngle() {
+        return angle;
+    }
+
+
+    /**
+     * Combines two turns of the same layer into one
+     * 
+     * @param first
+     *            The move index of the first turn
+     * @param second
+     *            The move index of the second turn
+     * @return The move index of the combined turn, or NO_MOVE if the turns
+     *         cancel
+     */
+    private static int combine(int first, int second) {
+        int total = (MoveSimplifier.quarters(first) + MoveSimplifier.quarters(
+            second)) % 4;
+        return total == 0 ? NO_MOVE : MoveSimplifier.withQuarters(first,
+            total);
+    }
+
+
+    /**
+     * Gets the angle of a whole turn, taking counterclockwise turns the short
+     * way around
+     * 
+     * @param move
+     *            The move index
+     * @return The angle in degrees, clockwise as defined by the turn's
+     *         notation
+     */
+    private static float fullAngle(int move) {
+        int quarters = MoveSimplifier.quarters(move);
+        return quarters == 3 ? -90 : 90 * quarters;
+    }
+
+
+    /**
+     * Eases the progress of a turn so it starts and stops smoothly
+     * 
+     * @param t
+     *            The fraction of the turn's duration that has passed
+     * @return The fraction of the turn's angle reached
+     */
+    private static float ease(float t) {
+        return t * t * (3 - 2 * t);
+    }
+
+
+    /**
+     * A queued turn or change along with the state it leads to
+     */
+    private static class Step {
+
+        /**
+         * The move index of the turn, or NO_MOVE
+         */
+        private final int move;
+        /**
+         * The state of the cube after the step
+         */
+        private final CubeSnapshot after;
+
+
+        /**
+         * Creates a new Step object
+         * 
+         * @param move
+         *            The move index of the turn, or NO_MOVE
+         * @param after
+         *            The state of the cube after the step
+         */
+        Step(int move, CubeSnapshot after) {
+            this.move = move;
+            this.after = after;
+        }
+
+    }
+
+}
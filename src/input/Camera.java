@@ -3,6 +3,7 @@ package input;
 import java.awt.MouseInfo;
 import java.awt.Point;
 import org.lwjgl.input.Mouse;
+import core.FrameScheduler;
 import math.Vector2f;
 
 /**
@@ -13,6 +14,10 @@ import math.Vector2f;
  * and quad models are positioned relative to the world space origin, and all of
  * their rotations are done relative to the world space origin.
  * 
+ * The mouse is read by poll(), which the main loop calls whether or not it is
+ * drawing, and a frame is only requested when a drag actually moves the
+ * pointer, so holding the button still costs no frames.
+ * 
  * @author Chris Hurt
  * @version 1.1
  */
@@ -29,10 +34,15 @@ public class Camera {
      */
     private Point basePoint;
     /**
-     * Keeps track of the total amount of cube rotation since the mouse was last
-     * pressed
+     * The rotation returned by calcRotation(), reused so that no vector is
+     * created for every frame
      */
     private Vector2f totalRotation;
+    /**
+     * Rotation from mouse movement found by poll() that has not been handed
+     * to the cube yet
+     */
+    private Vector2f pendingRotation;
     /**
      * Checks whether the mouse is currently being held down
      */
@@ -45,49 +55,73 @@ public class Camera {
     public Camera() {
         this.basePoint = new Point(0, 0);
         this.totalRotation = new Vector2f(0, 0);
+        this.pendingRotation = new Vector2f(0, 0);
         this.mouseLocked = false;
     }
 
 
     /**
-     * Calculates the x and y rotations of the cube based on mouse input
-     * 
-     * @return A two-dimensional vector containing the x and y rotation of the
-     *         cube (no specific units)
+     * Reads the mouse, adding any drag since the last call to the pending
+     * rotation and requesting a frame to show it
      */
-    public Vector2f calcRotation() {
-        // Getting location of mouse and whether left mouse button is being
-        // pressed
+    public void poll() {
+        // Checking whether left mouse button is being pressed
+        if (!Mouse.isButtonDown(0)) { // Case where mouse is not being pressed
+            mouseLocked = false;
+            return;
+        }
+
+        // Getting location of mouse, only while dragging since looking up the
+        // pointer allocates memory
         Point mousePos = MouseInfo.getPointerInfo().getLocation();
         float mX = (float)mousePos.getX();
         float mY = (float)mousePos.getY();
-        boolean mousePressed = Mouse.isButtonDown(0);
 
-        if (!mousePressed) { // Case where mouse is not being pressed
-            mouseLocked = false;
-            totalRotation.set(0, 0);
-        }
-        else if (!mouseLocked) { // Case where mouse has just been pressed
+        if (!mouseLocked) { // Case where mouse has just been pressed
             basePoint.setLocation(mX, mY); // Setting base point to mouse
                                            // location
             mouseLocked = true;
-            totalRotation.set(0, 0); // Resetting rotation
+            return;
         }
-        else {
-            // Calculating amount of mouse movement
-            float dX = (float)((mX - basePoint.getX()) * ROTATION_SPEED);
-            float dY = (float)((mY - basePoint.getY()) * ROTATION_SPEED);
-
-            totalRotation.set(-dY, -dX); // Rotating in direction opposite to
-                                         // mouse movement with a speed
-                                         // proportional to the amount of mouse
-                                         // movement
-            basePoint.setLocation(mX, mY); // Updating base pointer after
-                                           // rotation is updated to keep cube
-                                           // from moving after releasing the
-                                           // mouse
+        if (mX == basePoint.getX() && mY == basePoint.getY()) {
+            return; // Holding the mouse still changes nothing
         }
 
+        // Calculating amount of mouse movement
+        float dX = (float)((mX - basePoint.getX()) * ROTATION_SPEED);
+        float dY = (float)((mY - basePoint.getY()) * ROTATION_SPEED);
+
+        pendingRotation.set(pendingRotation.getX() - dY, pendingRotation
+            .getY() - dX); // Rotating in direction opposite to mouse movement
+                           // with a speed proportional to the amount of
+                           // mouse movement
+        basePoint.setLocation(mX, mY); // Updating base pointer after rotation
+                                       // is updated to keep cube from moving
+                                       // after releasing the mouse
+        FrameScheduler.requestRedraw();
+    }
+
+
+    /**
+     * Checks whether the cube is being dragged
+     * 
+     * @return True if the mouse was held down at the last poll()
+     */
+    public boolean isDragging() {
+        return mouseLocked;
+    }
+
+
+    /**
+     * Calculates the x and y rotations of the cube from the mouse movement
+     * found by poll() since the last call
+     * 
+     * @return A two-dimensional vector containing the x and y rotation of the
+     *         cube (no specific units)
+     */
+    public Vector2f calcRotation() {
+        totalRotation.set(pendingRotation.getX(), pendingRotation.getY());
+        pendingRotation.set(0, 0);
         return totalRotation;
     }
 
@@ -1,13 +1,19 @@
 package input;
 
 import java.io.IOException;
-import java.util.Random;
 import java.util.Scanner;
 import colors.BasicColors;
 import colors.DodoColors;
 import colors.WhiteColors;
+import cube.Algorithm;
 import cube.CubeBuffer;
+import cube.CubieCube;
+import cube.MoveSimplifier;
+import cube.MoveTokenizer;
 import cube.RubiksCube;
+import solver.OptimalSolver;
+import solver.Scrambler;
+import solver.TwoPhaseSolver;
 
 /**
  * Manages console commands inputted by the user. Console input is run in a
@@ -23,10 +29,15 @@ public class Console {
      */
     private static final String HELP_DISPLAY =
         "-----------------------------------\n"
-            + "SCRAMBLE - Randomly scrambles the cube\n"
+            + "SCRAMBLE - Scrambles the cube into a random state\n"
             + "SOLVE - Solves the cube\n"
+            + "SOLVE OPTIMAL - Solves the cube in as few turns as possible\n"
             + "RESET - Resets the cube to solved state\n"
             + "COLOR scheme - Changes the cube's color scheme\n"
+            + "SPEED ms - Sets how long each turn takes to play\n"
+            + "SPEED INSTANT - Shows turns without playing them\n"
+            + "ORDER alg - Counts how many times alg repeats before the cube "
+            + "returns to its start\n"
             + "PATTERN - Display a cool pattern on the cube\n"
             + "CLEAR - Clear all text from the screen\n"
             + "QUIT - Quit the program\n" + "HELP - Displays this help menu\n"
@@ -44,17 +55,22 @@ public class Console {
             + "F2 - Two front face turns\n" + "B - Back face clockwise turn\n"
             + "B' - Back face counterclockwise turn\n"
             + "B2 - Two back face turns\n"
+            + "Rw or r - Right face and middle slice turned together\n"
+            + "M, E, S - Middle slice turns following L, D, and F\n"
+            + "x, y, z - Whole cube rotations following R, U, and F\n"
+            + "(R U R' U')6 - Turns in parentheses repeated 6 times\n"
             + "-----------------------------------";
     /**
-     * All of the allowed turn commands, which are case sensitive
+     * Turns needed to create a checker pattern on the cube, compiled once so
+     * the whole pattern is applied in a single step
      */
-    private static final String[] ALLOWED_BASIC_TURNS = { "R", "R'", "R2", "L",
-        "L'", "L2", "U", "U'", "U2", "D", "D'", "D2", "F", "F'", "F2", "B",
-        "B'", "B2" };
+    private static final Algorithm checkerPatternAlgorithm = new Algorithm(
+        "R2 L2 U2 D2 F2 B2");
     /**
-     * Input turns needed to create a checker pattern on the cube
+     * Commands with more turns than this, such as "(R U)1000", are applied in
+     * a single step rather than played one turn at a time
      */
-    private static final String checkerPatternAlgorithm = "R2 L2 U2 D2 F2 B2";
+    private static final int PLAYED_TURN_LIMIT = 1000;
 
     /**
      * A reference to the RubiksCube object represented in the program
@@ -70,6 +86,31 @@ public class Console {
      * Scanner used to retrieve the user's command inputs
      */
     private Scanner sc;
+    /**
+     * Reads the turns entered by the user, reused for every command
+     */
+    private MoveTokenizer tokenizer;
+    /**
+     * Removes turns that cancel or merge before they reach the cube, reused
+     * for every command
+     */
+    private MoveSimplifier simplifier;
+    /**
+     * Solver used by the "solve" command, created the first time the command
+     * is entered since generating its tables takes a moment
+     */
+    private TwoPhaseSolver solver;
+    /**
+     * Generates the states used by the "scramble" command, created the first
+     * time the command is entered since it solves with the two-phase tables
+     */
+    private Scrambler scrambler;
+    /**
+     * Solver used by the "solve optimal" command, created the first time the
+     * command is entered since generating its pattern databases takes a few
+     * minutes
+     */
+    private OptimalSolver optimalSolver;
 
 
     /**
@@ -83,6 +124,19 @@ public class Console {
         this.cube = cube;
         this.cubeBuffer = cube.getCubeBuffer();
         this.sc = new Scanner(System.in);
+        this.tokenizer = new MoveTokenizer();
+        this.simplifier = new MoveSimplifier();
+    }
+
+
+    /**
+     * Waits for the next command, used when commands may come from a script
+     * instead of a user
+     * 
+     * @return True if there is another command, false once input has ended
+     */
+    public boolean hasCommand() {
+        return sc.hasNextLine();
     }
 
 
@@ -99,7 +153,10 @@ public class Console {
             System.out.println("Cube reset.");
         }
         else if (lowerCaseCommand.equals("solve")) {        // SOLVE
-            System.out.println("Feature not yet implemented.");
+            solve();
+        }
+        else if (lowerCaseCommand.equals("solve optimal")) { // SOLVE OPTIMAL
+            solveOptimal();
         }
         else if (lowerCaseCommand.equals("clear")) {        // CLEAR
             try {
@@ -131,6 +188,14 @@ public class Console {
             lowerCaseCommand.equals("color")) {
             processColor(command);
         }
+        else if (lowerCaseCommand.startsWith("speed ") ||   // SPEED
+            lowerCaseCommand.equals("speed")) {
+            processSpeed(lowerCaseCommand);
+        }
+        else if (lowerCaseCommand.startsWith("order ") ||   // ORDER
+            lowerCaseCommand.equals("order")) {
+            processOrder(command.substring("order".length()));
+        }
         else {                                              // Turn or Error
             parseCommands(command);
         }
@@ -140,6 +205,62 @@ public class Console {
     }
 
 
+    /**
+     * Finds a solution for the cube's current state, prints it, and executes
+     * it one turn at a time
+     */
+    private void solve() {
+        if (cubeBuffer.isSolved()) {
+            System.out.println("Cube is already solved.");
+            return;
+        }
+
+        if (solver == null) {
+            System.out.println("Loading solver tables...");
+            solver = new TwoPhaseSolver();
+        }
+
+        int[] solution = solver.solve(new CubieCube(cubeBuffer));
+        System.out.println("Solution (" + solution.length + " moves): "
+            + new Algorithm(solution));
+
+        // Executing the solution through the same path as entered turns
+        for (int i = 0; i < solution.length; i++) {
+            executeCommand(solution[i]);
+        }
+    }
+
+
+    /**
+     * Finds a shortest possible solution for the cube's current state, prints
+     * it along with the search time, and executes it one turn at a time
+     */
+    private void solveOptimal() {
+        if (cubeBuffer.isSolved()) {
+            System.out.println("Cube is already solved.");
+            return;
+        }
+
+        if (optimalSolver == null) {
+            System.out.println("Loading pattern databases, generating them "
+                + "the first time may take a few minutes...");
+            optimalSolver = new OptimalSolver();
+        }
+
+        long startTime = System.currentTimeMillis();
+        int[] solution = optimalSolver.solve(new CubieCube(cubeBuffer));
+        long searchTime = System.currentTimeMillis() - startTime;
+        System.out.println("Optimal solution (" + solution.length
+            + " moves, found in " + searchTime + " ms): " + new Algorithm(
+                solution));
+
+        // Executing the solution through the same path as entered turns
+        for (int i = 0; i < solution.length; i++) {
+            executeCommand(solution[i]);
+        }
+    }
+
+
     /**
      * Processes a "color" command entered by the user
      * 
@@ -173,6 +294,65 @@ public class Console {
     }
 
 
+    /**
+     * Processes a "speed" command entered by the user
+     * 
+     * @precondition The command passed to this method is a "speed" command
+     * @param command
+     *            The "speed" command entered by the user, in lower case
+     */
+    private void processSpeed(String command) {
+        String[] commandSet = command.trim().split("\\s+");
+
+        if (commandSet.length == 2 && commandSet[1].equals("instant")) {
+            cube.setTurnMillis(0);                      // INSTANT
+            System.out.println("Turns are now shown instantly.");
+            return;
+        }
+
+        try {
+            if (commandSet.length == 2) {
+                long millis = Long.parseLong(commandSet[1]);
+                if (millis >= 0) {
+                    cube.setTurnMillis(millis);         // Milliseconds
+                    System.out.println("Turns now take " + millis + " ms.");
+                    return;
+                }
+            }
+        }
+        catch (NumberFormatException e) {
+            // Falling through to the error message
+        }
+        System.out.println(
+            "Please enter a turn duration in milliseconds or \"instant\"!");
+    }
+
+
+    /**
+     * Processes an "order" command entered by the user, printing how many
+     * times the algorithm must be applied before every piece returns to its
+     * starting place and orientation
+     * 
+     * @param notation
+     *            The algorithm following the word "order"
+     */
+    private void processOrder(String notation) {
+        if (!tokenizer.compile(notation) || tokenizer.getTurnCount() == 0) {
+            if (tokenizer.getError() != null) {
+                printParseError(notation);
+            }
+            System.out.println("Please enter an algorithm, such as "
+                + "\"order R U\"!");
+            return;
+        }
+
+        // Reading the order from the permutation just compiled, rather than
+        // compiling the notation again
+        System.out.println(tokenizer.getOrder() + " repetitions of "
+            + notation.trim() + " return the cube to its starting state.");
+    }
+
+
     /**
      * Prints an error message telling the user they entered an invalid "color"
      * command
@@ -193,140 +373,91 @@ public class Console {
      *            The turn command or invalid command being parsed
      */
     private void parseCommands(String commandString) {
-        // Splitting up the command by spaces
-        String[] commands = commandString.split(" ");
-
-        // Checking that every specified turn is valid
-        for (int i = 0; i < commands.length; i++) {
-            boolean found = false;
-            for (int j = 0; j < ALLOWED_BASIC_TURNS.length; j++) {
-                if (ALLOWED_BASIC_TURNS[j].equals(commands[i])) {
-                    found = true;
-                }
-            }
-
-            // Telling the user that they entered an invalid command
-            if (!found) {
+        // Listing the turns in one pass when there are few enough to play one
+        // at a time, then simplifying them and executing them in order
+        if (tokenizer.tokenize(commandString, PLAYED_TURN_LIMIT)) {
+            if (tokenizer.length() == 0) {
                 printInvalidCommand();
                 return;
             }
+            simplifier.simplify(tokenizer);
+            for (int i = 0; i < simplifier.length(); i++) {
+                executeCommand(simplifier.getMove(i));
+            }
+            return;
         }
 
-        // Executing each turn specified in the command one at a time
-        for (int i = 0; i < commands.length; i++) {
-            boolean success = executeCommand(commands[i]);
-            if (!success) { // Checking to make sure the turn was executed
-                            // correctly
-                break;
-            }
+        // Compiling the command without listing its turns, since it either
+        // stands for too many turns to play or is not valid notation, in
+        // which case compiling finds the first real problem
+        if (!tokenizer.compile(commandString)) {
+            printParseError(commandString);
+            printInvalidCommand();
+            return;
+        }
+
+        // Applying long commands in a single step
+        tokenizer.applyTo(cubeBuffer);
+        System.out.println("Applied " + (tokenizer
+            .getTurnCount() == Long.MAX_VALUE ? "over " : "") + tokenizer
+                .getTurnCount() + " turns at once.");
+        if (cubeBuffer.isSolved()) {
+            System.out.println("Cube solved!");
         }
     }
 
 
     /**
-     * Executes a user-entered turn command on the cube buffer
+     * Shows the user where the tokenizer stopped reading their command
      * 
-     * @param command
-     *            A single turn command entered by the user
-     * @return True if the command was a valid turn command, false otherwise
+     * @param commandString
+     *            The command that could not be read
      */
-    private boolean executeCommand(String command) {
-        if (command.equals("R")) {          // R
-            cubeBuffer.right();
-        }
-        else if (command.equals("R'")) {    // R'
-            cubeBuffer.rightPrime();
-        }
-        else if (command.equals("R2")) {    // R2
-            cubeBuffer.rightTwo();
-        }
-        else if (command.equals("L")) {     // L
-            cubeBuffer.left();
-        }
-        else if (command.equals("L'")) {    // L'
-            cubeBuffer.leftPrime();
-        }
-        else if (command.equals("L2")) {    // L2
-            cubeBuffer.leftTwo();
-        }
-        else if (command.equals("U")) {     // U
-            cubeBuffer.up();
-        }
-        else if (command.equals("U'")) {    // U'
-            cubeBuffer.upPrime();
-        }
-        else if (command.equals("U2")) {    // U2
-            cubeBuffer.upTwo();
-        }
-        else if (command.equals("D")) {     // D
-            cubeBuffer.down();
-        }
-        else if (command.equals("D'")) {    // D'
-            cubeBuffer.downPrime();
-        }
-        else if (command.equals("D2")) {    // D2
-            cubeBuffer.downTwo();
-        }
-        else if (command.equals("F")) {     // F
-            cubeBuffer.front();
-        }
-        else if (command.equals("F'")) {    // F'
-            cubeBuffer.frontPrime();
-        }
-        else if (command.equals("F2")) {    // F2
-            cubeBuffer.frontTwo();
-        }
-        else if (command.equals("B")) {     // B
-            cubeBuffer.back();
-        }
-        else if (command.equals("B'")) {    // B'
-            cubeBuffer.backPrime();
-        }
-        else if (command.equals("B2")) {    // B2
-            cubeBuffer.backTwo();
-        }
-        else {                              // Error
-            printInvalidCommand();
-            return false;
+    private void printParseError(String commandString) {
+        StringBuilder marker = new StringBuilder();
+        for (int i = 0; i < tokenizer.getErrorPosition(); i++) {
+            marker.append(commandString.charAt(i) == '\t' ? '\t' : ' ');
         }
+        System.out.println(commandString);
+        System.out.println(marker + "^ " + tokenizer.getError());
+    }
+
+
+    /**
+     * Executes a single turn on the cube buffer, which is queued to be played
+     * on the display without waiting for it
+     * 
+     * @param move
+     *            The move index of the turn being executed
+     */
+    private void executeCommand(int move) {
+        cube.turn(move);
 
         // Checking if cube is solved after executing the given turn command
         if (cubeBuffer.isSolved()) {
             System.out.println("Cube solved!");
         }
-
-        // Updating the stickers' colors after turning
-        cube.updateTilesAndCube();
-        try {
-            // Pausing between turns
-            final int PAUSE_TIME = 450;
-            Thread.sleep(PAUSE_TIME);
-        }
-        catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        return true;
     }
 
 
     /**
-     * Generates and executes a scramble command that consists of 25 random
-     * turns
+     * Generates, prints, and executes a scramble that brings the cube to a
+     * uniformly random state
      */
     private void genScramble() {
-        Random rand = new Random();
-        String scramble = "";
-
-        // Generating the scramble
-        final int TURN_COUNT = 25;
-        for (int i = 0; i < TURN_COUNT; i++) {
-            int index = rand.nextInt(ALLOWED_BASIC_TURNS.length);
-            scramble += ALLOWED_BASIC_TURNS[index] + " ";
+        if (scrambler == null) {
+            System.out.println("Loading solver tables...");
+            scrambler = new Scrambler();
         }
 
-        // Executing the scramble
-        parseCommands(scramble);
+        int[] scramble = scrambler.next();
+        System.out.println("Scramble (" + scramble.length + " moves): "
+            + Algorithm.toNotation(scramble));
+
+        // Executing the scramble through the same path as entered turns
+        for (int i = 0; i < scramble.length; i++) {
+            executeCommand(scramble[i]);
+        }
     }
 
 
@@ -336,7 +467,7 @@ public class Console {
      */
     private void genCheckerPattern() {
         if (cubeBuffer.isSolved()) {
-            parseCommands(checkerPatternAlgorithm);
+            checkerPatternAlgorithm.applyTo(cubeBuffer);
         }
         else {
             System.out.println(
@@ -2,23 +2,28 @@ package main;
 
 import java.awt.Color;
 import java.io.File;
+import java.util.Arrays;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.GL11;
 import colors.BasicColors;
 import core.DisplayManager;
+import core.FrameScheduler;
+import core.GLCallCounter;
 import core.Handler;
 import core.ShaderProgram;
 import cube.RubiksCube;
 import input.Camera;
 import input.Console;
+import solver.BatchSolver;
+import solver.Scrambler;
+import utilities.AllocationCounter;
 
 /**
  * This application is a Rubik's Cube Simulator that uses a command line
  * interface for user input, and uses the LWJGL wrapper for OpenGL to render the
  * cube. The user can perform turns on the cube, solve the cube, scramble the
- * cube, and customize the cube. These are all features supported in version 1.1
- * of the program, and future versions plan to implement a search algorithm that
- * can find a solution for the cube in any given state.
+ * cube, and customize the cube. Solutions for the cube in any given state are
+ * found with a two-phase search algorithm.
  * 
  * The MainComponent class contains the program's main method and manages its
  * execution.
@@ -38,15 +43,65 @@ public class MainComponent {
      */
     private static boolean running = false;
 
+    /**
+     * System property that turns on a periodic report of the memory allocated
+     * by the render loop, e.g. -Dcube.allocationReport=true
+     */
+    private static final String ALLOCATION_REPORT_PROPERTY =
+        "cube.allocationReport";
+    /**
+     * System property that turns on a periodic report of the number of GL
+     * calls issued by the render loop, e.g. -Dcube.glCallReport=true
+     */
+    private static final String GL_CALL_REPORT_PROPERTY = "cube.glCallReport";
+    /**
+     * The number of frames covered by each allocation or GL call report
+     */
+    private static final int REPORT_FRAMES = 600;
+    /**
+     * System property that redraws every frame instead of only when the
+     * picture changes, e.g. -Dcube.continuousRendering=true
+     */
+    private static final String CONTINUOUS_RENDERING_PROPERTY =
+        "cube.continuousRendering";
+    /**
+     * System property setting the maximum frame rate while drawing, or 0 for
+     * no limit, e.g. -Dcube.fpsCap=60
+     */
+    private static final String FPS_CAP_PROPERTY = "cube.fpsCap";
+    /**
+     * How often window and mouse events are checked while nothing is being
+     * drawn, in milliseconds
+     */
+    private static final long IDLE_POLL_MILLIS = 50;
+    /**
+     * How often the mouse is checked while the cube is being dragged, in
+     * milliseconds, so that a drag is drawn as soon as the pointer moves
+     */
+    private static final long DRAG_POLL_MILLIS = 5;
+
 
     /**
      * Main method of the program, launches and initializes the program, manages
      * its execution, and frees memory and closes the program upon termination
      * 
      * @param args
-     *            Unused launch arguments
+     *            Launch arguments; "--batch [input] [output]" solves the cubes
+     *            listed in the input without opening a display (see
+     *            BatchSolver), "--scramble [count] [seed]" prints random-state
+     *            scrambles (see Scrambler), and "--headless" runs the console
+     *            without opening a display
      */
     public static void main(String args[]) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--scramble")) {
+            Scrambler.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Allowing natives in separate folder after exporting, changes their
         // file path
         System.setProperty("org.lwjgl.librarypath", new File("libs/natives")
@@ -58,6 +113,11 @@ public class MainComponent {
         System.out.println("Type \"help\" for a list of available commands.");
         System.out.println("-----------------------------------");
 
+        if (args.length > 0 && args[0].equals("--headless")) {
+            runHeadless();
+            return;
+        }
+
         // Initializing the display, shader program, camera, and rubik's cube
         DisplayManager.create();
         ShaderProgram shader = new ShaderProgram(Handler.PROJ_MAT);
@@ -81,13 +141,40 @@ public class MainComponent {
         // rendering
         GL11.glEnable(GL11.GL_DEPTH_TEST);
 
+        // Optionally measuring the memory allocated by the main loop, which
+        // should be 0 bytes per frame once it is running
+        boolean allocationReport = Boolean.getBoolean(
+            ALLOCATION_REPORT_PROPERTY) && AllocationCounter.isSupported();
+        boolean glCallReport = Boolean.getBoolean(GL_CALL_REPORT_PROPERTY);
+        long reportStartBytes = allocationReport ? AllocationCounter
+            .getAllocatedBytes() : 0;
+        int frame = 0;
+
+        // Only drawing while the picture changes unless asked to draw every
+        // frame, and limiting the frame rate while drawing
+        boolean continuous = Boolean.getBoolean(CONTINUOUS_RENDERING_PROPERTY);
+        DisplayManager.setFpsCap(Integer.getInteger(FPS_CAP_PROPERTY,
+            DisplayManager.FPS_CAP));
+
         // Main loop
         while (!Display.isCloseRequested()) {
+            // Waiting until the cube changes, a drag moves the cube, or the
+            // window needs to be repainted, while still handling window and
+            // mouse events
+            camera.poll();
+            if (!continuous && !Display.isDirty() && !FrameScheduler
+                .awaitRedraw(camera.isDragging() ? DRAG_POLL_MILLIS
+                    : IDLE_POLL_MILLIS)) {
+                Display.processMessages();
+                continue;
+            }
+
             // Clearing the display before each render
             GL11.glClearColor(BACKGROUND_COLOR.getRed() / 255.0f,
                 BACKGROUND_COLOR.getGreen() / 255.0f, BACKGROUND_COLOR.getBlue()
                     / 255.0f, 1.0f);
             GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+            GLCallCounter.add(2);
 
             // Updating and rendering the Rubik's cube
             shader.start();
@@ -95,10 +182,27 @@ public class MainComponent {
             shader.stop();
 
             // Drawing everything to the screen
-            Display.update();
-
-            System.gc(); // Running the garbage collector to prevent memory
-                         // leaking
+            DisplayManager.update();
+
+            int glCalls = GLCallCounter.endFrame();
+            if (++frame == REPORT_FRAMES) {
+                if (allocationReport) {
+                    long allocated = AllocationCounter.getAllocatedBytes()
+                        - reportStartBytes;
+                    System.out.println("Render loop allocated " + allocated
+                        / REPORT_FRAMES + " bytes per frame");
+                }
+                if (glCallReport) {
+                    System.out.println("Render loop issued " + glCalls
+                        + " GL calls in the last frame, "
+                        + shader.getIssuedUploads() + " uniform uploads issued"
+                        + " and " + shader.getSkippedUploads() + " skipped");
+                }
+                frame = 0;
+                if (allocationReport) {
+                    reportStartBytes = AllocationCounter.getAllocatedBytes();
+                }
+            }
         }
         running = false;
 
@@ -110,4 +214,17 @@ public class MainComponent {
         System.exit(0); // Ensures that all threads are stopped
     }
 
+
+    /**
+     * Runs the console on the calling thread with a headless cube, without
+     * loading LWJGL or creating any OpenGL objects, until the input ends or
+     * the user quits
+     */
+    private static void runHeadless() {
+        Console console = new Console(new RubiksCube(new BasicColors()));
+        while (console.hasCommand()) {
+            console.doCommand();
+        }
+    }
+
 }
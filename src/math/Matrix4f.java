@@ -1,12 +1,15 @@
 package math;
 
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 import org.lwjgl.BufferUtils;
 import core.DisplayManager;
 
 /**
  * Represents a 4x4 matrix of float values, contains methods for necessary
- * matrix calculations
+ * matrix calculations. The values are stored in a flat array in column-major
+ * order, the same order OpenGL expects, so loading the matrix into a uniform
+ * is a single bulk copy.
  * 
  * @author Chris Hurt
  * @version 1.1
@@ -30,10 +33,15 @@ public class Matrix4f {
     public static final float NEAR_PLANE = 0.1f;
 
     /**
-     * A two dimensional array containing the matrix's values, the inner arrays
-     * represent column positions and the outer arrays represent row positions
+     * The matrix's values in column-major order, the value at row r and
+     * column c is stored at index c * 4 + r
      */
-    private float[][] mat;
+    private float[] mat;
+    /**
+     * Incremented whenever the matrix's values change, so that products of
+     * this matrix only need to be recomputed after it has changed
+     */
+    private int version;
     /**
      * x, y, and z scale values used when generating a scale matrix
      */
@@ -46,6 +54,11 @@ public class Matrix4f {
      * x, y, and z translation values used when generating a translation matrix
      */
     private float transX, transY, transZ;
+    /**
+     * Buffer filled by toBuffer(), created on first use and then reused so
+     * that loading the matrix every frame never allocates memory
+     */
+    private FloatBuffer buffer;
 
 
     /**
@@ -57,7 +70,7 @@ public class Matrix4f {
      *            identity matrix
      */
     public Matrix4f(boolean setIdentity) {
-        mat = new float[4][4];
+        mat = new float[16];
 
         if (setIdentity) {
             initIdentity();
@@ -71,16 +84,12 @@ public class Matrix4f {
      * @return A reference to this Matrix4f object
      */
     public Matrix4f initIdentity() {
-        for (int r = 0; r < 4; r++) {
-            for (int c = 0; c < 4; c++) {
-                if (r == c) {
-                    mat[r][c] = 1;
-                }
-                else {
-                    mat[r][c] = 0;
-                }
-            }
-        }
+        Arrays.fill(mat, 0);
+        mat[0] = 1;
+        mat[5] = 1;
+        mat[10] = 1;
+        mat[15] = 1;
+        version++;
 
         return this;
     }
@@ -102,9 +111,10 @@ public class Matrix4f {
         scaleY = y;
         scaleZ = z;
 
-        mat[0][0] = x;
-        mat[1][1] = y;
-        mat[2][2] = z;
+        mat[0] = x;
+        mat[5] = y;
+        mat[10] = z;
+        version++;
 
         return this;
     }
@@ -121,23 +131,10 @@ public class Matrix4f {
         rotX = theta;
 
         float rads = (float)Math.toRadians(theta);
+        float sin = (float)Math.sin(rads);
+        float cos = (float)Math.cos(rads);
 
-        mat[0][0] = 1;
-        mat[0][1] = 0;
-        mat[0][2] = 0;
-        mat[0][3] = 0;
-        mat[1][0] = 0;
-        mat[1][1] = (float)Math.cos(rads);
-        mat[1][2] = (float)-Math.sin(rads);
-        mat[1][3] = 0;
-        mat[2][0] = 0;
-        mat[2][1] = (float)Math.sin(rads);
-        mat[2][2] = (float)Math.cos(rads);
-        mat[2][3] = 0;
-        mat[3][0] = 0;
-        mat[3][1] = 0;
-        mat[3][2] = 0;
-        mat[3][3] = 1;
+        setRotation(1, 0, 0, 0, cos, sin, 0, -sin, cos);
 
         return this;
     }
@@ -154,23 +151,10 @@ public class Matrix4f {
         rotY = theta;
 
         float rads = (float)Math.toRadians(theta);
+        float sin = (float)Math.sin(rads);
+        float cos = (float)Math.cos(rads);
 
-        mat[0][0] = (float)Math.cos(rads);
-        mat[0][1] = 0;
-        mat[0][2] = (float)Math.sin(rads);
-        mat[0][3] = 0;
-        mat[1][0] = 0;
-        mat[1][1] = 1;
-        mat[1][2] = 0;
-        mat[1][3] = 0;
-        mat[2][0] = (float)-Math.sin(rads);
-        mat[2][1] = 0;
-        mat[2][2] = (float)Math.cos(rads);
-        mat[2][3] = 0;
-        mat[3][0] = 0;
-        mat[3][1] = 0;
-        mat[3][2] = 0;
-        mat[3][3] = 1;
+        setRotation(cos, 0, -sin, 0, 1, 0, sin, 0, cos);
 
         return this;
     }
@@ -187,28 +171,68 @@ public class Matrix4f {
         rotZ = theta;
 
         float rads = (float)Math.toRadians(theta);
+        float sin = (float)Math.sin(rads);
+        float cos = (float)Math.cos(rads);
 
-        mat[0][0] = (float)Math.cos(rads);
-        mat[0][1] = (float)-Math.sin(rads);
-        mat[0][2] = 0;
-        mat[0][3] = 0;
-        mat[1][0] = (float)Math.sin(rads);
-        mat[1][1] = (float)Math.cos(rads);
-        mat[1][2] = 0;
-        mat[1][3] = 0;
-        mat[2][0] = 0;
-        mat[2][1] = 0;
-        mat[2][2] = 1;
-        mat[2][3] = 0;
-        mat[3][0] = 0;
-        mat[3][1] = 0;
-        mat[3][2] = 0;
-        mat[3][3] = 1;
+        setRotation(cos, sin, 0, -sin, cos, 0, 0, 0, 1);
 
         return this;
     }
 
 
+    /**
+     * Sets this matrix as a rotation matrix, where mRC is the value at row R
+     * and column C
+     * 
+     * @param m00
+     *            Row 0, column 0
+     * @param m10
+     *            Row 1, column 0
+     * @param m20
+     *            Row 2, column 0
+     * @param m01
+     *            Row 0, column 1
+     * @param m11
+     *            Row 1, column 1
+     * @param m21
+     *            Row 2, column 1
+     * @param m02
+     *            Row 0, column 2
+     * @param m12
+     *            Row 1, column 2
+     * @param m22
+     *            Row 2, column 2
+     */
+    private void setRotation(
+        float m00,
+        float m10,
+        float m20,
+        float m01,
+        float m11,
+        float m21,
+        float m02,
+        float m12,
+        float m22) {
+        mat[0] = m00;
+        mat[1] = m10;
+        mat[2] = m20;
+        mat[3] = 0;
+        mat[4] = m01;
+        mat[5] = m11;
+        mat[6] = m21;
+        mat[7] = 0;
+        mat[8] = m02;
+        mat[9] = m12;
+        mat[10] = m22;
+        mat[11] = 0;
+        mat[12] = 0;
+        mat[13] = 0;
+        mat[14] = 0;
+        mat[15] = 1;
+        version++;
+    }
+
+
     /**
      * Sets this matrix as a translation matrix
      * 
@@ -225,9 +249,10 @@ public class Matrix4f {
         transY = y;
         transZ = z;
 
-        mat[0][3] = x;
-        mat[1][3] = y;
-        mat[2][3] = z;
+        mat[12] = x;
+        mat[13] = y;
+        mat[14] = z;
+        version++;
 
         return this;
     }
@@ -241,12 +266,13 @@ public class Matrix4f {
         float aspectRatio = (float)DisplayManager.WIDTH / DisplayManager.HEIGHT;
         float denominator = (float)Math.tan(Math.toRadians(FOV / 2));
 
-        mat[0][0] = 1.0f / (denominator * aspectRatio);
-        mat[1][1] = 1.0f / denominator;
-        mat[2][2] = -(NEAR_PLANE + FAR_PLANE) / (NEAR_PLANE - FAR_PLANE);
-        mat[2][3] = 2 * NEAR_PLANE * FAR_PLANE / (NEAR_PLANE - FAR_PLANE);
-        mat[3][2] = 1;
-        mat[3][3] = 0;
+        mat[0] = 1.0f / (denominator * aspectRatio);
+        mat[5] = 1.0f / denominator;
+        mat[10] = -(NEAR_PLANE + FAR_PLANE) / (NEAR_PLANE - FAR_PLANE);
+        mat[14] = 2 * NEAR_PLANE * FAR_PLANE / (NEAR_PLANE - FAR_PLANE);
+        mat[11] = 1;
+        mat[15] = 0;
+        version++;
 
         return this;
     }
@@ -261,38 +287,60 @@ public class Matrix4f {
      *         matrix m
      */
     public Matrix4f mul(Matrix4f m) {
-        Matrix4f product = new Matrix4f(false);
+        return mulInto(m, new Matrix4f(false));
+    }
 
-        for (int r = 0; r < 4; r++) {
-            for (int c = 0; c < 4; c++) {
-                float value = mat[r][0] * m.getValue(0, c) + mat[r][1] * m
-                    .getValue(1, c) + mat[r][2] * m.getValue(2, c) + mat[r][3]
-                        * m.getValue(3, c);
 
-                product.setValue(r, c, value);
-            }
+    /**
+     * Multiplies this matrix with another 4x4 matrix, storing the product in
+     * an existing matrix instead of allocating a new one
+     * 
+     * @param m
+     *            The Matrix4f object being multiplied with this one
+     * @param dest
+     *            The Matrix4f object receiving the product, which must not be
+     *            this matrix or matrix m
+     * @return A reference to dest
+     */
+    public Matrix4f mulInto(Matrix4f m, Matrix4f dest) {
+        float[] a = mat;
+        float[] b = m.mat;
+        float[] out = dest.mat;
+
+        // Each column of the product is a combination of this matrix's
+        // columns, weighted by the values in the same column of matrix m
+        float a00 = a[0], a10 = a[1], a20 = a[2], a30 = a[3];
+        float a01 = a[4], a11 = a[5], a21 = a[6], a31 = a[7];
+        float a02 = a[8], a12 = a[9], a22 = a[10], a32 = a[11];
+        float a03 = a[12], a13 = a[13], a23 = a[14], a33 = a[15];
+        for (int c = 0; c < 16; c += 4) {
+            float b0 = b[c], b1 = b[c + 1], b2 = b[c + 2], b3 = b[c + 3];
+            out[c] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+            out[c + 1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+            out[c + 2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+            out[c + 3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
         }
+        dest.version++;
 
-        return product;
+        return dest;
     }
 
 
     /**
      * Converts this matrix to a float buffer used to load uniform matrix
-     * variables to the shader program
+     * variables to the shader program. The same buffer is refilled by every
+     * call, so it should be loaded before the matrix changes.
      * 
-     * @return A FloatBuffer object containing a float buffer representation of
+     * @return A FloatBuffer object containing a column-major representation of
      *         this matrix
      */
     public FloatBuffer toBuffer() {
-        FloatBuffer buffer = BufferUtils.createFloatBuffer(16);
-
-        for (int c = 0; c < 4; c++) {
-            for (int r = 0; r < 4; r++) {
-                buffer.put(mat[r][c]);
-            }
+        if (buffer == null) {
+            buffer = BufferUtils.createFloatBuffer(16);
         }
 
+        buffer.clear();
+        buffer.put(mat);
         buffer.flip();
         return buffer;
     }
@@ -309,7 +357,7 @@ public class Matrix4f {
      * @return The value at the specified row and column of this matrix
      */
     public float getValue(int r, int c) {
-        return mat[r][c];
+        return mat[c * 4 + r];
     }
 
 
@@ -324,7 +372,19 @@ public class Matrix4f {
      *            The new value at the matrix's given row and column
      */
     public void setValue(int r, int c, float value) {
-        mat[r][c] = value;
+        mat[c * 4 + r] = value;
+        version++;
+    }
+
+
+    /**
+     * Gets the matrix's version, which changes whenever any of its values
+     * change
+     * 
+     * @return The number of changes made to the matrix
+     */
+    public int getVersion() {
+        return version;
     }
 
 
@@ -0,0 +1,338 @@
+package solver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import cube.Algorithm;
+import cube.CubeBuffer;
+import cube.CubieCube;
+import cube.MoveTokenizer;
+
+/**
+ * Solves a stream of cubes without opening a display. Every line of the input
+ * is either a sequence of turns applied to a solved cube, such as
+ * "R U R' U'", or a 54 letter facelet string (see CubeBuffer.FACE_NAMES),
+ * which is told apart by holding nine of each face letter and nothing else.
+ * Turns are compiled with a MoveTokenizer, so wide turns, slices, rotations,
+ * and repeated groups of any size may be used; a run of turns that happens to
+ * look like a facelet string can be written with a space to be read as turns.
+ * Blank lines and lines starting with '#' are skipped, and a line that cannot
+ * be read or solved only produces an error result.
+ * 
+ * Lines are solved in parallel by a fixed pool of two-phase solvers, one per
+ * thread, and the results are written in input order as
+ * "line -> solution, length, time". Pending results are held in a bounded
+ * queue, so reading blocks while the writer falls behind and memory use stays
+ * flat however long the input is. Table generation and other diagnostics are
+ * printed to standard error, so standard output only carries results.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class BatchSolver {
+
+    /**
+     * Argument used in place of a file name to read standard input or write
+     * standard output
+     */
+    public static final String STANDARD_STREAM = "-";
+
+    /**
+     * The number of pending results allowed for every worker thread before
+     * reading blocks
+     */
+    private static final int QUEUE_PER_THREAD = 64;
+
+    /**
+     * Marks the end of the results queue
+     */
+    private static final Future<String> END = new FutureTask<String>(
+        new Callable<String>() {
+            @Override
+            public String call() {
+                return null;
+            }
+        });
+
+    /**
+     * The number of worker threads
+     */
+    private int threadCount;
+    /**
+     * One solver for every worker thread, since solvers keep search state
+     */
+    private ThreadLocal<TwoPhaseSolver> solvers;
+    /**
+     * One turn tokenizer for every worker thread, reused for every line
+     */
+    private ThreadLocal<MoveTokenizer> tokenizers;
+    /**
+     * Results in input order, waiting to be written
+     */
+    private BlockingQueue<Future<String>> results;
+    /**
+     * Set if reading the input fails
+     */
+    private volatile IOException readError;
+
+
+    /**
+     * Creates a new BatchSolver object
+     * 
+     * @param threadCount
+     *            The number of worker threads
+     */
+    public BatchSolver(int threadCount) {
+        this.threadCount = threadCount;
+        this.solvers = new ThreadLocal<TwoPhaseSolver>() {
+            @Override
+            protected TwoPhaseSolver initialValue() {
+                return new TwoPhaseSolver();
+            }
+        };
+        this.tokenizers = new ThreadLocal<MoveTokenizer>() {
+            @Override
+            protected MoveTokenizer initialValue() {
+                return new MoveTokenizer();
+            }
+        };
+        this.results = new ArrayBlockingQueue<Future<String>>(threadCount
+            * QUEUE_PER_THREAD);
+    }
+
+
+    /**
+     * Runs batch mode from the command line arguments following "--batch"
+     * 
+     * @param args
+     *            Optional input file and output file, each of which may be
+     *            "-" for the standard streams, which are also the defaults
+     */
+    public static void main(String[] args) {
+        String input = args.length > 0 ? args[0] : STANDARD_STREAM;
+        String output = args.length > 1 ? args[1] : STANDARD_STREAM;
+
+        try (InputStream in = input.equals(STANDARD_STREAM) ? System.in
+            : new FileInputStream(input);
+            OutputStream out = output.equals(STANDARD_STREAM) ? System.out
+                : new FileOutputStream(output)) {
+            BatchSolver batch = new BatchSolver(Runtime.getRuntime()
+                .availableProcessors());
+            batch.run(new BufferedReader(new InputStreamReader(in,
+                StandardCharsets.UTF_8)), new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        }
+        catch (IOException e) {
+            System.err.println("Batch solve failed");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Solves every line of the input, writing the results in input order and
+     * printing a summary to standard error once the input is exhausted
+     * 
+     * @param in
+     *            The lines being solved
+     * @param out
+     *            Destination of the results, flushed but not closed
+     * @throws IOException
+     *             If reading or writing fails
+     */
+    public void run(final BufferedReader in, Writer out) throws IOException {
+        // Building the shared tables before any worker needs them
+        CoordTables.getInstance();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        long startTime = System.currentTimeMillis();
+
+        Thread reader = new Thread("Batch reader") {
+            @Override
+            public void run() {
+                try {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        final String trimmed = line.trim();
+                        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                            continue;
+                        }
+                        results.put(pool.submit(new Callable<String>() {
+                            @Override
+                            public String call() {
+                                return solveLine(trimmed);
+                            }
+                        }));
+                    }
+                }
+                catch (IOException e) {
+                    readError = e;
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    putEnd();
+                }
+            }
+        };
+        reader.start();
+
+        long count = 0;
+        try {
+            Future<String> result;
+            while ((result = results.take()) != END) {
+                out.write(result.get());
+                out.write(System.lineSeparator());
+                count++;
+            }
+            out.flush();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+
+        if (readError != null) {
+            throw readError;
+        }
+
+        long time = Math.max(1, System.currentTimeMillis() - startTime);
+        System.err.println("Solved " + count + " cubes in " + time + " ms ("
+            + (count * 1000 / time) + " per second, " + threadCount
+            + " threads)");
+    }
+
+
+    /**
+     * Adds the end marker to the results queue, waiting for space if needed
+     */
+    private void putEnd() {
+        try {
+            results.put(END);
+        }
+        catch (InterruptedException e) {
+            // Only interrupted once the writer has stopped taking results
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Solves the cube described by one line of input
+     * 
+     * @param line
+     *            A sequence of turns or a facelet string
+     * @return The line followed by its solution, length, and solve time, or
+     *         by an error message if the line is not a valid cube
+     */
+    private String solveLine(String line) {
+        long startTime = System.nanoTime();
+
+        // Reporting any failure as this line's result, so one bad line never
+        // stops the rest of the batch
+        int[] solution;
+        try {
+            CubieCube cube = parseCube(line);
+            if (!cube.isValid()) {
+                return line + " -> error: The cube is not solvable";
+            }
+            solution = solvers.get().solve(cube);
+        }
+        catch (RuntimeException e) {
+            return line + " -> error: " + (e.getMessage() != null ? e
+                .getMessage() : e.toString());
+        }
+
+        long micros = (System.nanoTime() - startTime) / 1000;
+        return line + " -> " + (solution.length == 0 ? "(solved)"
+            : new Algorithm(solution).toString()) + ", " + solution.length
+            + ", " + (micros / 1000) + "." + (micros / 100 % 10) + " ms";
+    }
+
+
+    /**
+     * Reads one line of input as a cube
+     * 
+     * @param line
+     *            A sequence of turns or a facelet string
+     * @return The cube described by the line
+     * @throws IllegalArgumentException
+     *             If the line is neither valid turns nor a valid facelet
+     *             string
+     */
+    private CubieCube parseCube(String line) {
+        if (isFaceletString(line)) {
+            return new CubieCube(new CubeBuffer(line));
+        }
+
+        // Compiling the turns into one permutation, so repeated groups take
+        // no more memory or time than they do in the console
+        MoveTokenizer tokenizer = tokenizers.get();
+        if (!tokenizer.compile(line)) {
+            throw new IllegalArgumentException(tokenizer.getError()
+                + " at position " + tokenizer.getErrorPosition());
+        }
+
+        // Turning stickers rather than pieces, since slices and rotations
+        // move the centers
+        CubeBuffer cubeBuffer = new CubeBuffer();
+        tokenizer.applyTo(cubeBuffer);
+        return new CubieCube(cubeBuffer);
+    }
+
+
+    /**
+     * Checks whether a line is a facelet string rather than turns run
+     * together: it must hold exactly nine of each face letter and nothing
+     * else
+     * 
+     * @param line
+     *            The line being checked
+     * @return True if the line should be read as a facelet string
+     */
+    private static boolean isFaceletString(String line) {
+        if (line.length() != CubeBuffer.FACELET_COUNT) {
+            return false;
+        }
+
+        int[] counts = new int[CubeBuffer.FACE_NAMES.length()];
+        for (int i = 0; i < line.length(); i++) {
+            int face = CubeBuffer.FACE_NAMES.indexOf(line.charAt(i));
+            if (face < 0) {
+                return false;
+            }
+            counts[face]++;
+        }
+        for (int count : counts) {
+            if (count != CubeBuffer.FACE_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,485 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import cube.CubeBuffer;
+import cube.CubieCube;
+import utilities.Constants;
+
+/**
+ * Contains the coordinate move tables and pruning tables used by the
+ * two-phase solver. Phase 1 brings the cube into the subgroup generated by
+ * U, D, R2, L2, F2, and B2 using the twist, flip, and UD-slice coordinates;
+ * phase 2 solves the cube within that subgroup using the corner permutation,
+ * up and down edge permutation, and middle layer edge permutation.
+ * 
+ * The tables take a moment to generate, so a single shared instance is built
+ * the first time it is needed. Generated tables are saved to a TableCache
+ * file, and later runs map that file instead of generating them again.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class CoordTables {
+
+    /**
+     * The number of basic turns, and the width of every move table row
+     */
+    public static final int N_MOVE = CubeBuffer.MOVE_COUNT;
+
+    /**
+     * The turns that keep the cube within the phase 2 subgroup
+     */
+    public static final int[] PHASE2_MOVES = { Constants.MOVE_R2,
+        Constants.MOVE_L2, Constants.MOVE_U, Constants.MOVE_U_PRIME,
+        Constants.MOVE_U2, Constants.MOVE_D, Constants.MOVE_D_PRIME,
+        Constants.MOVE_D2, Constants.MOVE_F2, Constants.MOVE_B2 };
+
+    /**
+     * Every basic turn, used for phase 1 tables
+     */
+    private static final int[] ALL_MOVES = genAllMoves();
+
+    /**
+     * Identifiers for each coordinate that has a move table
+     */
+    private static final int COORD_TWIST = 0;
+    private static final int COORD_FLIP = 1;
+    private static final int COORD_UD_SLICE = 2;
+    private static final int COORD_CORNER_PERM = 3;
+    private static final int COORD_UD_EDGE_PERM = 4;
+    private static final int COORD_SLICE_PERM = 5;
+
+    /**
+     * The name of the cache file holding every table
+     */
+    private static final String CACHE_NAME = "coord.tables";
+
+    /**
+     * The shared instance, created by getInstance()
+     */
+    private static CoordTables instance;
+
+    /**
+     * Move tables, where the entry at [coordinate * N_MOVE + move] holds the
+     * coordinate reached by applying the move; the phase 2 tables only hold
+     * entries for phase 2 moves
+     */
+    private CharBuffer twistMove, flipMove, udSliceMove, cornerPermMove,
+        udEdgePermMove, slicePermMove;
+
+    /**
+     * Phase 1 pruning tables indexed by UD-slice * 2187 + twist and UD-slice *
+     * 2048 + flip
+     */
+    private PruningTable sliceTwistPrune, sliceFlipPrune;
+    /**
+     * Phase 2 pruning tables indexed by slice permutation * 40320 + corner
+     * permutation and slice permutation * 40320 + up and down edge permutation
+     */
+    private PruningTable sliceCornerPrune, sliceEdgePrune;
+
+
+    /**
+     * Creates a new CoordTables object over tables that were already
+     * generated
+     * 
+     * @param sections
+     *            Every table in the order listed by sectionSizes(), each a
+     *            little-endian buffer starting at index 0
+     */
+    private CoordTables(ByteBuffer[] sections) {
+        twistMove = sections[0].asCharBuffer();
+        flipMove = sections[1].asCharBuffer();
+        udSliceMove = sections[2].asCharBuffer();
+        cornerPermMove = sections[3].asCharBuffer();
+        udEdgePermMove = sections[4].asCharBuffer();
+        slicePermMove = sections[5].asCharBuffer();
+
+        sliceTwistPrune = new PruningTable(sections[6],
+            CubieCube.UD_SLICE_COUNT * CubieCube.TWIST_COUNT);
+        sliceFlipPrune = new PruningTable(sections[7],
+            CubieCube.UD_SLICE_COUNT * CubieCube.FLIP_COUNT);
+        sliceCornerPrune = new PruningTable(sections[8],
+            CubieCube.SLICE_PERM_COUNT * CubieCube.CORNER_PERM_COUNT);
+        sliceEdgePrune = new PruningTable(sections[9],
+            CubieCube.SLICE_PERM_COUNT * CubieCube.UD_EDGE_PERM_COUNT);
+    }
+
+
+    /**
+     * Gets the shared tables, loading them from the cache file or generating
+     * them on first use
+     * 
+     * @return The shared CoordTables object
+     */
+    public static synchronized CoordTables getInstance() {
+        if (instance == null) {
+            TableCache cache = new TableCache(CACHE_NAME, sectionSizes());
+            ByteBuffer[] sections = cache.load();
+            if (sections == null) {
+                sections = genTables();
+                cache.save(sections);
+            }
+            instance = new CoordTables(sections);
+        }
+        return instance;
+    }
+
+
+    /**
+     * Gets the length in bytes of every table, in the order they are stored
+     * 
+     * @return The length of each move table followed by each pruning table
+     */
+    private static int[] sectionSizes() {
+        return new int[] {
+            moveTableSize(CubieCube.TWIST_COUNT),
+            moveTableSize(CubieCube.FLIP_COUNT),
+            moveTableSize(CubieCube.UD_SLICE_COUNT),
+            moveTableSize(CubieCube.CORNER_PERM_COUNT),
+            moveTableSize(CubieCube.UD_EDGE_PERM_COUNT),
+            moveTableSize(CubieCube.SLICE_PERM_COUNT),
+            PruningTable.byteSize(CubieCube.UD_SLICE_COUNT
+                * CubieCube.TWIST_COUNT),
+            PruningTable.byteSize(CubieCube.UD_SLICE_COUNT
+                * CubieCube.FLIP_COUNT),
+            PruningTable.byteSize(CubieCube.SLICE_PERM_COUNT
+                * CubieCube.CORNER_PERM_COUNT),
+            PruningTable.byteSize(CubieCube.SLICE_PERM_COUNT
+                * CubieCube.UD_EDGE_PERM_COUNT) };
+    }
+
+
+    /**
+     * Gets the length in bytes of a move table
+     * 
+     * @param count
+     *            The number of values of the coordinate
+     * @return The length of the coordinate's move table
+     */
+    private static int moveTableSize(int count) {
+        return count * N_MOVE * Character.BYTES;
+    }
+
+
+    /**
+     * Generates every move table and pruning table
+     * 
+     * @return Every table in the order listed by sectionSizes()
+     */
+    private static ByteBuffer[] genTables() {
+        ByteBuffer twistMove = genMoveTable(COORD_TWIST, CubieCube.TWIST_COUNT,
+            ALL_MOVES);
+        ByteBuffer flipMove = genMoveTable(COORD_FLIP, CubieCube.FLIP_COUNT,
+            ALL_MOVES);
+        ByteBuffer udSliceMove = genMoveTable(COORD_UD_SLICE,
+            CubieCube.UD_SLICE_COUNT, ALL_MOVES);
+        ByteBuffer cornerPermMove = genMoveTable(COORD_CORNER_PERM,
+            CubieCube.CORNER_PERM_COUNT, ALL_MOVES);
+        ByteBuffer udEdgePermMove = genMoveTable(COORD_UD_EDGE_PERM,
+            CubieCube.UD_EDGE_PERM_COUNT, PHASE2_MOVES);
+        ByteBuffer slicePermMove = genMoveTable(COORD_SLICE_PERM,
+            CubieCube.SLICE_PERM_COUNT, PHASE2_MOVES);
+
+        PruningTable sliceTwistPrune = genPruningTable(
+            "phase 1 slice and twist pruning table", udSliceMove.asCharBuffer(),
+            CubieCube.UD_SLICE_COUNT, twistMove.asCharBuffer(),
+            CubieCube.TWIST_COUNT, ALL_MOVES);
+        PruningTable sliceFlipPrune = genPruningTable(
+            "phase 1 slice and flip pruning table", udSliceMove.asCharBuffer(),
+            CubieCube.UD_SLICE_COUNT, flipMove.asCharBuffer(),
+            CubieCube.FLIP_COUNT, ALL_MOVES);
+        PruningTable sliceCornerPrune = genPruningTable(
+            "phase 2 slice and corner pruning table", slicePermMove.asCharBuffer(),
+            CubieCube.SLICE_PERM_COUNT, cornerPermMove.asCharBuffer(),
+            CubieCube.CORNER_PERM_COUNT, PHASE2_MOVES);
+        PruningTable sliceEdgePrune = genPruningTable(
+            "phase 2 slice and edge pruning table", slicePermMove.asCharBuffer(),
+            CubieCube.SLICE_PERM_COUNT, udEdgePermMove.asCharBuffer(),
+            CubieCube.UD_EDGE_PERM_COUNT, PHASE2_MOVES);
+
+        return new ByteBuffer[] { twistMove, flipMove, udSliceMove,
+            cornerPermMove, udEdgePermMove, slicePermMove,
+            sliceTwistPrune.getBuffer(), sliceFlipPrune.getBuffer(),
+            sliceCornerPrune.getBuffer(), sliceEdgePrune.getBuffer() };
+    }
+
+
+    /**
+     * Lists every basic turn
+     * 
+     * @return An array of every move index
+     */
+    private static int[] genAllMoves() {
+        int[] moves = new int[N_MOVE];
+        for (int m = 0; m < N_MOVE; m++) {
+            moves[m] = m;
+        }
+        return moves;
+    }
+
+
+    /**
+     * Sets one coordinate of a cube
+     * 
+     * @param cube
+     *            The cube being modified
+     * @param coord
+     *            The identifier of the coordinate
+     * @param value
+     *            The new value of the coordinate
+     */
+    private static void setCoord(CubieCube cube, int coord, int value) {
+        switch (coord) {
+            case COORD_TWIST:
+                cube.setTwist(value);
+                break;
+            case COORD_FLIP:
+                cube.setFlip(value);
+                break;
+            case COORD_UD_SLICE:
+                cube.setUDSlice(value);
+                break;
+            case COORD_CORNER_PERM:
+                cube.setCornerPermutation(value);
+                break;
+            case COORD_UD_EDGE_PERM:
+                cube.setUDEdgePermutation(value);
+                break;
+            case COORD_SLICE_PERM:
+                cube.setSlicePermutation(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown coordinate");
+        }
+    }
+
+
+    /**
+     * Gets one coordinate of a cube
+     * 
+     * @param cube
+     *            The cube being read
+     * @param coord
+     *            The identifier of the coordinate
+     * @return The value of the coordinate
+     */
+    private static int getCoord(CubieCube cube, int coord) {
+        switch (coord) {
+            case COORD_TWIST:
+                return cube.getTwist();
+            case COORD_FLIP:
+                return cube.getFlip();
+            case COORD_UD_SLICE:
+                return cube.getUDSlice();
+            case COORD_CORNER_PERM:
+                return cube.getCornerPermutation();
+            case COORD_UD_EDGE_PERM:
+                return cube.getUDEdgePermutation();
+            case COORD_SLICE_PERM:
+                return cube.getSlicePermutation();
+            default:
+                throw new IllegalArgumentException("Unknown coordinate");
+        }
+    }
+
+
+    /**
+     * Generates the move table of a coordinate by applying every move to a
+     * cube with every coordinate value
+     * 
+     * @param coord
+     *            The identifier of the coordinate
+     * @param count
+     *            The number of values of the coordinate
+     * @param moves
+     *            The moves included in the table
+     * @return The coordinate's move table as little-endian chars
+     */
+    private static ByteBuffer genMoveTable(int coord, int count, int[] moves) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(moveTableSize(count))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        CharBuffer table = buffer.asCharBuffer();
+        CubieCube solved = new CubieCube();
+        CubieCube cube = new CubieCube();
+
+        for (int i = 0; i < count; i++) {
+            for (int m : moves) {
+                cube.set(solved);
+                setCoord(cube, coord, i);
+                cube.apply(m);
+                table.put(i * N_MOVE + m, (char)getCoord(cube, coord));
+            }
+        }
+
+        return buffer;
+    }
+
+
+    /**
+     * Generates a pruning table over the product of two coordinates with a
+     * parallel breadth-first search from the solved state, which has index 0
+     * 
+     * @param name
+     *            Description of the table printed with the progress
+     * @param outerMove
+     *            Move table of the coordinate forming the high part of the
+     *            index
+     * @param outerCount
+     *            The number of values of the outer coordinate
+     * @param innerMove
+     *            Move table of the coordinate forming the low part of the
+     *            index
+     * @param innerCount
+     *            The number of values of the inner coordinate
+     * @param moves
+     *            The moves used by the search
+     * @return The pruning table indexed by outer * innerCount + inner
+     */
+    private static PruningTable genPruningTable(
+        String name,
+        final CharBuffer outerMove,
+        int outerCount,
+        final CharBuffer innerMove,
+        final int innerCount,
+        final int[] moves) {
+        return new TableGenerator(name, outerCount * innerCount,
+            moves.length) {
+
+            @Override
+            protected void neighbors(int index, int[] next) {
+                int outer = index / innerCount;
+                int inner = index % innerCount;
+                for (int k = 0; k < moves.length; k++) {
+                    next[k] = outerMove.get(outer * N_MOVE + moves[k])
+                        * innerCount + innerMove.get(inner * N_MOVE
+                            + moves[k]);
+                }
+            }
+
+        }.generate(0);
+    }
+
+
+    /**
+     * Applies a move to the twist coordinate
+     * 
+     * @param twist
+     *            The current twist coordinate
+     * @param move
+     *            The move index
+     * @return The twist coordinate after the move
+     */
+    public int moveTwist(int twist, int move) {
+        return twistMove.get(twist * N_MOVE + move);
+    }
+
+
+    /**
+     * Applies a move to the flip coordinate
+     * 
+     * @param flip
+     *            The current flip coordinate
+     * @param move
+     *            The move index
+     * @return The flip coordinate after the move
+     */
+    public int moveFlip(int flip, int move) {
+        return flipMove.get(flip * N_MOVE + move);
+    }
+
+
+    /**
+     * Applies a move to the UD-slice coordinate
+     * 
+     * @param slice
+     *            The current UD-slice coordinate
+     * @param move
+     *            The move index
+     * @return The UD-slice coordinate after the move
+     */
+    public int moveUDSlice(int slice, int move) {
+        return udSliceMove.get(slice * N_MOVE + move);
+    }
+
+
+    /**
+     * Applies a move to the corner permutation coordinate
+     * 
+     * @param cornerPerm
+     *            The current corner permutation coordinate
+     * @param move
+     *            The move index
+     * @return The corner permutation coordinate after the move
+     */
+    public int moveCornerPerm(int cornerPerm, int move) {
+        return cornerPermMove.get(cornerPerm * N_MOVE + move);
+    }
+
+
+    /**
+     * Applies a phase 2 move to the up and down edge permutation coordinate
+     * 
+     * @param edgePerm
+     *            The current up and down edge permutation coordinate
+     * @param move
+     *            The move index, which must be a phase 2 move
+     * @return The up and down edge permutation coordinate after the move
+     */
+    public int moveUDEdgePerm(int edgePerm, int move) {
+        return udEdgePermMove.get(edgePerm * N_MOVE + move);
+    }
+
+
+    /**
+     * Applies a phase 2 move to the slice permutation coordinate
+     * 
+     * @param slicePerm
+     *            The current slice permutation coordinate
+     * @param move
+     *            The move index, which must be a phase 2 move
+     * @return The slice permutation coordinate after the move
+     */
+    public int moveSlicePerm(int slicePerm, int move) {
+        return slicePermMove.get(slicePerm * N_MOVE + move);
+    }
+
+
+    /**
+     * Gets a lower bound on the number of moves needed to finish phase 1
+     * 
+     * @param twist
+     *            The twist coordinate
+     * @param flip
+     *            The flip coordinate
+     * @param slice
+     *            The UD-slice coordinate
+     * @return The phase 1 distance estimate
+     */
+    public int phase1Distance(int twist, int flip, int slice) {
+        return Math.max(sliceTwistPrune.get(slice * CubieCube.TWIST_COUNT
+            + twist), sliceFlipPrune.get(slice * CubieCube.FLIP_COUNT
+                + flip));
+    }
+
+
+    /**
+     * Gets a lower bound on the number of moves needed to finish phase 2
+     * 
+     * @param cornerPerm
+     *            The corner permutation coordinate
+     * @param edgePerm
+     *            The up and down edge permutation coordinate
+     * @param slicePerm
+     *            The slice permutation coordinate
+     * @return The phase 2 distance estimate
+     */
+    public int phase2Distance(int cornerPerm, int edgePerm, int slicePerm) {
+        return Math.max(sliceCornerPrune.get(slicePerm
+            * CubieCube.CORNER_PERM_COUNT + cornerPerm), sliceEdgePrune.get(
+                slicePerm * CubieCube.UD_EDGE_PERM_COUNT + edgePerm));
+    }
+
+}
@@ -0,0 +1,83 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import cube.CubieCube;
+
+/**
+ * Pattern database over the permutation and twist of all eight corners, with
+ * 8! * 3^7 = 88,179,840 entries (about 44 MB at four bits each), indexed by
+ * corner permutation * 2187 + twist
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class CornerPatternDatabase extends PatternDatabase {
+
+    /**
+     * The number of entries in the database
+     */
+    public static final int SIZE = CubieCube.CORNER_PERM_COUNT
+        * CubieCube.TWIST_COUNT;
+
+    /**
+     * Move tables used to expand entries
+     */
+    private CoordTables tables;
+
+
+    /**
+     * Creates and fills a new corner pattern database
+     * 
+     * @param tables
+     *            The coordinate move tables used to expand entries
+     */
+    public CornerPatternDatabase(CoordTables tables) {
+        super(SIZE);
+        this.tables = tables;
+        generate("corner pattern database");
+    }
+
+
+    /**
+     * Creates a corner pattern database over entries that were already
+     * generated
+     * 
+     * @param data
+     *            The packed depth of every entry
+     */
+    CornerPatternDatabase(ByteBuffer data) {
+        super(SIZE, data);
+    }
+
+
+    /**
+     * Gets the index of a corner arrangement
+     * 
+     * @param cornerPerm
+     *            The corner permutation coordinate
+     * @param twist
+     *            The twist coordinate
+     * @return The index of the arrangement in the database
+     */
+    public static int index(int cornerPerm, int twist) {
+        return cornerPerm * CubieCube.TWIST_COUNT + twist;
+    }
+
+
+    @Override
+    protected int solvedIndex() {
+        return 0;
+    }
+
+
+    @Override
+    protected void neighbors(int index, int[] next) {
+        int cornerPerm = index / CubieCube.TWIST_COUNT;
+        int twist = index % CubieCube.TWIST_COUNT;
+        for (int m = 0; m < N_MOVE; m++) {
+            next[m] = index(tables.moveCornerPerm(cornerPerm, m), tables
+                .moveTwist(twist, m));
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import cube.CubieCube;
+
+/**
+ * Pattern database over the positions and flips of six of the twelve edges,
+ * with 12! / 6! * 2^6 = 42,577,920 entries (about 21 MB at four bits each).
+ * Entries are indexed by the rank of the six edges' positions, taken in edge
+ * order, times 64 plus their flips as a binary number.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class EdgePatternDatabase extends PatternDatabase {
+
+    /**
+     * The number of edges tracked by each database
+     */
+    public static final int EDGES = 6;
+    /**
+     * The number of entries in the database
+     */
+    public static final int SIZE = 665280 << EDGES; // 12! / 6! * 2^6
+
+    /**
+     * The position each edge position moves to under every basic turn,
+     * indexed by [move][position]
+     */
+    private static final byte[][] EDGE_DEST = new byte[N_MOVE][];
+    /**
+     * Whether the edge at each position is flipped by every basic turn,
+     * indexed by [move][position]
+     */
+    private static final byte[][] EDGE_FLIP = new byte[N_MOVE][];
+
+    static {
+        for (int m = 0; m < N_MOVE; m++) {
+            CubieCube move = CubieCube.getMoveCube(m);
+            EDGE_DEST[m] = new byte[CubieCube.EDGE_COUNT];
+            EDGE_FLIP[m] = new byte[CubieCube.EDGE_COUNT];
+            for (int i = 0; i < CubieCube.EDGE_COUNT; i++) {
+                EDGE_DEST[m][move.getEdge(i)] = (byte)i;
+                EDGE_FLIP[m][move.getEdge(i)] = (byte)move.getEdgeFlip(i);
+            }
+        }
+    }
+
+    /**
+     * The first of the six consecutive edges tracked by this database
+     */
+    private int firstEdge;
+
+
+    /**
+     * Creates and fills a new edge pattern database
+     * 
+     * @param firstEdge
+     *            The first of the six consecutive edges tracked, 0 for UR
+     *            through DF or 6 for DL through BR
+     */
+    public EdgePatternDatabase(int firstEdge) {
+        super(SIZE);
+        this.firstEdge = firstEdge;
+        generate("edge pattern database for edges " + firstEdge + " to "
+            + (firstEdge + EDGES - 1));
+    }
+
+
+    /**
+     * Creates an edge pattern database over entries that were already
+     * generated
+     * 
+     * @param firstEdge
+     *            The first of the six consecutive edges tracked
+     * @param data
+     *            The packed depth of every entry
+     */
+    EdgePatternDatabase(int firstEdge, ByteBuffer data) {
+        super(SIZE, data);
+        this.firstEdge = firstEdge;
+    }
+
+
+    /**
+     * Moves the tracked edge at a position
+     * 
+     * @param position
+     *            The current position of the edge
+     * @param move
+     *            The move index
+     * @return The position of the edge after the move
+     */
+    public static int movePosition(int position, int move) {
+        return EDGE_DEST[move][position];
+    }
+
+
+    /**
+     * Gets whether a move flips the edge at a position
+     * 
+     * @param position
+     *            The current position of the edge
+     * @param move
+     *            The move index
+     * @return 1 if the edge's flip changes, 0 otherwise
+     */
+    public static int moveFlip(int position, int move) {
+        return EDGE_FLIP[move][position];
+    }
+
+
+    /**
+     * Gets the index of an arrangement of the tracked edges
+     * 
+     * @param positions
+     *            The position of every edge, indexed by edge
+     * @param flips
+     *            The flip of every edge, indexed by edge
+     * @param first
+     *            The first of the tracked edges
+     * @return The index of the arrangement in the database
+     */
+    public static int index(int[] positions, int[] flips, int first) {
+        int rank = 0;
+        int used = 0;
+        int flipBits = 0;
+        for (int k = 0; k < EDGES; k++) {
+            int p = positions[first + k];
+            rank = rank * (CubieCube.EDGE_COUNT - k) + p - Integer.bitCount(
+                used & ((1 << p) - 1));
+            used |= 1 << p;
+            flipBits = (flipBits << 1) | flips[first + k];
+        }
+        return (rank << EDGES) | flipBits;
+    }
+
+
+    /**
+     * Gets the index of the arrangement of this database's edges
+     * 
+     * @param positions
+     *            The position of every edge, indexed by edge
+     * @param flips
+     *            The flip of every edge, indexed by edge
+     * @return The index of the arrangement in the database
+     */
+    public int indexOf(int[] positions, int[] flips) {
+        return index(positions, flips, firstEdge);
+    }
+
+
+    @Override
+    protected int solvedIndex() {
+        int[] solved = new int[CubieCube.EDGE_COUNT];
+        for (int e = 0; e < solved.length; e++) {
+            solved[e] = e;
+        }
+        return index(solved, new int[CubieCube.EDGE_COUNT], firstEdge);
+    }
+
+
+    @Override
+    protected void neighbors(int index, int[] next) {
+        // The six positions are packed four bits each into one int, so
+        // expanding entries needs no scratch arrays and is safe to run from
+        // several threads
+        int flipBits = index & ((1 << EDGES) - 1);
+        int rank = index >>> EDGES;
+        int digits = 0;
+        for (int k = EDGES - 1; k >= 0; k--) {
+            digits |= (rank % (CubieCube.EDGE_COUNT - k)) << (k << 2);
+            rank /= CubieCube.EDGE_COUNT - k;
+        }
+
+        // Turning each mixed-radix digit into the matching unused position
+        int positions = 0;
+        int used = 0;
+        for (int k = 0; k < EDGES; k++) {
+            int p = -1;
+            for (int skip = (digits >>> (k << 2)) & 0xF; skip >= 0; skip--) {
+                p++;
+                while ((used & (1 << p)) != 0) {
+                    p++;
+                }
+            }
+            positions |= p << (k << 2);
+            used |= 1 << p;
+        }
+
+        for (int m = 0; m < N_MOVE; m++) {
+            int nextRank = 0;
+            int nextUsed = 0;
+            int nextFlips = 0;
+            for (int k = 0; k < EDGES; k++) {
+                int position = (positions >>> (k << 2)) & 0xF;
+                int flip = (flipBits >> (EDGES - 1 - k)) & 1;
+                int p = EDGE_DEST[m][position];
+                nextRank = nextRank * (CubieCube.EDGE_COUNT - k) + p - Integer
+                    .bitCount(nextUsed & ((1 << p) - 1));
+                nextUsed |= 1 << p;
+                nextFlips = (nextFlips << 1) | (flip
+                    ^ EDGE_FLIP[m][position]);
+            }
+            next[m] = (nextRank << EDGES) | nextFlips;
+        }
+    }
+
+}
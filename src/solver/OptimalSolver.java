@@ -0,0 +1,313 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import cube.CubieCube;
+
+/**
+ * Finds provably shortest solutions using iterative deepening A* with Korf's
+ * heuristic: the largest of a corner pattern database and two six-edge
+ * pattern databases. Every bound is tried in full before the next one, so the
+ * first solution found is optimal.
+ * 
+ * The pattern databases take up about 86 MB and are generated the first time
+ * an OptimalSolver is created, which can take a few minutes. They are then
+ * saved to a TableCache file, so later runs only need to map them. An
+ * OptimalSolver object keeps its search state in fields, so each thread
+ * should use its own solver; the databases themselves are shared.
+ * 
+ * Solvers may also share a TranspositionTable recording the nodes whose
+ * subtrees failed, so that a node reached again by another sequence, in the
+ * same solve or another solver's, is not searched twice. Because of the move
+ * pruning, a failed subtree only rules out continuations of exactly the
+ * remaining length after the same face, so the face is part of the key.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class OptimalSolver {
+
+    /**
+     * No cube state needs more than 20 turns
+     */
+    private static final int MAX_LENGTH = 20;
+    /**
+     * The name of the cache file holding the pattern databases
+     */
+    private static final String CACHE_NAME = "pattern.tables";
+    /**
+     * Nodes with fewer moves remaining are cheaper to search than to look up
+     * in the transposition table
+     */
+    private static final int TABLE_MIN_TOGO = 4;
+    /**
+     * The number of bits of the corner coordinates stored in the key code;
+     * the rest go in the check value
+     */
+    private static final int KEY_CORNER_BITS = 24;
+
+    /**
+     * The shared pattern databases, created by loadDatabases()
+     */
+    private static CornerPatternDatabase cornerDatabase;
+    private static EdgePatternDatabase firstEdgeDatabase, secondEdgeDatabase;
+
+    /**
+     * The move tables used to update the corner coordinates
+     */
+    private CoordTables tables;
+    /**
+     * Table of failed subtrees shared with other solvers, or null
+     */
+    private TranspositionTable table;
+    /**
+     * The moves of the sequence currently being searched
+     */
+    private int[] moves;
+    /**
+     * Position and flip of every edge at every search depth, indexed by
+     * [depth][edge]
+     */
+    private int[][] edgePositions, edgeFlips;
+    /**
+     * The number of search nodes visited by the last solve
+     */
+    private long nodeCount;
+
+
+    /**
+     * Creates a new OptimalSolver object without a transposition table,
+     * generating the shared tables and pattern databases if they have not
+     * been generated yet
+     */
+    public OptimalSolver() {
+        this(null);
+    }
+
+
+    /**
+     * Creates a new OptimalSolver object, generating the shared tables and
+     * pattern databases if they have not been generated yet
+     * 
+     * @param table
+     *            Table of failed subtrees, which may be shared by solvers
+     *            running on other threads, or null to search without one
+     */
+    public OptimalSolver(TranspositionTable table) {
+        this.table = table;
+        this.tables = CoordTables.getInstance();
+        this.moves = new int[MAX_LENGTH];
+        this.edgePositions = new int[MAX_LENGTH + 1][CubieCube.EDGE_COUNT];
+        this.edgeFlips = new int[MAX_LENGTH + 1][CubieCube.EDGE_COUNT];
+        loadDatabases(tables);
+    }
+
+
+    /**
+     * Loads the shared pattern databases from the cache file on first use,
+     * generating and saving them if the file is missing or corrupt
+     * 
+     * @param tables
+     *            The move tables used to generate the corner database
+     */
+    private static synchronized void loadDatabases(CoordTables tables) {
+        if (cornerDatabase != null) {
+            return;
+        }
+
+        TableCache cache = new TableCache(CACHE_NAME, PruningTable.byteSize(
+            CornerPatternDatabase.SIZE), PruningTable.byteSize(
+                EdgePatternDatabase.SIZE), PruningTable.byteSize(
+                    EdgePatternDatabase.SIZE));
+        ByteBuffer[] sections = cache.load();
+        if (sections != null) {
+            cornerDatabase = new CornerPatternDatabase(sections[0]);
+            firstEdgeDatabase = new EdgePatternDatabase(0, sections[1]);
+            secondEdgeDatabase = new EdgePatternDatabase(
+                EdgePatternDatabase.EDGES, sections[2]);
+            return;
+        }
+
+        cornerDatabase = new CornerPatternDatabase(tables);
+        firstEdgeDatabase = new EdgePatternDatabase(0);
+        secondEdgeDatabase = new EdgePatternDatabase(EdgePatternDatabase.EDGES);
+        cache.save(cornerDatabase.getBuffer(), firstEdgeDatabase.getBuffer(),
+            secondEdgeDatabase.getBuffer());
+    }
+
+
+    /**
+     * Finds a shortest solution for a cube
+     * 
+     * @param cube
+     *            The cube being solved, which is not modified
+     * @return The move indices of an optimal solution
+     * @throws IllegalArgumentException
+     *             If the cube is not in a solvable state
+     */
+    public int[] solve(CubieCube cube) {
+        if (!cube.isValid()) {
+            throw new IllegalArgumentException("The cube is not solvable");
+        }
+
+        for (int i = 0; i < CubieCube.EDGE_COUNT; i++) {
+            edgePositions[0][cube.getEdge(i)] = i;
+            edgeFlips[0][cube.getEdge(i)] = cube.getEdgeFlip(i);
+        }
+        int cornerPerm = cube.getCornerPermutation();
+        int twist = cube.getTwist();
+        nodeCount = 0;
+
+        for (int bound = distance(cornerPerm, twist, 0); bound
+            <= MAX_LENGTH; bound++) {
+            if (search(cornerPerm, twist, 0, bound, -1)) {
+                return Arrays.copyOf(moves, bound);
+            }
+        }
+
+        throw new IllegalStateException("No solution within " + MAX_LENGTH
+            + " moves");
+    }
+
+
+    /**
+     * Gets the number of search nodes visited by the last solve
+     * 
+     * @return The number of nodes visited
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+
+    /**
+     * Gets a lower bound on the number of moves needed to solve a search node
+     * 
+     * @param cornerPerm
+     *            The corner permutation coordinate
+     * @param twist
+     *            The twist coordinate
+     * @param depth
+     *            The depth whose edge arrays describe the node
+     * @return The largest of the three pattern database values
+     */
+    private int distance(int cornerPerm, int twist, int depth) {
+        int corners = cornerDatabase.get(CornerPatternDatabase.index(
+            cornerPerm, twist));
+        int first = firstEdgeDatabase.get(firstEdgeDatabase.indexOf(
+            edgePositions[depth], edgeFlips[depth]));
+        int second = secondEdgeDatabase.get(secondEdgeDatabase.indexOf(
+            edgePositions[depth], edgeFlips[depth]));
+        return Math.max(corners, Math.max(first, second));
+    }
+
+
+    /**
+     * Encodes the edges of a search node in 40 bits: the rank of their
+     * permutation among the 12! permutations, then the flips of all but the
+     * last edge, which follows from the others
+     * 
+     * @param depth
+     *            The depth whose edge arrays describe the node
+     * @return The edge code
+     */
+    private long edgeCode(int depth) {
+        int[] positions = edgePositions[depth];
+        int[] flips = edgeFlips[depth];
+
+        long rank = 0;
+        long flipBits = 0;
+        for (int e = 0; e < CubieCube.EDGE_COUNT - 1; e++) {
+            int smaller = 0;
+            for (int f = e + 1; f < CubieCube.EDGE_COUNT; f++) {
+                if (positions[f] < positions[e]) {
+                    smaller++;
+                }
+            }
+            rank = rank * (CubieCube.EDGE_COUNT - e) + smaller;
+            flipBits |= (long)flips[e] << e;
+        }
+        return rank | flipBits << 29;
+    }
+
+
+    /**
+     * Searches for solutions of exactly the given remaining length
+     * 
+     * @param cornerPerm
+     *            The current corner permutation coordinate
+     * @param twist
+     *            The current twist coordinate
+     * @param depth
+     *            The number of moves made so far
+     * @param togo
+     *            The number of moves remaining
+     * @param lastFace
+     *            The face of the previous move, or -1 if there is none
+     * @return True if a solution was found
+     */
+    private boolean search(
+        int cornerPerm,
+        int twist,
+        int depth,
+        int togo,
+        int lastFace) {
+        nodeCount++;
+        if (togo == 0) {
+            return distance(cornerPerm, twist, depth) == 0;
+        }
+
+        // Skipping nodes whose subtree has already failed with the same
+        // remaining length after the same face
+        boolean useTable = table != null && togo >= TABLE_MIN_TOGO;
+        long code = 0;
+        int check = 0;
+        if (useTable) {
+            int corners = cornerPerm * CubieCube.TWIST_COUNT + twist;
+            code = edgeCode(depth) | (long)(corners & (1 << KEY_CORNER_BITS)
+                - 1) << 40;
+            check = corners >>> KEY_CORNER_BITS | (lastFace + 1) << 3;
+            if (table.get(code, check) == togo) {
+                return false;
+            }
+        }
+
+        int[] positions = edgePositions[depth];
+        int[] flips = edgeFlips[depth];
+        int[] nextPositions = edgePositions[depth + 1];
+        int[] nextFlips = edgeFlips[depth + 1];
+
+        for (int m = 0; m < CoordTables.N_MOVE; m++) {
+            // Turning the same face twice in a row is never useful, and turns
+            // of opposite faces are only tried in one order
+            int face = m / 3;
+            if (lastFace >= 0 && (face == lastFace || (face >> 1 == lastFace
+                >> 1 && face < lastFace))) {
+                continue;
+            }
+
+            for (int e = 0; e < CubieCube.EDGE_COUNT; e++) {
+                nextPositions[e] = EdgePatternDatabase.movePosition(
+                    positions[e], m);
+                nextFlips[e] = flips[e] ^ EdgePatternDatabase.moveFlip(
+                    positions[e], m);
+            }
+            int nextCorner = tables.moveCornerPerm(cornerPerm, m);
+            int nextTwist = tables.moveTwist(twist, m);
+            if (distance(nextCorner, nextTwist, depth + 1) >= togo) {
+                continue;
+            }
+
+            moves[depth] = m;
+            if (search(nextCorner, nextTwist, depth + 1, togo - 1, face)) {
+                return true;
+            }
+        }
+
+        if (useTable) {
+            table.put(code, check, togo);
+        }
+        return false;
+    }
+
+}
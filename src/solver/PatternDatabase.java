@@ -0,0 +1,124 @@
+package solver;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A pattern database holds the exact number of turns needed to solve a subset
+ * of the cube's pieces from every arrangement of that subset, which makes it
+ * an admissible heuristic for optimal search. Entries are stored four bits
+ * each in a PruningTable and filled by a TableGenerator with a breadth-first
+ * search from the solved arrangement.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public abstract class PatternDatabase {
+
+    /**
+     * The number of basic turns considered when expanding an entry
+     */
+    protected static final int N_MOVE = CoordTables.N_MOVE;
+
+    /**
+     * The packed depth of every entry
+     */
+    protected PruningTable table;
+
+
+    /**
+     * Creates a new PatternDatabase object with every entry unknown
+     * 
+     * @param size
+     *            The number of entries in the database
+     */
+    protected PatternDatabase(int size) {
+        this.table = new PruningTable(size);
+    }
+
+
+    /**
+     * Creates a new PatternDatabase object over entries that were already
+     * generated, such as a section of a TableCache file
+     * 
+     * @param size
+     *            The number of entries in the database
+     * @param data
+     *            The packed depth of every entry
+     */
+    protected PatternDatabase(int size, ByteBuffer data) {
+        this.table = new PruningTable(data, size);
+    }
+
+
+    /**
+     * Gets the index of the solved arrangement of the pieces
+     * 
+     * @return The index of the solved arrangement
+     */
+    protected abstract int solvedIndex();
+
+
+    /**
+     * Finds the index reached from an entry by every basic turn. This is
+     * called from several threads during generation, so it must not share
+     * scratch state between calls.
+     * 
+     * @param index
+     *            The index of the entry being expanded
+     * @param next
+     *            Array receiving the index reached by each move index
+     */
+    protected abstract void neighbors(int index, int[] next);
+
+
+    /**
+     * Fills the database with a parallel breadth-first search from the solved
+     * arrangement
+     * 
+     * @param name
+     *            Description of the database printed with the progress
+     */
+    protected void generate(String name) {
+        table = new TableGenerator(name, table.size(), N_MOVE) {
+
+            @Override
+            protected void neighbors(int index, int[] next) {
+                PatternDatabase.this.neighbors(index, next);
+            }
+
+        }.generate(solvedIndex());
+    }
+
+
+    /**
+     * Gets the number of turns needed to solve the pieces from an entry
+     * 
+     * @param index
+     *            The index of the entry
+     * @return The exact number of turns needed for the entry's pieces
+     */
+    public int get(int index) {
+        return table.get(index);
+    }
+
+
+    /**
+     * Gets the number of entries in the database
+     * 
+     * @return The number of entries in the database
+     */
+    public int size() {
+        return table.size();
+    }
+
+
+    /**
+     * Gets the packed entries, for writing the database to a TableCache
+     * 
+     * @return A view of the packed entries starting at index 0
+     */
+    ByteBuffer getBuffer() {
+        return table.getBuffer();
+    }
+
+}
@@ -0,0 +1,133 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A table of search depths packed two to a byte, used as a lower bound on the
+ * number of turns needed to reach a goal state from any coordinate value. The
+ * packed values are kept in a direct buffer outside of the Java heap, so even
+ * the largest tables add no garbage collection work.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class PruningTable {
+
+    /**
+     * Value stored for entries whose depth has not been found yet
+     */
+    public static final int UNKNOWN = 0xF;
+
+    /**
+     * Packed depth values, where the entry at index i is stored in the low
+     * nibble of byte i / 2 when i is even and the high nibble when i is odd
+     */
+    private ByteBuffer data;
+    /**
+     * The number of entries in the table
+     */
+    private int size;
+
+
+    /**
+     * Creates a new PruningTable object with every entry unknown
+     * 
+     * @param size
+     *            The number of entries in the table
+     */
+    public PruningTable(int size) {
+        this.size = size;
+        this.data = ByteBuffer.allocateDirect(byteSize(size)).order(
+            ByteOrder.LITTLE_ENDIAN);
+
+        // Marking every entry as unknown, eight bytes at a time
+        while (data.remaining() >= 8) {
+            data.putLong(-1L);
+        }
+        while (data.hasRemaining()) {
+            data.put((byte)0xFF);
+        }
+        data.clear();
+    }
+
+
+    /**
+     * Creates a new PruningTable object over packed values that were already
+     * generated, such as a section of a TableCache file
+     * 
+     * @param data
+     *            The packed depth values, starting at index 0
+     * @param size
+     *            The number of entries in the table
+     */
+    PruningTable(ByteBuffer data, int size) {
+        if (data.capacity() != byteSize(size)) {
+            throw new IllegalArgumentException("Expected " + byteSize(size)
+                + " bytes of table data");
+        }
+        this.size = size;
+        this.data = data;
+    }
+
+
+    /**
+     * Gets the number of bytes needed to pack a table
+     * 
+     * @param size
+     *            The number of entries in the table
+     * @return The number of bytes holding the packed entries
+     */
+    static int byteSize(int size) {
+        return (size + 1) / 2;
+    }
+
+
+    /**
+     * Gets the depth stored at an index
+     * 
+     * @param index
+     *            The index of the entry
+     * @return The entry's depth, or UNKNOWN if it has not been set
+     */
+    public int get(int index) {
+        return (data.get(index >> 1) >> ((index & 1) << 2)) & 0xF;
+    }
+
+
+    /**
+     * Sets the depth stored at an index
+     * 
+     * @param index
+     *            The index of the entry
+     * @param depth
+     *            The entry's new depth (0 to 14)
+     */
+    public void set(int index, int depth) {
+        int shift = (index & 1) << 2;
+        int b = index >> 1;
+        data.put(b, (byte)((data.get(b) & ~(0xF << shift)) | (depth
+            << shift)));
+    }
+
+
+    /**
+     * Gets the number of entries in the table
+     * 
+     * @return The number of entries in the table
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Gets the packed depth values, for writing the table to a TableCache
+     * 
+     * @return A view of the packed values starting at index 0
+     */
+    ByteBuffer getBuffer() {
+        return data.duplicate();
+    }
+
+}
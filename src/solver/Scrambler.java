@@ -0,0 +1,200 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import cube.Algorithm;
+import cube.CubieCube;
+import cube.MoveSimplifier;
+
+/**
+ * Generates random-state scrambles: a state is drawn uniformly from every
+ * state that can be reached by turning, it is solved with the two-phase
+ * solver, and the solution is reversed and inverted, so the scramble takes a
+ * solved cube to that state in about 20 turns. Unlike a sequence of random
+ * turns, every state is equally likely to come up.
+ * 
+ * A Scrambler object keeps its own solver and random stream, so each thread
+ * should use its own; generate() spreads a batch over several threads, each
+ * with a stream split from one seed. Every state is solved to the target
+ * length with no time limit, so a scramble depends only on the random
+ * stream and never on how fast the machine is.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class Scrambler {
+
+    /**
+     * Scrambles of this length or shorter are accepted immediately; asking for
+     * one turn fewer makes each scramble several times slower to find
+     */
+    public static final int TARGET_LENGTH = 22;
+
+    /**
+     * Solver used to find each scramble
+     */
+    private TwoPhaseSolver solver;
+    /**
+     * The source of random states
+     */
+    private SplittableRandom random;
+    /**
+     * The cube holding the random state being solved
+     */
+    private CubieCube cube;
+
+
+    /**
+     * Creates a new Scrambler object with a randomly seeded stream
+     */
+    public Scrambler() {
+        this(new SplittableRandom());
+    }
+
+
+    /**
+     * Creates a new Scrambler object, generating the shared solver tables if
+     * they have not been generated yet
+     * 
+     * @param random
+     *            The source of random states, which is only used by this
+     *            scrambler
+     */
+    public Scrambler(SplittableRandom random) {
+        this.solver = new TwoPhaseSolver();
+        this.random = random;
+        this.cube = new CubieCube();
+    }
+
+
+    /**
+     * Prints random-state scrambles from the command line arguments following
+     * "--scramble", one per line on standard output
+     * 
+     * @param args
+     *            The number of scrambles, which defaults to 1, and an optional
+     *            seed
+     */
+    public static void main(String[] args) {
+        try {
+            int count = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+            long seed = args.length > 1 ? Long.parseLong(args[1])
+                : System.nanoTime();
+
+            long startTime = System.currentTimeMillis();
+            int[][] scrambles = generate(count, Runtime.getRuntime()
+                .availableProcessors(), seed);
+            long time = Math.max(1, System.currentTimeMillis() - startTime);
+
+            StringBuilder out = new StringBuilder();
+            for (int[] scramble : scrambles) {
+                out.append(Algorithm.toNotation(scramble)).append(System
+                    .lineSeparator());
+            }
+            System.out.print(out);
+            System.out.flush();
+            System.err.println("Generated " + count + " scrambles in " + time
+                + " ms (" + (count * 1000L / time) + " per second)");
+        }
+        catch (NumberFormatException e) {
+            System.err.println("Usage: --scramble [count] [seed]");
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Generates a scramble for a uniformly random state
+     * 
+     * @return The move indices of the scramble, which only uses basic turns
+     */
+    public int[] next() {
+        cube.randomize(random);
+        return invert(solver.solve(cube, TARGET_LENGTH,
+            TwoPhaseSolver.NO_TIMEOUT));
+    }
+
+
+    /**
+     * Finds the sequence of turns that undoes another
+     * 
+     * @param moves
+     *            The move indices of the turns being undone
+     * @return A new array holding the inverse of every turn in reverse order
+     */
+    public static int[] invert(int[] moves) {
+        int[] inverse = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            int move = moves[moves.length - 1 - i];
+            inverse[i] = MoveSimplifier.withQuarters(move, 4 - MoveSimplifier
+                .quarters(move));
+        }
+        return inverse;
+    }
+
+
+    /**
+     * Generates a batch of scrambles in parallel; the same seed and thread
+     * count always give the same scrambles
+     * 
+     * @param count
+     *            The number of scrambles
+     * @param threadCount
+     *            The number of worker threads, each of which generates an
+     *            equal share of the batch from its own random stream
+     * @param seed
+     *            The seed the streams are split from
+     * @return The move indices of every scramble
+     */
+    public static int[][] generate(int count, int threadCount, long seed) {
+        // Building the shared tables before any worker needs them
+        CoordTables.getInstance();
+
+        final int[][] scrambles = new int[count][];
+        threadCount = Math.max(1, Math.min(threadCount, count));
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            for (int t = 0; t < threadCount; t++) {
+                final int start = (int)((long)count * t / threadCount);
+                final int end = (int)((long)count * (t + 1) / threadCount);
+                final SplittableRandom stream = root.split();
+                tasks.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        Scrambler scrambler = new Scrambler(stream);
+                        for (int i = start; i < end; i++) {
+                            scrambles[i] = scrambler.next();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scramble generation interrupted");
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        return scrambles;
+    }
+
+}
@@ -0,0 +1,294 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Stores generated solver tables in a binary file under the tables directory,
+ * so later runs can memory-map them instead of generating them again. Loaded
+ * tables are read-only slices of the mapping, so they are never copied onto
+ * the heap and several processes reading the same file share its pages.
+ * 
+ * A file starts with a header holding a magic number, the format version, the
+ * number of sections, a CRC32 checksum of everything after the header, and
+ * the length of every section. Each section starts on an eight-byte boundary
+ * and all multi-byte values are little-endian. A file whose header does not
+ * match the expected sections or whose checksum is wrong is ignored, and the
+ * caller regenerates the tables.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class TableCache {
+
+    /**
+     * The directory holding every cache file, relative to the working
+     * directory like the shaders directory
+     */
+    public static final String DIRECTORY = "tables";
+    /**
+     * The format version, which must change whenever the layout of any
+     * cached table changes so that old files are regenerated
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The first four bytes of every cache file
+     */
+    private static final int MAGIC = 0x54425543; // "CUBT"
+    /**
+     * The byte order of every cached table
+     */
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /**
+     * The size of the header before the section lengths
+     */
+    private static final int FIXED_HEADER_SIZE = 24;
+
+    /**
+     * The location of the cache file
+     */
+    private Path path;
+    /**
+     * The expected length in bytes of every section
+     */
+    private int[] sectionSizes;
+
+
+    /**
+     * Creates a new TableCache object for one cache file
+     * 
+     * @param name
+     *            The name of the file within the tables directory
+     * @param sectionSizes
+     *            The length in bytes of every table stored in the file
+     */
+    public TableCache(String name, int... sectionSizes) {
+        this.path = Paths.get(DIRECTORY, name);
+        this.sectionSizes = sectionSizes.clone();
+    }
+
+
+    /**
+     * Rounds a length up to the next eight-byte boundary
+     * 
+     * @param length
+     *            The length being rounded
+     * @return The smallest multiple of eight not less than the length
+     */
+    private static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+
+    /**
+     * Gets the length of the header, including the section lengths
+     * 
+     * @return The offset of the first section
+     */
+    private long headerSize() {
+        return align(FIXED_HEADER_SIZE + 4L * sectionSizes.length);
+    }
+
+
+    /**
+     * Gets the length of a complete cache file
+     * 
+     * @return The expected file length in bytes
+     */
+    private long fileSize() {
+        long size = headerSize();
+        for (int length : sectionSizes) {
+            size += align(length);
+        }
+        return size;
+    }
+
+
+    /**
+     * Gets the location of the cache file
+     * 
+     * @return The path of the cache file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+
+    /**
+     * Maps the cache file and checks its header and checksum
+     * 
+     * @return A read-only, little-endian buffer over every section, or null if
+     *         the file is missing, from another version, or corrupt
+     */
+    public ByteBuffer[] load() {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.READ)) {
+            if (channel.size() != fileSize()) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize());
+        }
+        catch (IOException e) {
+            return null;
+        }
+        map.order(ORDER);
+
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(
+            8) != sectionSizes.length) {
+            return null;
+        }
+        for (int i = 0; i < sectionSizes.length; i++) {
+            if (map.getInt(FIXED_HEADER_SIZE + 4 * i) != sectionSizes[i]) {
+                return null;
+            }
+        }
+
+        ByteBuffer payload = map.duplicate();
+        payload.position((int)headerSize());
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (map.getLong(16) != crc.getValue()) {
+            return null;
+        }
+
+        ByteBuffer[] sections = new ByteBuffer[sectionSizes.length];
+        long offset = headerSize();
+        for (int i = 0; i < sections.length; i++) {
+            ByteBuffer section = map.duplicate();
+            section.position((int)offset);
+            section.limit((int)offset + sectionSizes[i]);
+            sections[i] = section.slice().order(ORDER);
+            offset += align(sectionSizes[i]);
+        }
+
+        return sections;
+    }
+
+
+    /**
+     * Writes tables to the cache file. The file is written under a temporary
+     * name and then moved into place, so other processes never see a
+     * partially written file. Failing to write the cache is reported but is
+     * not fatal, since the tables are already in memory.
+     * 
+     * @param sections
+     *            The tables to store, in the order given to the constructor,
+     *            each holding little-endian data from index 0
+     */
+    public void save(ByteBuffer... sections) {
+        if (sections.length != sectionSizes.length) {
+            throw new IllegalArgumentException("Expected "
+                + sectionSizes.length + " sections");
+        }
+
+        ByteBuffer padding = ByteBuffer.allocate(8);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < sections.length; i++) {
+            if (sections[i].capacity() != sectionSizes[i]) {
+                throw new IllegalArgumentException("Section " + i
+                    + " has the wrong length");
+            }
+            crc.update(whole(sections[i]));
+            padding.clear().limit((int)(align(sectionSizes[i])
+                - sectionSizes[i]));
+            crc.update(padding);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate((int)headerSize()).order(
+            ORDER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sectionSizes.length)
+            .putInt(0).putLong(crc.getValue());
+        for (int length : sectionSizes) {
+            header.putInt(length);
+        }
+        header.clear();
+
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), path.getFileName()
+                .toString(), ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.WRITE)) {
+                writeFully(channel, header);
+                for (int i = 0; i < sections.length; i++) {
+                    writeFully(channel, whole(sections[i]));
+                    padding.clear().limit((int)(align(sectionSizes[i])
+                        - sectionSizes[i]));
+                    writeFully(channel, padding);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Failed to write table cache " + path);
+            e.printStackTrace();
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                }
+                catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Gets a view of every byte of a buffer that does not disturb the
+     * buffer's own position
+     * 
+     * @param buffer
+     *            The buffer being viewed
+     * @return A duplicate of the buffer covering index 0 to its capacity
+     */
+    private static ByteBuffer whole(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        view.clear();
+        return view;
+    }
+
+
+    /**
+     * Writes the remaining bytes of a buffer to a channel
+     * 
+     * @param channel
+     *            The channel being written
+     * @param buffer
+     *            The bytes being written
+     * @throws IOException
+     *             If the write fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fills a pruning table with a breadth-first search from the solved state,
+ * spreading every depth across the threads of the common ForkJoinPool. Each
+ * depth is split into ranges of entries that are scanned by separate tasks,
+ * and entries are claimed with compare-and-set on the word holding their
+ * nibble, so two threads reaching the same entry never overwrite each other.
+ * 
+ * Each depth is found either by expanding every entry of the previous depth,
+ * or, once most entries are known, by checking every unknown entry for a
+ * neighbor at the previous depth, whichever touches fewer entries. The number
+ * of entries found and the time taken are printed to standard error for
+ * every depth, keeping standard output free for the batch and scramble
+ * modes.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public abstract class TableGenerator {
+
+    /**
+     * The number of words, eight entries each, scanned by a single task
+     */
+    private static final int CHUNK_WORDS = 1 << 12;
+
+    /**
+     * Description of the table printed with the progress
+     */
+    private String name;
+    /**
+     * The number of entries in the table
+     */
+    private int size;
+    /**
+     * The number of neighbors of every entry
+     */
+    private int moveCount;
+    /**
+     * The entries being generated, eight nibbles to a word in the same order
+     * as the bytes of a PruningTable read as little-endian ints
+     */
+    private AtomicIntegerArray words;
+
+
+    /**
+     * Creates a new TableGenerator object
+     * 
+     * @param name
+     *            Description of the table printed with the progress
+     * @param size
+     *            The number of entries in the table
+     * @param moveCount
+     *            The number of neighbors found by neighbors()
+     */
+    protected TableGenerator(String name, int size, int moveCount) {
+        this.name = name;
+        this.size = size;
+        this.moveCount = moveCount;
+    }
+
+
+    /**
+     * Finds the index reached from an entry by every move. This is called from
+     * several threads at once, so it must not share scratch state between
+     * calls.
+     * 
+     * @param index
+     *            The index of the entry being expanded
+     * @param next
+     *            Array receiving the index reached by each move
+     */
+    protected abstract void neighbors(int index, int[] next);
+
+
+    /**
+     * Runs the search and packs the result into a new table
+     * 
+     * @param solvedIndex
+     *            The index of the solved state, which has depth 0
+     * @return The generated pruning table
+     */
+    public PruningTable generate(int solvedIndex) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.err.println("Generating " + name + " (" + size + " entries, "
+            + pool.getParallelism() + " threads)");
+        long startTime = System.currentTimeMillis();
+
+        words = new AtomicIntegerArray((size + 7) >>> 3);
+        for (int w = 0; w < words.length(); w++) {
+            words.set(w, -1);
+        }
+        setIfUnknown(solvedIndex, 0);
+
+        long done = 1;
+        long frontier = 1;
+        for (int depth = 0; done < size && frontier > 0; depth++) {
+            long depthStart = System.currentTimeMillis();
+            boolean backward = frontier > size - done;
+            long found = pool.invoke(new LayerTask(0, words.length(), depth,
+                backward));
+
+            done += found;
+            frontier = found;
+            System.err.println("  depth " + (depth + 1) + ": " + found
+                + " entries, " + (backward ? "backward" : "forward")
+                + ", " + (System.currentTimeMillis() - depthStart) + " ms");
+        }
+
+        PruningTable table = new PruningTable(size);
+        ByteBuffer data = table.getBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        for (int w = 0; w < words.length(); w++) {
+            int word = words.get(w);
+            if ((w << 2) + 4 <= data.capacity()) {
+                data.putInt(w << 2, word);
+                continue;
+            }
+            // The last word may extend past the end of the table
+            for (int b = w << 2; b < data.capacity(); b++) {
+                data.put(b, (byte)(word >>> ((b & 3) << 3)));
+            }
+        }
+        words = null;
+
+        System.err.println("  done in " + (System.currentTimeMillis()
+            - startTime) + " ms");
+        return table;
+    }
+
+
+    /**
+     * Gets the depth of an entry
+     * 
+     * @param index
+     *            The index of the entry
+     * @return The entry's depth, or UNKNOWN if it has not been found
+     */
+    private int getDepth(int index) {
+        return (words.get(index >>> 3) >>> ((index & 7) << 2)) & 0xF;
+    }
+
+
+    /**
+     * Sets the depth of an entry if no other thread has set it first
+     * 
+     * @param index
+     *            The index of the entry
+     * @param depth
+     *            The entry's depth
+     * @return True if the entry was unknown and is now set
+     */
+    private boolean setIfUnknown(int index, int depth) {
+        int w = index >>> 3;
+        int shift = (index & 7) << 2;
+        while (true) {
+            int old = words.get(w);
+            if (((old >>> shift) & 0xF) != PruningTable.UNKNOWN) {
+                return false;
+            }
+            if (words.compareAndSet(w, old, (old & ~(0xF << shift))
+                | (depth << shift))) {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Finds the entries of one depth within a range of words, splitting the
+     * range in half until it is small enough to scan directly
+     */
+    private class LayerTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first word scanned and the word after the last
+         */
+        private int start, end;
+        /**
+         * The depth being expanded, whose neighbors are at depth + 1
+         */
+        private int depth;
+        /**
+         * True to check unknown entries instead of expanding known ones
+         */
+        private boolean backward;
+
+
+        /**
+         * Creates a new LayerTask object
+         * 
+         * @param start
+         *            The first word scanned
+         * @param end
+         *            The word after the last word scanned
+         * @param depth
+         *            The depth being expanded
+         * @param backward
+         *            True to check unknown entries instead of expanding known
+         *            ones
+         */
+        LayerTask(int start, int end, int depth, boolean backward) {
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+            this.backward = backward;
+        }
+
+
+        @Override
+        protected Long compute() {
+            if (end - start > CHUNK_WORDS) {
+                int middle = (start + end) >>> 1;
+                LayerTask left = new LayerTask(start, middle, depth, backward);
+                left.fork();
+                long found = new LayerTask(middle, end, depth, backward)
+                    .compute();
+                return found + left.join();
+            }
+
+            int[] next = new int[moveCount];
+            long found = 0;
+            for (int w = start; w < end; w++) {
+                // Entries at the current depth never change while it is
+                // expanded, and unknown entries are only set by the task
+                // that owns them when searching backward, so one read of the
+                // word is enough for all eight entries
+                int word = words.get(w);
+                if (!backward && word == -1) {
+                    continue;
+                }
+
+                for (int j = 0; j < 8; j++) {
+                    int i = (w << 3) + j;
+                    if (i >= size) {
+                        break;
+                    }
+                    int value = (word >>> (j << 2)) & 0xF;
+
+                    if (backward) {
+                        if (value != PruningTable.UNKNOWN) {
+                            continue;
+                        }
+
+                        neighbors(i, next);
+                        for (int m = 0; m < moveCount; m++) {
+                            if (getDepth(next[m]) == depth) {
+                                setIfUnknown(i, depth + 1);
+                                found++;
+                                break;
+                            }
+                        }
+                    }
+                    else if (value == depth) {
+                        neighbors(i, next);
+                        for (int m = 0; m < moveCount; m++) {
+                            if (setIfUnknown(next[m], depth + 1)) {
+                                found++;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return found;
+        }
+
+    }
+
+}
@@ -0,0 +1,279 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table, shared by every search thread, recording the states
+ * whose subtrees have already been searched without finding a solution, so
+ * that a subtree searched once, by any thread, is not searched again. Every
+ * entry is a single long of an AtomicLongArray written with compare-and-set,
+ * so no lock is ever taken and a reader never sees half of an entry.
+ * 
+ * A key is a 64-bit code plus a check value of up to CHECK_BITS bits. The
+ * code is mixed by an invertible function whose low bits select the slot and
+ * whose remaining bits are stored in the entry along with the check value
+ * and a depth, so every lookup verifies the whole key: a different state
+ * holding the slot is counted as a collision and never mistaken for a hit.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class TranspositionTable {
+
+    /**
+     * Replacement policy keeping the entry with the greater depth when
+     * another state maps to its slot
+     */
+    public static final int DEPTH_PREFERRED = 0;
+    /**
+     * Replacement policy always overwriting the slot with the newest entry
+     */
+    public static final int ALWAYS_REPLACE = 1;
+    /**
+     * Value returned by get() when the key is not in the table
+     */
+    public static final int NOT_FOUND = -1;
+    /**
+     * The number of bits of the check value stored with every key
+     */
+    public static final int CHECK_BITS = 6;
+    /**
+     * The greatest depth an entry can hold
+     */
+    public static final int MAX_DEPTH = 30;
+
+    /**
+     * The number of bits holding the depth of an entry, which is stored plus
+     * one so that an empty slot holds zero
+     */
+    private static final int DEPTH_BITS = 5;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    /**
+     * The smallest and largest number of slots as powers of two; the key bits
+     * left after selecting a slot must fit in an entry with the check value
+     * and the depth
+     */
+    private static final int MIN_SIZE_BITS = CHECK_BITS + DEPTH_BITS;
+    private static final int MAX_SIZE_BITS = 30;
+
+    /**
+     * Every slot's entry: the key bits not used to select the slot, then the
+     * check value, then the depth plus one, or zero if the slot is empty
+     */
+    private AtomicLongArray entries;
+    /**
+     * The number of slots as a power of two
+     */
+    private int sizeBits;
+    /**
+     * DEPTH_PREFERRED or ALWAYS_REPLACE
+     */
+    private int policy;
+    /**
+     * The number of lookups that found their key, found an empty slot, and
+     * found another key in the slot
+     */
+    private LongAdder hits, misses, collisions;
+
+
+    /**
+     * Creates a new, empty TranspositionTable object
+     * 
+     * @param sizeBits
+     *            The number of slots as a power of two, from 11 to 30; each
+     *            slot takes eight bytes
+     * @param policy
+     *            The replacement policy, DEPTH_PREFERRED or ALWAYS_REPLACE
+     */
+    public TranspositionTable(int sizeBits, int policy) {
+        if (sizeBits < MIN_SIZE_BITS || sizeBits > MAX_SIZE_BITS) {
+            throw new IllegalArgumentException("Table size must be between 2^"
+                + MIN_SIZE_BITS + " and 2^" + MAX_SIZE_BITS + " slots");
+        }
+        if (policy != DEPTH_PREFERRED && policy != ALWAYS_REPLACE) {
+            throw new IllegalArgumentException("Unknown replacement policy "
+                + policy);
+        }
+        this.entries = new AtomicLongArray(1 << sizeBits);
+        this.sizeBits = sizeBits;
+        this.policy = policy;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.collisions = new LongAdder();
+    }
+
+
+    /**
+     * Mixes a key code with an invertible function, so that no two codes
+     * share both a slot and the bits stored in it
+     * 
+     * @param code
+     *            The 64-bit code of the key
+     * @return The mixed code
+     */
+    private static long mix(long code) {
+        code ^= code >>> 33;
+        code *= 0xFF51AFD7ED558CCDL;
+        code ^= code >>> 33;
+        code *= 0xC4CEB9FE1A85EC53L;
+        return code ^ code >>> 33;
+    }
+
+
+    /**
+     * Finds the bits stored in an entry to identify its key
+     * 
+     * @param mixed
+     *            The mixed code of the key
+     * @param check
+     *            The check value of the key
+     * @return The key's bits above the depth
+     */
+    private long tag(long mixed, int check) {
+        return mixed >>> sizeBits << CHECK_BITS | check;
+    }
+
+
+    /**
+     * Rejects a check value that would spill into the key bits of an entry,
+     * where it could make two different keys look the same
+     * 
+     * @param check
+     *            The check value of a key
+     * @throws IllegalArgumentException
+     *             If the value does not fit in CHECK_BITS bits
+     */
+    private static void checkValue(int check) {
+        if (check >>> CHECK_BITS != 0) {
+            throw new IllegalArgumentException("Check value " + check
+                + " does not fit in " + CHECK_BITS + " bits");
+        }
+    }
+
+
+    /**
+     * Looks up the depth recorded for a key
+     * 
+     * @param code
+     *            The 64-bit code of the key
+     * @param check
+     *            The check value of the key, below 2^CHECK_BITS
+     * @return The depth stored with the key, or NOT_FOUND
+     */
+    public int get(long code, int check) {
+        checkValue(check);
+        long mixed = mix(code);
+        long entry = entries.get((int)(mixed & (1L << sizeBits) - 1));
+        if (entry == 0) {
+            misses.increment();
+            return NOT_FOUND;
+        }
+        if (entry >>> DEPTH_BITS != tag(mixed, check)) {
+            collisions.increment();
+            return NOT_FOUND;
+        }
+
+        hits.increment();
+        return (int)(entry & DEPTH_MASK) - 1;
+    }
+
+
+    /**
+     * Records a depth for a key, unless the replacement policy keeps the
+     * entry of another key in its slot
+     * 
+     * @param code
+     *            The 64-bit code of the key
+     * @param check
+     *            The check value of the key, below 2^CHECK_BITS
+     * @param depth
+     *            The depth being recorded, from 0 to MAX_DEPTH
+     */
+    public void put(long code, int check, int depth) {
+        checkValue(check);
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth " + depth
+                + " is out of range");
+        }
+
+        long mixed = mix(code);
+        int slot = (int)(mixed & (1L << sizeBits) - 1);
+        long tag = tag(mixed, check);
+        long entry = tag << DEPTH_BITS | depth + 1;
+        while (true) {
+            long old = entries.get(slot);
+            if (old == entry || old != 0 && policy == DEPTH_PREFERRED
+                && old >>> DEPTH_BITS != tag && (old & DEPTH_MASK) > depth
+                    + 1) {
+                return;
+            }
+            if (entries.compareAndSet(slot, old, entry)) {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Empties every slot; this must not be called while other threads are
+     * using the table
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, 0);
+        }
+    }
+
+
+    /**
+     * Gets the number of lookups that found their key
+     * 
+     * @return The number of hits since the counters were reset
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+
+    /**
+     * Gets the number of lookups that found an empty slot
+     * 
+     * @return The number of misses since the counters were reset
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+
+    /**
+     * Gets the number of lookups that found the entry of another key in
+     * their slot
+     * 
+     * @return The number of collisions since the counters were reset
+     */
+    public long getCollisionCount() {
+        return collisions.sum();
+    }
+
+
+    /**
+     * Sets the hit, miss, and collision counters back to zero
+     */
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+
+    /**
+     * Gets the number of slots in the table
+     * 
+     * @return The number of slots, a power of two
+     */
+    public int capacity() {
+        return entries.length();
+    }
+
+}
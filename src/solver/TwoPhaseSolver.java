@@ -0,0 +1,371 @@
+package solver;
+
+import cube.CubieCube;
+import cube.MoveSimplifier;
+
+/**
+ * Finds short solutions for any valid cube state using Kociemba's two-phase
+ * algorithm. Phase 1 searches for move sequences that bring the cube into the
+ * subgroup generated by U, D, R2, L2, F2, and B2, and phase 2 solves the cube
+ * within that subgroup. Both phases are iterative deepening searches over
+ * coordinate move tables, pruned with the tables in CoordTables. Longer
+ * phase 1 sequences are tried until the total length reaches the target
+ * length or the time limit runs out, but every phase 1 sequence of up to
+ * EXHAUSTIVE_PHASE1_DEPTH turns is tried first, so a state a few turns from
+ * solved is never given a long detour just because it is within the target.
+ * 
+ * A TwoPhaseSolver object keeps its search state in fields, so each thread
+ * should use its own solver; the tables themselves are shared.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class TwoPhaseSolver {
+
+    /**
+     * Solutions of this length or shorter are returned immediately
+     */
+    public static final int DEFAULT_TARGET_LENGTH = 21;
+    /**
+     * Time after which the best solution found so far is returned
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+    /**
+     * Time limit that never passes, so the search only stops at the target
+     * length and its result depends on nothing but the cube
+     */
+    public static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+    /**
+     * The longest solution the solver will ever consider
+     */
+    private static final int MAX_LENGTH = 30;
+    /**
+     * The longest phase 2 search attempted after short phase 1 sequences;
+     * longer phase 2 searches are only attempted once phase 1 sequences are
+     * long enough that every state is reached
+     */
+    private static final int SHORT_PHASE2_LIMIT = 12;
+    private static final int LONG_PHASE2_LIMIT = 18;
+    private static final int LONG_PHASE1_DEPTH = 13;
+    /**
+     * Phase 1 sequences up to this length are all searched before a solution
+     * within the target length stops the search; ending phase 1 with the
+     * wrong direction of a turn forces phase 2 to work around that face, so
+     * the first solution found for a nearly solved state can be far longer
+     * than the state needs; searching them costs nothing for random states,
+     * whose phase 1 sequences are all longer
+     */
+    private static final int EXHAUSTIVE_PHASE1_DEPTH = 5;
+    /**
+     * The number of search nodes visited between checks of the time limit
+     */
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    /**
+     * The move and pruning tables used by the search
+     */
+    private CoordTables tables;
+    /**
+     * The moves of the sequence currently being searched
+     */
+    private int[] moves;
+    /**
+     * The shortest solution found so far and its length
+     */
+    private int[] bestMoves;
+    private int bestLength;
+    /**
+     * The cube being solved, and a scratch cube used to find the phase 2
+     * coordinates at the end of phase 1
+     */
+    private CubieCube start, scratch;
+    /**
+     * Search limits for the current solve
+     */
+    private int targetLength;
+    private long deadline;
+    /**
+     * Merges turns where phase 1 and phase 2 meet, if any can be merged
+     */
+    private MoveSimplifier simplifier;
+    /**
+     * Number of search nodes visited since the time limit was last checked
+     */
+    private int nodeCount;
+    /**
+     * Set once the time limit has passed
+     */
+    private boolean timedOut;
+
+
+    /**
+     * Creates a new TwoPhaseSolver object, generating the shared tables if
+     * they have not been generated yet
+     */
+    public TwoPhaseSolver() {
+        this.tables = CoordTables.getInstance();
+        this.moves = new int[MAX_LENGTH];
+        this.bestMoves = new int[MAX_LENGTH];
+        this.scratch = new CubieCube();
+        this.simplifier = new MoveSimplifier();
+    }
+
+
+    /**
+     * Solves a cube using the default target length and time limit
+     * 
+     * @param cube
+     *            The cube being solved, which is not modified
+     * @return The move indices of the solution
+     */
+    public int[] solve(CubieCube cube) {
+        return solve(cube, DEFAULT_TARGET_LENGTH, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+
+    /**
+     * Solves a cube, searching until a solution no longer than the target
+     * length is found, once every short phase 1 sequence has been tried, or
+     * until the time limit passes; if no solution has been found when the time
+     * limit passes, the search continues until the first one is found
+     * 
+     * @param cube
+     *            The cube being solved, which is not modified
+     * @param targetLength
+     *            The solution length at which the search stops
+     * @param timeoutMillis
+     *            The time limit in milliseconds, or NO_TIMEOUT
+     * @return The move indices of the shortest solution found, simplified
+     *         (see MoveSimplifier)
+     * @throws IllegalArgumentException
+     *             If the cube is not in a solvable state
+     */
+    public int[] solve(CubieCube cube, int targetLength, long timeoutMillis) {
+        if (!cube.isValid()) {
+            throw new IllegalArgumentException("The cube is not solvable");
+        }
+
+        this.start = cube;
+        this.targetLength = targetLength;
+        long now = System.currentTimeMillis();
+        this.deadline = timeoutMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE
+            : now + timeoutMillis;
+        this.bestLength = MAX_LENGTH + 1;
+        this.nodeCount = 0;
+        this.timedOut = false;
+
+        int twist = cube.getTwist();
+        int flip = cube.getFlip();
+        int slice = cube.getUDSlice();
+
+        for (int depth = tables.phase1Distance(twist, flip,
+            slice); depth < bestLength; depth++) {
+            if (phase1(twist, flip, slice, 0, depth, -1)) {
+                break;
+            }
+        }
+
+        simplifier.simplify(bestMoves, bestLength);
+        return simplifier.toArray();
+    }
+
+
+    /**
+     * Checks whether a move may follow the previous move; turning the same
+     * face twice in a row is never useful, and turns of opposite faces are
+     * only tried in one order since they commute
+     * 
+     * @param face
+     *            The face of the move being considered
+     * @param lastFace
+     *            The face of the previous move, or -1 if there is none
+     * @return True if the move should be searched
+     */
+    private static boolean allowed(int face, int lastFace) {
+        return lastFace < 0 || (face != lastFace && (face >> 1 != lastFace >> 1
+            || face > lastFace));
+    }
+
+
+    /**
+     * Checks whether a move belongs to the phase 2 move set
+     * 
+     * @param move
+     *            The move index
+     * @return True if the move is a phase 2 move
+     */
+    private static boolean isPhase2Move(int move) {
+        for (int m : CoordTables.PHASE2_MOVES) {
+            if (m == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Checks the time limit every few thousand search nodes
+     * 
+     * @return True if the time limit has passed and a solution is known
+     */
+    private boolean outOfTime() {
+        if (++nodeCount >= TIME_CHECK_INTERVAL) {
+            nodeCount = 0;
+            timedOut = System.currentTimeMillis() > deadline;
+        }
+        return timedOut && bestLength <= MAX_LENGTH;
+    }
+
+
+    /**
+     * Searches for phase 1 sequences of exactly the given remaining length
+     * 
+     * @param twist
+     *            The current twist coordinate
+     * @param flip
+     *            The current flip coordinate
+     * @param slice
+     *            The current UD-slice coordinate
+     * @param depth
+     *            The number of moves made so far
+     * @param togo
+     *            The number of moves remaining in phase 1
+     * @param lastFace
+     *            The face of the previous move, or -1 if there is none
+     * @return True if the whole search should stop
+     */
+    private boolean phase1(
+        int twist,
+        int flip,
+        int slice,
+        int depth,
+        int togo,
+        int lastFace) {
+        if (togo == 0) {
+            // A phase 1 sequence ending in a phase 2 move was already found
+            // with a shorter phase 1
+            if (depth > 0 && isPhase2Move(moves[depth - 1])) {
+                return false;
+            }
+            return startPhase2(depth);
+        }
+        if (outOfTime()) {
+            return true;
+        }
+
+        for (int m = 0; m < CoordTables.N_MOVE; m++) {
+            int face = m / 3;
+            if (!allowed(face, lastFace)) {
+                continue;
+            }
+
+            int nextTwist = tables.moveTwist(twist, m);
+            int nextFlip = tables.moveFlip(flip, m);
+            int nextSlice = tables.moveUDSlice(slice, m);
+            if (tables.phase1Distance(nextTwist, nextFlip, nextSlice) >= togo) {
+                continue;
+            }
+
+            moves[depth] = m;
+            if (phase1(nextTwist, nextFlip, nextSlice, depth + 1, togo - 1,
+                face)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Runs phase 2 from the end of a phase 1 sequence, recording any solution
+     * shorter than the best one found so far
+     * 
+     * @param depth
+     *            The length of the phase 1 sequence
+     * @return True if the whole search should stop
+     */
+    private boolean startPhase2(int depth) {
+        scratch.set(start);
+        for (int i = 0; i < depth; i++) {
+            scratch.apply(moves[i]);
+        }
+
+        int cornerPerm = scratch.getCornerPermutation();
+        int edgePerm = scratch.getUDEdgePermutation();
+        int slicePerm = scratch.getSlicePermutation();
+        int lastFace = depth > 0 ? moves[depth - 1] / 3 : -1;
+
+        int limit = Math.min(bestLength - 1 - depth,
+            depth >= LONG_PHASE1_DEPTH ? LONG_PHASE2_LIMIT
+                : SHORT_PHASE2_LIMIT);
+        for (int togo = tables.phase2Distance(cornerPerm, edgePerm,
+            slicePerm); togo <= limit; togo++) {
+            if (phase2(cornerPerm, edgePerm, slicePerm, depth, togo,
+                lastFace)) {
+                bestLength = depth + togo;
+                System.arraycopy(moves, 0, bestMoves, 0, bestLength);
+                break;
+            }
+        }
+
+        return bestLength <= targetLength && depth > EXHAUSTIVE_PHASE1_DEPTH
+            || outOfTime();
+    }
+
+
+    /**
+     * Searches for phase 2 sequences of exactly the given remaining length
+     * 
+     * @param cornerPerm
+     *            The current corner permutation coordinate
+     * @param edgePerm
+     *            The current up and down edge permutation coordinate
+     * @param slicePerm
+     *            The current slice permutation coordinate
+     * @param depth
+     *            The number of moves made so far, including phase 1
+     * @param togo
+     *            The number of moves remaining in phase 2
+     * @param lastFace
+     *            The face of the previous move, or -1 if there is none
+     * @return True if a solution was found
+     */
+    private boolean phase2(
+        int cornerPerm,
+        int edgePerm,
+        int slicePerm,
+        int depth,
+        int togo,
+        int lastFace) {
+        if (togo == 0) {
+            return cornerPerm == 0 && edgePerm == 0 && slicePerm == 0;
+        }
+
+        for (int m : CoordTables.PHASE2_MOVES) {
+            int face = m / 3;
+            if (!allowed(face, lastFace)) {
+                continue;
+            }
+
+            int nextCorner = tables.moveCornerPerm(cornerPerm, m);
+            int nextEdge = tables.moveUDEdgePerm(edgePerm, m);
+            int nextSlice = tables.moveSlicePerm(slicePerm, m);
+            if (tables.phase2Distance(nextCorner, nextEdge,
+                nextSlice) >= togo) {
+                continue;
+            }
+
+            moves[depth] = m;
+            if (phase2(nextCorner, nextEdge, nextSlice, depth + 1, togo - 1,
+                face)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
@@ -0,0 +1,70 @@
+package utilities;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the memory allocated by the current thread, used to check that the
+ * render loop does not allocate memory once it is running. Counting is only
+ * available on JVMs that expose per-thread allocation through
+ * com.sun.management.ThreadMXBean, such as HotSpot.
+ * 
+ * @author Chris Hurt
+ * @version 1.1
+ */
+public class AllocationCounter {
+
+    /**
+     * The JVM's thread bean, or null if it cannot count allocated bytes
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+        findThreadBean();
+
+
+    /**
+     * Finds a thread bean able to count allocated bytes and enables counting
+     * 
+     * @return The thread bean, or null if allocation counting is unsupported
+     */
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean sunBean =
+            (com.sun.management.ThreadMXBean)bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+
+
+    /**
+     * Checks whether allocation counting is available on this JVM
+     * 
+     * @return True if getAllocatedBytes() returns real values
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+
+    /**
+     * Gets the total number of bytes allocated by the current thread so far;
+     * the difference between two calls is the memory allocated in between
+     * 
+     * @return The bytes allocated by the current thread, or 0 if counting is
+     *         unsupported
+     */
+    public static long getAllocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return 0;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread()
+            .getId());
+    }
+
+}
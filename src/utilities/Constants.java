@@ -10,10 +10,12 @@ package utilities;
 public class Constants {
 
     /**
-     * Matrix types, transformation and perspective projection
+     * Matrix types, transformation, perspective projection, and the rotation
+     * of a turning layer
      */
     public static final int MAT_TRANSFORM = 0;
     public static final int MAT_PROJECTION = 1;
+    public static final int MAT_LAYER = 2;
 
     /**
      * Used to specify the default color of a sticker, including white, blue,
@@ -26,4 +28,38 @@ public class Constants {
     public static final int COL_O = 4;
     public static final int COL_Y = 5;
 
+    /**
+     * Move indices used by CubeBuffer.apply, with a clockwise,
+     * counterclockwise, and double turn for each face in the order right,
+     * left, up, down, front, back
+     */
+    public static final int MOVE_R = 0;
+    public static final int MOVE_R_PRIME = 1;
+    public static final int MOVE_R2 = 2;
+    public static final int MOVE_L = 3;
+    public static final int MOVE_L_PRIME = 4;
+    public static final int MOVE_L2 = 5;
+    public static final int MOVE_U = 6;
+    public static final int MOVE_U_PRIME = 7;
+    public static final int MOVE_U2 = 8;
+    public static final int MOVE_D = 9;
+    public static final int MOVE_D_PRIME = 10;
+    public static final int MOVE_D2 = 11;
+    public static final int MOVE_F = 12;
+    public static final int MOVE_F_PRIME = 13;
+    public static final int MOVE_F2 = 14;
+    public static final int MOVE_B = 15;
+    public static final int MOVE_B_PRIME = 16;
+    public static final int MOVE_B2 = 17;
+
+    /**
+     * The first move index of each family of extended turns, which follow the
+     * basic turns in the same clockwise, counterclockwise, double order: wide
+     * turns of each face in the order above, the M, E, and S slices, and the
+     * x, y, and z rotations of the whole cube
+     */
+    public static final int MOVE_RW = 18;
+    public static final int MOVE_M = 36;
+    public static final int MOVE_X = 45;
+
 }